@@ -0,0 +1,29 @@
+package shortestpath;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum CalculationCutoff {
+    TIME("Time"),
+    NODES("Nodes"),
+    TIME_AND_NODES("Time and nodes"),
+    ;
+
+    private final String type;
+
+    @Override
+    public String toString() {
+        return type;
+    }
+
+    public static CalculationCutoff fromType(String type) {
+        for (CalculationCutoff calculationCutoff : values()) {
+            if (calculationCutoff.type.equals(type)) {
+                return calculationCutoff;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,97 @@
+package shortestpath;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.awt.image.WritableRaster;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import net.runelite.api.Constants;
+import shortestpath.pathfinder.BackgroundTasks;
+import shortestpath.pathfinder.CollisionMap;
+
+/**
+ * Pre-rendered images of the blocked tiles in each region, used by the world map overlay
+ * instead of testing and drawing every visible tile on every frame.
+ * <p>
+ * Rasters are generated lazily on the background threads of the plugin and kept in a least-recently-used cache.
+ * Each raster is a 1-bit image with one pixel per tile, so the whole surface fits in a few megabytes.
+ */
+public class CollisionRasterCache {
+    private static final int REGION_SIZE = Constants.REGION_SIZE;
+    // 1-bit 64x64 rasters are 512 bytes each, so this caps the cache at roughly 2 MB
+    private static final int MAX_RASTERS = 4096;
+    // Shared marker for regions without any blocked tiles, so they are skipped without drawing
+    private static final BufferedImage EMPTY = new BufferedImage(1, 1, BufferedImage.TYPE_BYTE_BINARY);
+
+    private final ShortestPathPlugin plugin;
+    private final Map<Integer, BufferedImage> rasters = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, BufferedImage> eldest) {
+            return size() > MAX_RASTERS;
+        }
+    };
+    private final BackgroundTasks tasks;
+    private Color colour;
+    private IndexColorModel colourModel;
+
+    public CollisionRasterCache(ShortestPathPlugin plugin, ExecutorService background) {
+        this.plugin = plugin;
+        tasks = new BackgroundTasks(background, this, 1);
+    }
+
+    /**
+     * Returns the raster for the region with its south-west corner at the given coordinates,
+     * where row 0 is the northernmost row of tiles. Returns {@code null} if the raster is not
+     * generated yet or the region has no blocked tiles; generation is scheduled in the former case.
+     *
+     * @param regionX the x coordinate of the region's south-west tile
+     * @param regionY the y coordinate of the region's south-west tile
+     * @param plane   the plane of the region
+     * @param colour  the colour used for blocked tiles
+     */
+    public synchronized BufferedImage get(int regionX, int regionY, int plane, Color colour) {
+        if (!colour.equals(this.colour)) {
+            clear();
+            this.colour = colour;
+            this.colourModel = new IndexColorModel(1, 2,
+                new byte[]{0, (byte) colour.getRed()},
+                new byte[]{0, (byte) colour.getGreen()},
+                new byte[]{0, (byte) colour.getBlue()},
+                new byte[]{0, (byte) colour.getAlpha()});
+        }
+
+        final int key = WorldPointUtil.packWorldPoint(regionX, regionY, plane);
+        BufferedImage raster = rasters.get(key);
+        if (raster == null) {
+            final IndexColorModel model = colourModel;
+            tasks.schedule(key, () -> generate(regionX, regionY, plane, model), generated -> rasters.put(key, generated));
+            return null;
+        }
+        return raster == EMPTY ? null : raster;
+    }
+
+    public synchronized void clear() {
+        rasters.clear();
+        tasks.cancel();
+    }
+
+    /** Draws a region, returning {@link #EMPTY} if it has no blocked tiles */
+    private BufferedImage generate(int regionX, int regionY, int plane, IndexColorModel model) {
+        final CollisionMap map = plugin.getMap();
+        BufferedImage raster = new BufferedImage(REGION_SIZE, REGION_SIZE, BufferedImage.TYPE_BYTE_BINARY, model);
+        WritableRaster pixels = raster.getRaster();
+        boolean anyBlocked = false;
+        for (int dy = 0; dy < REGION_SIZE; dy++) {
+            final int row = REGION_SIZE - 1 - dy;
+            for (int dx = 0; dx < REGION_SIZE; dx++) {
+                if (map.isBlocked(regionX + dx, regionY + dy, plane)) {
+                    pixels.setSample(dx, row, 0, 1);
+                    anyBlocked = true;
+                }
+            }
+        }
+        return anyBlocked ? raster : EMPTY;
+    }
+}
@@ -0,0 +1,340 @@
+package shortestpath;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A path stored as its start and runs of steps in one direction, instead of one packed point per tile.
+ * <p>
+ * Walking paths mostly go straight or diagonally for many tiles, so a run of {@code (direction, length)} takes one
+ * {@code int} where the tiles would take one each. Moves that are not a step to a neighbouring tile on the same
+ * plane, such as transports, are stored as jumps to their destination together with their cost. Walking steps cost
+ * one tick each.
+ * <p>
+ * The tiles are decoded lazily by {@link #iterator()}. Random access with {@link #get(int)} and {@link #getCost(int)}
+ * starts decoding from the nearest checkpoint, one of which is kept every {@link #CHECKPOINT_INTERVAL} tiles.
+ * Compact paths are immutable.
+ */
+public class CompactPath {
+    /** The number of tiles between two checkpoints, which bounds the tiles that random access decodes */
+    public static final int CHECKPOINT_INTERVAL = 64;
+
+    // A token is either a run, length << 4 | direction, or a jump, cost << 4 | JUMP, followed by its destination
+    private static final int JUMP = 8;
+    private static final int TOKEN_BITS = 4;
+    private static final int TOKEN_MASK = (1 << TOKEN_BITS) - 1;
+    /** The longest run or the highest jump cost that fits in a token */
+    private static final int MAX_TOKEN_VALUE = Integer.MAX_VALUE >>> TOKEN_BITS;
+    // Directions in the order of OrdinalDirection: west, east, south, north, south-west, south-east, north-west, north-east
+    private static final int[] DX = {-1, 1, 0, 0, -1, 1, -1, 1};
+    private static final int[] DY = {0, 0, -1, 1, -1, -1, 1, 1};
+    // The ints of a checkpoint: the token, the steps of the token already taken, the tile and the cost
+    private static final int CHECKPOINT_INTS = 4;
+
+    private final int size;
+    private final int start;
+    private final int[] tokens;
+    private final int[] checkpoints;
+
+    private CompactPath(int size, int start, int[] tokens) {
+        this.size = size;
+        this.start = start;
+        this.tokens = tokens;
+        this.checkpoints = new int[CHECKPOINT_INTS * ((size + CHECKPOINT_INTERVAL - 1) / CHECKPOINT_INTERVAL)];
+        final Cursor cursor = new Cursor();
+        for (int index = 0; index < size; index++) {
+            if (index > 0) {
+                cursor.advance();
+            }
+            if (index % CHECKPOINT_INTERVAL == 0) {
+                final int checkpoint = CHECKPOINT_INTS * (index / CHECKPOINT_INTERVAL);
+                checkpoints[checkpoint] = cursor.token;
+                checkpoints[checkpoint + 1] = cursor.taken;
+                checkpoints[checkpoint + 2] = cursor.tile;
+                checkpoints[checkpoint + 3] = cursor.cost;
+            }
+        }
+    }
+
+    /**
+     * Encodes a path. Moves that are not a step to a neighbouring tile cost their Chebyshev distance, as they do for
+     * the nodes of a search.
+     *
+     * @param path the packed points of the path.
+     * @return the compact path.
+     */
+    public static CompactPath encode(PrimitiveIntList path) {
+        final int[] costs = new int[path.size()];
+        for (int i = 1; i < costs.length; i++) {
+            costs[i] = costs[i - 1] + WorldPointUtil.distanceBetween(path.get(i - 1), path.get(i));
+        }
+        return encode(path, costs);
+    }
+
+    /**
+     * Encodes a path with the cost at each of its tiles. Steps to a neighbouring tile that do not cost one tick are
+     * stored as jumps, so that the costs are kept exactly.
+     *
+     * @param path the packed points of the path.
+     * @param costs the cost at each tile of the path, which must not decrease.
+     * @return the compact path.
+     */
+    public static CompactPath encode(PrimitiveIntList path, int[] costs) {
+        if (path.isEmpty()) {
+            return new CompactPath(0, WorldPointUtil.UNDEFINED, new int[0]);
+        }
+
+        final PrimitiveIntList tokens = new PrimitiveIntList();
+        int runDirection = -1;
+        int runLength = 0;
+        for (int i = 1; i < path.size(); i++) {
+            final int from = path.get(i - 1);
+            final int to = path.get(i);
+            final int direction = costs[i] - costs[i - 1] == 1 ? getDirection(from, to) : -1;
+            if (direction >= 0 && direction == runDirection && runLength < MAX_TOKEN_VALUE) {
+                runLength++;
+                continue;
+            }
+            if (runLength > 0) {
+                tokens.add(runLength << TOKEN_BITS | runDirection);
+            }
+            if (direction >= 0) {
+                runDirection = direction;
+                runLength = 1;
+            } else {
+                runDirection = -1;
+                runLength = 0;
+                tokens.add(Math.min(costs[i] - costs[i - 1], MAX_TOKEN_VALUE) << TOKEN_BITS | JUMP);
+                tokens.add(to);
+            }
+        }
+        if (runLength > 0) {
+            tokens.add(runLength << TOKEN_BITS | runDirection);
+        }
+        return new CompactPath(path.size(), path.get(0), toArray(tokens));
+    }
+
+    /**
+     * Decodes a compact path from the ints of {@link #toArray()}.
+     *
+     * @param data the size and start of the path, followed by its tokens.
+     * @return the compact path.
+     * @throws IllegalArgumentException if the data does not describe a path.
+     */
+    public static CompactPath fromArray(int[] data) {
+        if (data.length < 2 || data[0] < 0) {
+            throw new IllegalArgumentException("Invalid compact path header");
+        }
+        final int[] tokens = Arrays.copyOfRange(data, 2, data.length);
+        int tiles = data[0] > 0 ? 1 : 0;
+        for (int i = 0; i < tokens.length; i++) {
+            if ((tokens[i] & TOKEN_MASK) == JUMP && i + 1 < tokens.length) {
+                i++;
+                tiles++;
+            } else if ((tokens[i] & TOKEN_MASK) < JUMP && tokens[i] >>> TOKEN_BITS > 0) {
+                tiles += tokens[i] >>> TOKEN_BITS;
+            } else {
+                throw new IllegalArgumentException("Invalid compact path token at " + i);
+            }
+        }
+        if (tiles != data[0]) {
+            throw new IllegalArgumentException("Compact path has " + tiles + " tiles instead of " + data[0]);
+        }
+        return new CompactPath(data[0], data[1], tokens);
+    }
+
+    /**
+     * Returns the path as ints that can be sent to other plugins: the number of tiles, the start, then the tokens.
+     *
+     * @return a new array.
+     */
+    public int[] toArray() {
+        final int[] data = new int[tokens.length + 2];
+        data[0] = size;
+        data[1] = start;
+        System.arraycopy(tokens, 0, data, 2, tokens.length);
+        return data;
+    }
+
+    /**
+     * Returns the number of tiles in the path.
+     *
+     * @return the number of tiles.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns a tile of the path, decoded from the checkpoint before it.
+     *
+     * @param index the index of the tile.
+     * @return the packed point of the tile.
+     */
+    public int get(int index) {
+        return seek(index).tile;
+    }
+
+    /**
+     * Returns the cost of the path up to a tile, decoded from the checkpoint before it.
+     *
+     * @param index the index of the tile.
+     * @return the cost from the start to the tile.
+     */
+    public int getCost(int index) {
+        return seek(index).cost;
+    }
+
+    /**
+     * Returns the index of the first occurrence of a tile in the path.
+     *
+     * @param packedPoint the tile to look for.
+     * @return the index of the tile, or -1 if the path does not pass it.
+     */
+    public int indexOf(int packedPoint) {
+        final Cursor cursor = new Cursor();
+        for (int index = 0; index < size; index++) {
+            if (index > 0) {
+                cursor.advance();
+            }
+            if (cursor.tile == packedPoint) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns an iterator that decodes the tiles of the path one at a time.
+     *
+     * @return the iterator.
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private final Cursor cursor = new Cursor();
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public int nextInt() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                if (index++ > 0) {
+                    cursor.advance();
+                }
+                return cursor.tile;
+            }
+        };
+    }
+
+    /**
+     * Decodes all tiles of the path.
+     *
+     * @return a new list with one packed point per tile.
+     */
+    public PrimitiveIntList toList() {
+        final PrimitiveIntList path = new PrimitiveIntList(size);
+        for (PrimitiveIterator.OfInt it = iterator(); it.hasNext(); ) {
+            path.add(it.nextInt());
+        }
+        return path;
+    }
+
+    /**
+     * Decodes the cost of the path up to each of its tiles.
+     *
+     * @return a new array with one cost per tile.
+     */
+    public int[] toCosts() {
+        final int[] costs = new int[size];
+        final Cursor cursor = new Cursor();
+        for (int index = 1; index < size; index++) {
+            cursor.advance();
+            costs[index] = cursor.cost;
+        }
+        return costs;
+    }
+
+    /**
+     * Returns the estimated memory of the path, its tokens and its checkpoints.
+     *
+     * @return the estimated size in bytes.
+     */
+    public long getMemoryBytes() {
+        return 48 + 4L * (tokens.length + checkpoints.length);
+    }
+
+    private Cursor seek(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        final int checkpoint = CHECKPOINT_INTS * (index / CHECKPOINT_INTERVAL);
+        final Cursor cursor = new Cursor();
+        cursor.token = checkpoints[checkpoint];
+        cursor.taken = checkpoints[checkpoint + 1];
+        cursor.tile = checkpoints[checkpoint + 2];
+        cursor.cost = checkpoints[checkpoint + 3];
+        for (int i = index % CHECKPOINT_INTERVAL; i > 0; i--) {
+            cursor.advance();
+        }
+        return cursor;
+    }
+
+    /** Returns the direction of a step to a neighbouring tile on the same plane, or -1 if the move is not one */
+    private static int getDirection(int from, int to) {
+        if (WorldPointUtil.unpackWorldPlane(from) != WorldPointUtil.unpackWorldPlane(to)) {
+            return -1;
+        }
+        final int dx = WorldPointUtil.unpackWorldX(to) - WorldPointUtil.unpackWorldX(from);
+        final int dy = WorldPointUtil.unpackWorldY(to) - WorldPointUtil.unpackWorldY(from);
+        for (int direction = 0; direction < DX.length; direction++) {
+            if (DX[direction] == dx && DY[direction] == dy) {
+                return direction;
+            }
+        }
+        return -1;
+    }
+
+    private static int[] toArray(PrimitiveIntList list) {
+        final int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    /** The position of decoding: the tile and its cost, and the next step in the tokens */
+    private class Cursor {
+        private int token;
+        private int taken;
+        private int tile = start;
+        private int cost;
+
+        private void advance() {
+            final int value = tokens[token];
+            if ((value & TOKEN_MASK) == JUMP) {
+                cost += value >>> TOKEN_BITS;
+                tile = tokens[token + 1];
+                token += 2;
+                return;
+            }
+            final int direction = value & TOKEN_MASK;
+            tile = WorldPointUtil.dxdy(tile, DX[direction], DY[direction]);
+            cost++;
+            if (++taken == value >>> TOKEN_BITS) {
+                token++;
+                taken = 0;
+            }
+        }
+    }
+}
@@ -9,6 +9,10 @@ import net.runelite.client.ui.overlay.components.LayoutableRenderableEntity;
 import net.runelite.client.ui.overlay.components.LineComponent;
 import net.runelite.client.ui.overlay.components.TitleComponent;
 import shortestpath.pathfinder.Pathfinder;
+import shortestpath.pathfinder.RouteCache;
+import shortestpath.pathfinder.RouteSpeculator;
+import shortestpath.pathfinder.SearchBudget;
+import shortestpath.pathfinder.SearchRace;
 
 import javax.inject.Inject;
 import java.awt.Color;
@@ -73,6 +77,32 @@ public class DebugOverlayPanel extends OverlayPanel {
         String totalNodes = Integer.toString(stats.getTotalNodesChecked());
         components.add(makeLine("Total:", totalNodes));
 
+        if (stats.getCutoffLimit() != SearchBudget.Limit.NONE) {
+            components.add(makeLine("Cutoff:", stats.getCutoffLimit().name()));
+        }
+
+        RouteCache routes = plugin.getPathfinderConfig().getRoutes();
+        components.add(makeLine("Cached:", stats.isCached() ? "Yes" : "No"));
+        components.add(makeLine("Cache hits:", String.format("%d+%d/%d",
+            routes.getHits(), routes.getSuffixHits(), routes.getHits() + routes.getSuffixHits() + routes.getMisses())));
+
+        RouteSpeculator speculator = plugin.getSpeculator();
+        if (speculator.getSpeculated() > 0) {
+            components.add(makeLine("Speculated:", String.format("%d/%d (%d preempted)",
+                routes.getSpeculativeHits(), speculator.getSpeculated(), speculator.getPreempted())));
+        }
+
+        SearchRace race = plugin.getPathfinderConfig().getRace();
+        if (race.getRaces() > 0) {
+            for (SearchRace.Strategy strategy : SearchRace.Strategy.values()) {
+                components.add(makeLine("Race wins " + strategy.name().toLowerCase() + ":",
+                    String.format("%d (%.0f%%)", race.getWins(strategy), 100 * race.getWinRate(strategy))));
+            }
+        }
+        if (race.getFallbacks() > 0) {
+            components.add(makeLine("Races unreached:", String.valueOf(race.getFallbacks())));
+        }
+
         components.add(separator);
 
         double milliTime = stats.getElapsedTimeNanos() / 1000000.0;
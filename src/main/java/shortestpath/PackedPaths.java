@@ -0,0 +1,137 @@
+package shortestpath;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import shortestpath.transport.Transport;
+import shortestpath.transport.TransportTable;
+
+/**
+ * Builds the plugin message data of paths as primitive arrays instead of lists of {@code WorldPoint}s and strings.
+ * <p>
+ * A packed path is an {@code int[]} of packed points and a parallel {@code int[]} with the index in the
+ * {@link TransportTable} of the transport taken to reach each tile, or -1 if the tile was walked to. Each packed path
+ * gets the next version, and the last few versions are kept so that a plugin that holds one of them can ask for only
+ * the tiles that changed since.
+ */
+public class PackedPaths {
+    /** The number of published versions that deltas can be made from */
+    static final int RECENT_VERSIONS = 8;
+
+    private final TransportTable table;
+    private final ArrayDeque<Packed> recent = new ArrayDeque<>(RECENT_VERSIONS);
+    private int version;
+
+    public PackedPaths(TransportTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Packs a path as the next version.
+     *
+     * @param path the tiles of the path
+     * @param transports the usable transports by packed origin
+     * @return the message data of the path
+     */
+    public synchronized Map<String, Object> publish(PrimitiveIntList path,
+        PrimitiveIntOpenHashMap<Set<Transport>> transports) {
+        final int[] points = new int[path.size()];
+        final int[] transportIndices = new int[path.size()];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = path.get(i);
+            transportIndices[i] = i == 0 ? -1 : table.indexOf(transports.get(points[i - 1]), points[i]);
+        }
+
+        if (recent.size() == RECENT_VERSIONS) {
+            recent.removeFirst();
+        }
+        final Packed packed = new Packed(++version, points, transportIndices);
+        recent.addLast(packed);
+        return packed.toData();
+    }
+
+    /**
+     * Returns the message data of the changes from a version to the last published version. The new path is the
+     * first {@code keepPrefix} tiles of the old path, then the tiles of the delta, then the last {@code keepSuffix}
+     * tiles of the old path. If the version is no longer kept, the delta is the whole path with a base version of -1.
+     *
+     * @param baseVersion the version that the receiver holds
+     * @return the message data of the delta, or {@code null} if no path was published
+     */
+    public synchronized Map<String, Object> deltaSince(int baseVersion) {
+        final Packed latest = recent.peekLast();
+        if (latest == null) {
+            return null;
+        }
+        Packed base = null;
+        for (Packed candidate : recent) {
+            if (candidate.version == baseVersion) {
+                base = candidate;
+            }
+        }
+        if (base == null) {
+            final Map<String, Object> data = latest.toData();
+            data.put("baseVersion", -1);
+            data.put("keepPrefix", 0);
+            data.put("keepSuffix", 0);
+            return data;
+        }
+
+        final int shortest = Math.min(base.points.length, latest.points.length);
+        int prefix = 0;
+        while (prefix < shortest && base.sameStep(prefix, latest, prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < shortest - prefix
+            && base.sameStep(base.points.length - 1 - suffix, latest, latest.points.length - 1 - suffix)) {
+            suffix++;
+        }
+        final int changed = latest.points.length - prefix - suffix;
+        final int[] points = new int[changed];
+        final int[] transportIndices = new int[changed];
+        System.arraycopy(latest.points, prefix, points, 0, changed);
+        System.arraycopy(latest.transports, prefix, transportIndices, 0, changed);
+
+        final Map<String, Object> data = new HashMap<>();
+        data.put("version", latest.version);
+        data.put("baseVersion", base.version);
+        data.put("keepPrefix", prefix);
+        data.put("keepSuffix", suffix);
+        data.put("path", points);
+        data.put("transports", transportIndices);
+        data.put("table", table.getMessageData());
+        return data;
+    }
+
+    public synchronized void clear() {
+        recent.clear();
+    }
+
+    private class Packed {
+        private final int version;
+        private final int[] points;
+        private final int[] transports;
+
+        Packed(int version, int[] points, int[] transports) {
+            this.version = version;
+            this.points = points;
+            this.transports = transports;
+        }
+
+        boolean sameStep(int index, Packed other, int otherIndex) {
+            return points[index] == other.points[otherIndex] && transports[index] == other.transports[otherIndex];
+        }
+
+        /** Returns the message data of the whole path. The arrays are copied, since receivers may change them. */
+        Map<String, Object> toData() {
+            final Map<String, Object> data = new HashMap<>();
+            data.put("version", version);
+            data.put("path", points.clone());
+            data.put("transports", transports.clone());
+            data.put("table", table.getMessageData());
+            return data;
+        }
+    }
+}
@@ -7,19 +7,22 @@ import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.geom.Area;
+import java.awt.image.BufferedImage;
 import java.util.HashSet;
 import net.runelite.api.Client;
+import net.runelite.api.Constants;
 import net.runelite.api.Point;
 import net.runelite.api.widgets.ComponentID;
 import net.runelite.api.widgets.Widget;
 import net.runelite.client.ui.overlay.Overlay;
 import net.runelite.client.ui.overlay.OverlayLayer;
 import net.runelite.client.ui.overlay.OverlayPosition;
-import shortestpath.pathfinder.CollisionMap;
 import shortestpath.transport.Transport;
 import shortestpath.transport.TransportType;
 
 public class PathMapOverlay extends Overlay {
+    private static final int REGION_SIZE = Constants.REGION_SIZE;
+
     private final Client client;
     private final ShortestPathPlugin plugin;
 
@@ -47,19 +50,22 @@ public class PathMapOverlay extends Overlay {
         Area worldMapClipArea = getWorldMapClipArea(worldMapRectangle);
         graphics.setClip(worldMapClipArea);
 
+        int mapWorldPoint = plugin.calculateMapPoint(worldMapRectangle.x, worldMapRectangle.y);
+        int extentX = WorldPointUtil.unpackWorldX(mapWorldPoint);
+        int extentY = WorldPointUtil.unpackWorldY(mapWorldPoint);
+        int extentWidth = getWorldMapExtentWidth(worldMapRectangle);
+        int extentHeight = getWorldMapExtentHeight(worldMapRectangle);
+
         if (plugin.drawCollisionMap) {
-            graphics.setColor(plugin.colourCollisionMap);
-            int mapWorldPoint = plugin.calculateMapPoint(worldMapRectangle.x, worldMapRectangle.y);
-            int extentX = WorldPointUtil.unpackWorldX(mapWorldPoint);
-            int extentY = WorldPointUtil.unpackWorldY(mapWorldPoint);
-            int extentWidth = getWorldMapExtentWidth(worldMapRectangle);
-            int extentHeight = getWorldMapExtentHeight(worldMapRectangle);
-            final CollisionMap map = plugin.getMap();
+            final CollisionRasterCache rasters = plugin.getCollisionRasterCache();
             final int z = client.getPlane();
-            for (int x = extentX; x < (extentX + extentWidth + 1); x++) {
-                for (int y = extentY - extentHeight; y < (extentY + 1); y++) {
-                    if (map.isBlocked(x, y, z)) {
-                        drawOnMap(graphics, WorldPointUtil.packWorldPoint(x, y, z), false, null);
+            final int minRegionX = Math.max(0, extentX) / REGION_SIZE * REGION_SIZE;
+            final int minRegionY = Math.max(0, extentY - extentHeight) / REGION_SIZE * REGION_SIZE;
+            for (int regionX = minRegionX; regionX < (extentX + extentWidth + 1); regionX += REGION_SIZE) {
+                for (int regionY = minRegionY; regionY < (extentY + 1); regionY += REGION_SIZE) {
+                    BufferedImage raster = rasters.get(regionX, regionY, z, plugin.colourCollisionMap);
+                    if (raster != null) {
+                        drawRasterOnMap(graphics, raster, WorldPointUtil.packWorldPoint(regionX, regionY, z));
                     }
                 }
             }
@@ -96,16 +102,25 @@ public class PathMapOverlay extends Overlay {
 
         if (plugin.getPathfinder() != null) {
             Color colour = plugin.getPathfinder().isDone() ? plugin.colourPath : plugin.colourPathCalculating;
-            PrimitiveIntList path = plugin.getPathfinder().getPath();
+            PathSegments segments = plugin.getPathfinder().getPathSegments();
+            PrimitiveIntList path = segments.getPath();
             Point cursorPos = client.getMouseCanvasPosition();
-            for (int i = 0; i < path.size(); i++) {
-                graphics.setColor(colour);
-                int point = path.get(i);
-                int lastPoint = (i > 0) ? path.get(i - 1) : point;
-                if (WorldPointUtil.distanceBetween(point, lastPoint) > 1) {
-                    drawOnMap(graphics, lastPoint, point, true, cursorPos);
+            for (int segment = 0; segment < segments.size(); segment++) {
+                // One tile of margin for tiles that are partially inside the viewport
+                if (mapWorldPoint != WorldPointUtil.UNDEFINED && !segments.intersects(segment, extentX - 1, extentY - extentHeight - 1,
+                    extentX + extentWidth + 1, extentY + 1)) {
+                    continue;
+                }
+
+                for (int i = segments.getStart(segment); i < segments.getEnd(segment); i++) {
+                    graphics.setColor(colour);
+                    int point = path.get(i);
+                    int lastPoint = (i > 0) ? path.get(i - 1) : point;
+                    if (WorldPointUtil.distanceBetween(point, lastPoint) > 1) {
+                        drawOnMap(graphics, lastPoint, point, true, cursorPos);
+                    }
+                    drawOnMap(graphics, point, true, cursorPos);
                 }
-                drawOnMap(graphics, point, true, cursorPos);
             }
             for (int target : plugin.getPathfinder().getTargets()) {
                 if (path.size() > 0 && target != path.get(path.size() - 1)) {
@@ -118,6 +133,25 @@ public class PathMapOverlay extends Overlay {
         return null;
     }
 
+    private void drawRasterOnMap(Graphics2D graphics, BufferedImage raster, int regionPoint) {
+        // Same tile alignment as drawOnMap, applied to the region's outer edges
+        int startX = plugin.mapWorldPointToGraphicsPointX(regionPoint);
+        int tileWidth = plugin.mapWorldPointToGraphicsPointX(WorldPointUtil.dxdy(regionPoint, 1, 0)) - startX;
+        int endX = plugin.mapWorldPointToGraphicsPointX(WorldPointUtil.dxdy(regionPoint, REGION_SIZE, 0));
+        int startY = plugin.mapWorldPointToGraphicsPointY(WorldPointUtil.dxdy(regionPoint, 0, REGION_SIZE - 1));
+        int tileHeight = plugin.mapWorldPointToGraphicsPointY(WorldPointUtil.dxdy(regionPoint, 0, REGION_SIZE - 2)) - startY;
+        int endY = plugin.mapWorldPointToGraphicsPointY(WorldPointUtil.dxdy(regionPoint, 0, -1));
+
+        if (startX == Integer.MIN_VALUE || startY == Integer.MIN_VALUE ||
+            endX == Integer.MIN_VALUE || endY == Integer.MIN_VALUE) {
+            return;
+        }
+
+        int x = startX - tileWidth / 2;
+        int y = startY - tileHeight / 2;
+        graphics.drawImage(raster, x, y, endX - startX, endY - startY, null);
+    }
+
     private void drawOnMap(Graphics2D graphics, int point, boolean checkHover, Point cursorPos) {
         drawOnMap(graphics, point, WorldPointUtil.dxdy(point, 1, -1), checkHover, cursorPos);
     }
@@ -1,14 +1,18 @@
 package shortestpath;
 
 import com.google.inject.Inject;
-import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Shape;
+import java.awt.geom.Path2D;
+import java.util.Set;
 import net.runelite.api.Client;
 import net.runelite.api.Perspective;
+import net.runelite.api.Player;
 import net.runelite.api.Point;
+import net.runelite.api.WorldView;
 import net.runelite.api.coords.LocalPoint;
 import net.runelite.client.ui.overlay.Overlay;
 import net.runelite.client.ui.overlay.OverlayLayer;
@@ -17,6 +21,24 @@ import net.runelite.client.ui.overlay.OverlayPosition;
 public class PathMinimapOverlay extends Overlay {
     private final Client client;
     private final ShortestPathPlugin plugin;
+    private final PrimitiveIntList instancePoints = new PrimitiveIntList();
+
+    // Minimap tile centres of the path and of the unreached targets, as consecutive (x, y) pairs
+    private final PrimitiveIntList projectedPath = new PrimitiveIntList();
+    private final PrimitiveIntList projectedTargets = new PrimitiveIntList();
+    private final Path2D.Float pathShape = new Path2D.Float();
+    private final Path2D.Float targetShape = new Path2D.Float();
+
+    // Inputs of the last projection; the shapes are only rebuilt when one of these changes
+    private PrimitiveIntList lastPath;
+    private Set<Integer> lastTargets;
+    private LocalPoint lastPlayerLocation;
+    private int lastPlane;
+    private int lastBaseX;
+    private int lastBaseY;
+    private int lastYaw;
+    private double lastZoom;
+    private Rectangle lastMinimapBounds;
 
     @Inject
     private PathMinimapOverlay(Client client, ShortestPathPlugin plugin) {
@@ -41,27 +63,127 @@ public class PathMinimapOverlay extends Overlay {
         }
         graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
 
-        PrimitiveIntList pathPoints = plugin.getPathfinder().getPath();
-        Color pathColor = plugin.getPathfinder().isDone() ? plugin.colourPath : plugin.colourPathCalculating;
-        for (int i = 0; i < pathPoints.size(); i++) {
-            int pathPoint = pathPoints.get(i);
-            if (WorldPointUtil.unpackWorldPlane(pathPoint) != client.getPlane()) {
+        PathSegments segments = plugin.getPathfinder().getPathSegments();
+        Set<Integer> targets = plugin.getPathfinder().getTargets();
+        Rectangle minimapBounds = minimapClipArea.getBounds();
+        if (needsProjection(segments.getPath(), targets, minimapBounds)) {
+            project(segments, targets, minimapBounds);
+        }
+
+        graphics.setColor(plugin.getPathfinder().isDone() ? plugin.colourPath : plugin.colourPathCalculating);
+        graphics.fill(pathShape);
+        graphics.setColor(plugin.colourPathCalculating);
+        graphics.fill(targetShape);
+
+        return null;
+    }
+
+    private boolean needsProjection(PrimitiveIntList path, Set<Integer> targets, Rectangle minimapBounds) {
+        Player localPlayer = client.getLocalPlayer();
+        LocalPoint playerLocation = localPlayer == null ? null : localPlayer.getLocalLocation();
+        WorldView worldView = client.getTopLevelWorldView();
+        boolean changed = path != lastPath
+            || targets != lastTargets
+            || playerLocation == null
+            || lastPlayerLocation == null
+            || playerLocation.getX() != lastPlayerLocation.getX()
+            || playerLocation.getY() != lastPlayerLocation.getY()
+            || client.getPlane() != lastPlane
+            || worldView.getBaseX() != lastBaseX
+            || worldView.getBaseY() != lastBaseY
+            || client.getCameraYawTarget() != lastYaw
+            || client.getMinimapZoom() != lastZoom
+            || !minimapBounds.equals(lastMinimapBounds);
+
+        lastPath = path;
+        lastTargets = targets;
+        lastPlayerLocation = playerLocation;
+        lastPlane = client.getPlane();
+        lastBaseX = worldView.getBaseX();
+        lastBaseY = worldView.getBaseY();
+        lastYaw = client.getCameraYawTarget();
+        lastZoom = client.getMinimapZoom();
+        lastMinimapBounds = minimapBounds;
+        return changed;
+    }
+
+    private void project(PathSegments segments, Set<Integer> targets, Rectangle minimapBounds) {
+        PrimitiveIntList pathPoints = segments.getPath();
+        projectedPath.clear();
+        projectedTargets.clear();
+
+        int center = getMinimapCenter();
+        // Generous radius in tiles so that rotation and the minimap shape never cull visible tiles
+        int radius = (int) Math.ceil(Math.max(minimapBounds.getWidth(), minimapBounds.getHeight())
+            / Math.max(client.getMinimapZoom(), 1));
+        for (int segment = 0; segment < segments.size(); segment++) {
+            if (!isOnMinimap(segments, segment, center, radius)) {
                 continue;
             }
 
-            drawOnMinimap(graphics, pathPoint, pathColor);
+            for (int i = segments.getStart(segment); i < segments.getEnd(segment); i++) {
+                int pathPoint = pathPoints.get(i);
+                if (WorldPointUtil.unpackWorldPlane(pathPoint) != client.getPlane()) {
+                    continue;
+                }
+
+                projectOnMinimap(pathPoint, projectedPath);
+            }
         }
-        for (int target : plugin.getPathfinder().getTargets()) {
+        for (int target : targets) {
             if (pathPoints.size() > 0 && target != pathPoints.get(pathPoints.size() - 1)) {
-                drawOnMinimap(graphics, target, plugin.colourPathCalculating);
+                projectOnMinimap(target, projectedTargets);
             }
         }
 
-        return null;
+        // Every tile is the same square rotated with the minimap, so the corner offsets are computed once
+        double angle = client.getCameraYawTarget() * Perspective.UNIT;
+        double halfSize = client.getMinimapZoom() / 2;
+        float cos = (float) (Math.cos(angle) * halfSize);
+        float sin = (float) (Math.sin(angle) * halfSize);
+        float[] cornerX = {-cos + sin, cos + sin, cos - sin, -cos - sin};
+        float[] cornerY = {-sin - cos, sin - cos, sin + cos, -sin + cos};
+        buildShape(pathShape, projectedPath, cornerX, cornerY);
+        buildShape(targetShape, projectedTargets, cornerX, cornerY);
     }
 
-    private void drawOnMinimap(Graphics2D graphics, int location, Color color) {
-        PrimitiveIntList points = WorldPointUtil.toLocalInstance(client, location);
+    private static void buildShape(Path2D.Float shape, PrimitiveIntList centers, float[] cornerX, float[] cornerY) {
+        shape.reset();
+        for (int i = 0; i < centers.size(); i += 2) {
+            float x = centers.get(i);
+            float y = centers.get(i + 1);
+            shape.moveTo(x + cornerX[0], y + cornerY[0]);
+            shape.lineTo(x + cornerX[1], y + cornerY[1]);
+            shape.lineTo(x + cornerX[2], y + cornerY[2]);
+            shape.lineTo(x + cornerX[3], y + cornerY[3]);
+            shape.closePath();
+        }
+    }
+
+    private int getMinimapCenter() {
+        Player localPlayer = client.getLocalPlayer();
+        if (localPlayer == null || client.getTopLevelWorldView().isInstance()) {
+            return WorldPointUtil.UNDEFINED; // Path points are template coordinates inside instances, so nothing is culled
+        }
+        return WorldPointUtil.fromLocalInstance(client, localPlayer);
+    }
+
+    private boolean isOnMinimap(PathSegments segments, int segment, int center, int radius) {
+        if (center == WorldPointUtil.UNDEFINED) {
+            return true;
+        }
+
+        if (segments.getPlane(segment) != client.getPlane()) {
+            return false;
+        }
+
+        int x = WorldPointUtil.unpackWorldX(center);
+        int y = WorldPointUtil.unpackWorldY(center);
+        return segments.intersects(segment, x - radius, y - radius, x + radius, y + radius);
+    }
+
+    private void projectOnMinimap(int location, PrimitiveIntList projected) {
+        PrimitiveIntList points = WorldPointUtil.toLocalInstance(client, location, instancePoints);
         for (int i = 0; i < points.size(); i++) {
             LocalPoint lp = WorldPointUtil.toLocalPoint(client, points.get(i));
 
@@ -75,20 +197,8 @@ public class PathMinimapOverlay extends Overlay {
                 continue;
             }
 
-            renderMinimapRect(client, graphics, posOnMinimap, color);
+            projected.add(posOnMinimap.getX());
+            projected.add(posOnMinimap.getY());
         }
     }
-
-    public static void renderMinimapRect(Client client, Graphics2D graphics, Point center, Color color) {
-        double angle = client.getCameraYawTarget() * Perspective.UNIT;
-        double tileSize = client.getMinimapZoom();
-        int x = (int) Math.round(center.getX() - tileSize / 2);
-        int y = (int) Math.round(center.getY() - tileSize / 2);
-        int width = (int) Math.round(tileSize);
-        int height = (int) Math.round(tileSize);
-        graphics.setColor(color);
-        graphics.rotate(angle, center.getX(), center.getY());
-        graphics.fillRect(x, y, width, height);
-        graphics.rotate(-angle, center.getX(), center.getY());
-    }
 }
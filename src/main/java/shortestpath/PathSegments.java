@@ -0,0 +1,142 @@
+package shortestpath;
+
+import java.util.Arrays;
+
+/**
+ * A path split into runs of consecutive points that share a region and plane, each with a bounding box.
+ * <p>
+ * Overlays test the bounding boxes against what is on screen (the loaded scene, the minimap or the world map
+ * viewport) and only do per-tile work for the segments that can be visible. A segment's bounding box also covers
+ * the point just before it, so that a line drawn into the segment from the previous point is not culled.
+ * <p>
+ * Segments are stored in parallel {@code int} arrays and are immutable once built.
+ */
+public class PathSegments {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final PrimitiveIntList path;
+    private int size;
+    private int[] starts = new int[INITIAL_CAPACITY];
+    private int[] planes = new int[INITIAL_CAPACITY];
+    private int[] minXs = new int[INITIAL_CAPACITY];
+    private int[] minYs = new int[INITIAL_CAPACITY];
+    private int[] maxXs = new int[INITIAL_CAPACITY];
+    private int[] maxYs = new int[INITIAL_CAPACITY];
+
+    /**
+     * Splits the path into segments. The path must not be modified afterwards.
+     *
+     * @param path the path to split.
+     */
+    public PathSegments(PrimitiveIntList path) {
+        this.path = path;
+        int segmentKey = WorldPointUtil.UNDEFINED;
+        for (int i = 0; i < path.size(); i++) {
+            int point = path.get(i);
+            int key = WorldPointUtil.packWorldPoint(
+                WorldPointUtil.unpackWorldX(point) >> 6,
+                WorldPointUtil.unpackWorldY(point) >> 6,
+                WorldPointUtil.unpackWorldPlane(point));
+            if (key != segmentKey) {
+                segmentKey = key;
+                addSegment(i, WorldPointUtil.unpackWorldPlane(point));
+                if (i > 0) {
+                    include(path.get(i - 1));
+                }
+            }
+            include(point);
+        }
+    }
+
+    /**
+     * Returns the path the segments were built from.
+     *
+     * @return the segmented path.
+     */
+    public PrimitiveIntList getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the number of segments.
+     *
+     * @return segment count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the path index of the first point in a segment.
+     *
+     * @param segment segment index.
+     * @return first path index, inclusive.
+     */
+    public int getStart(int segment) {
+        return starts[segment];
+    }
+
+    /**
+     * Returns the path index after the last point in a segment.
+     *
+     * @param segment segment index.
+     * @return last path index, exclusive.
+     */
+    public int getEnd(int segment) {
+        return segment + 1 < size ? starts[segment + 1] : path.size();
+    }
+
+    /**
+     * Returns the plane shared by the points of a segment.
+     *
+     * @param segment segment index.
+     * @return plane (0..3).
+     */
+    public int getPlane(int segment) {
+        return planes[segment];
+    }
+
+    /**
+     * Tests whether the bounding box of a segment overlaps the given inclusive rectangle, ignoring planes.
+     *
+     * @param segment segment index.
+     * @param minX minimum x of the rectangle.
+     * @param minY minimum y of the rectangle.
+     * @param maxX maximum x of the rectangle.
+     * @param maxY maximum y of the rectangle.
+     * @return {@code true} if the segment may have points or lines inside the rectangle.
+     */
+    public boolean intersects(int segment, int minX, int minY, int maxX, int maxY) {
+        return minXs[segment] <= maxX && maxXs[segment] >= minX
+            && minYs[segment] <= maxY && maxYs[segment] >= minY;
+    }
+
+    private void addSegment(int start, int plane) {
+        if (size == starts.length) {
+            int capacity = size + (size >> 1);
+            starts = Arrays.copyOf(starts, capacity);
+            planes = Arrays.copyOf(planes, capacity);
+            minXs = Arrays.copyOf(minXs, capacity);
+            minYs = Arrays.copyOf(minYs, capacity);
+            maxXs = Arrays.copyOf(maxXs, capacity);
+            maxYs = Arrays.copyOf(maxYs, capacity);
+        }
+        starts[size] = start;
+        planes[size] = plane;
+        minXs[size] = Integer.MAX_VALUE;
+        minYs[size] = Integer.MAX_VALUE;
+        maxXs[size] = Integer.MIN_VALUE;
+        maxYs[size] = Integer.MIN_VALUE;
+        size++;
+    }
+
+    private void include(int point) {
+        int x = WorldPointUtil.unpackWorldX(point);
+        int y = WorldPointUtil.unpackWorldY(point);
+        int segment = size - 1;
+        minXs[segment] = Math.min(minXs[segment], x);
+        minYs[segment] = Math.min(minYs[segment], y);
+        maxXs[segment] = Math.max(maxXs[segment], x);
+        maxYs[segment] = Math.max(maxYs[segment], y);
+    }
+}
@@ -10,14 +10,17 @@ import java.awt.geom.Line2D;
 import java.awt.geom.Rectangle2D;
 import java.util.HashSet;
 import net.runelite.api.Client;
+import net.runelite.api.Constants;
 import net.runelite.api.Perspective;
 import net.runelite.api.Point;
 import net.runelite.api.Tile;
+import net.runelite.api.WorldView;
 import net.runelite.api.coords.LocalPoint;
 import net.runelite.client.ui.overlay.Overlay;
 import net.runelite.client.ui.overlay.OverlayLayer;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import shortestpath.pathfinder.CollisionMap;
+import shortestpath.pathfinder.Isochrone;
 import shortestpath.transport.Transport;
 import shortestpath.transport.TransportType;
 
@@ -25,6 +28,19 @@ public class PathTileOverlay extends Overlay {
     private final Client client;
     private final ShortestPathPlugin plugin;
     private static final int TRANSPORT_LABEL_GAP = 3;
+    private static final int REGION_SIZE = Constants.REGION_SIZE;
+
+    // Transport origins inside the loaded scene, rebuilt when the scene or the usable transports change
+    private final PrimitiveIntList sceneTransportOrigins = new PrimitiveIntList();
+    private int sceneBaseX = -1;
+    private int sceneBaseY = -1;
+    private int sceneTransportsVersion = -1;
+
+    // Reusable buffers for instance lookups, so drawing does not allocate per path point
+    private final PrimitiveIntList instancePoints = new PrimitiveIntList();
+    private final PrimitiveIntList instanceStarts = new PrimitiveIntList();
+    private final PrimitiveIntList instanceEnds = new PrimitiveIntList();
+    private final PrimitiveIntList transportDestinations = new PrimitiveIntList();
 
     @Inject
     public PathTileOverlay(Client client, ShortestPathPlugin plugin) {
@@ -35,12 +51,41 @@ public class PathTileOverlay extends Overlay {
         setLayer(OverlayLayer.ABOVE_SCENE);
     }
 
-    private void renderTransports(Graphics2D graphics) {
-        for (int a : plugin.getTransports().keySet()) {
-            if (a == Transport.UNDEFINED_ORIGIN) {
-                continue; // skip teleports
+    private void updateSceneTransports() {
+        WorldView worldView = client.getTopLevelWorldView();
+        int baseX = worldView.getBaseX();
+        int baseY = worldView.getBaseY();
+        int version = plugin.getPathfinderConfig().getTransportsVersion();
+        if (baseX == sceneBaseX && baseY == sceneBaseY && version == sceneTransportsVersion) {
+            return;
+        }
+        sceneBaseX = baseX;
+        sceneBaseY = baseY;
+        sceneTransportsVersion = version;
+        sceneTransportOrigins.clear();
+
+        int maxX = baseX + worldView.getSizeX();
+        int maxY = baseY + worldView.getSizeY();
+        for (int regionX = baseX & ~(REGION_SIZE - 1); regionX < maxX; regionX += REGION_SIZE) {
+            for (int regionY = baseY & ~(REGION_SIZE - 1); regionY < maxY; regionY += REGION_SIZE) {
+                PrimitiveIntList origins = plugin.getPathfinderConfig().getTransportOriginsInRegion(
+                    WorldPointUtil.getRegionId(regionX, regionY));
+                for (int i = 0; i < origins.size(); i++) {
+                    int origin = origins.get(i);
+                    int x = WorldPointUtil.unpackWorldX(origin);
+                    int y = WorldPointUtil.unpackWorldY(origin);
+                    if (x >= baseX && x < maxX && y >= baseY && y < maxY) {
+                        sceneTransportOrigins.add(origin);
+                    }
+                }
             }
+        }
+    }
 
+    private void renderTransports(Graphics2D graphics) {
+        updateSceneTransports();
+        for (int i = 0; i < sceneTransportOrigins.size(); i++) {
+            int a = sceneTransportOrigins.get(i);
             boolean drawStart = false;
 
             Point ca = tileCenter(a);
@@ -54,9 +99,9 @@ public class PathTileOverlay extends Overlay {
                 if (b == null || TransportType.isTeleport(b.getType())) {
                     continue; // skip teleports
                 }
-                PrimitiveIntList destinations = WorldPointUtil.toLocalInstance(client, b.getDestination());
-                for (int i = 0; i < destinations.size(); i++) {
-                    int destination = destinations.get(i);
+                PrimitiveIntList destinations = WorldPointUtil.toLocalInstance(client, b.getDestination(), transportDestinations);
+                for (int j = 0; j < destinations.size(); j++) {
+                    int destination = destinations.get(j);
                     if (destination == Transport.UNDEFINED_DESTINATION) {
                         continue;
                     }
@@ -122,8 +167,34 @@ public class PathTileOverlay extends Overlay {
         }
     }
 
+    private void renderReachable(Graphics2D graphics, Isochrone reachable) {
+        graphics.setColor(plugin.colourReachable);
+        for (Tile[] row : client.getScene().getTiles()[client.getPlane()]) {
+            for (Tile tile : row) {
+                if (tile == null) {
+                    continue;
+                }
+
+                int location = WorldPointUtil.fromLocalInstance(client, tile.getLocalLocation());
+                if (!reachable.contains(location)) {
+                    continue;
+                }
+
+                Polygon tilePolygon = Perspective.getCanvasTilePoly(client, tile.getLocalLocation());
+                if (tilePolygon != null) {
+                    graphics.fill(tilePolygon);
+                }
+            }
+        }
+    }
+
     @Override
     public Dimension render(Graphics2D graphics) {
+        Isochrone reachable = plugin.getReachable();
+        if (reachable != null && plugin.reachableTicks > 0) {
+            renderReachable(graphics, reachable);
+        }
+
         if (plugin.drawTransports) {
             renderTransports(graphics);
         }
@@ -146,25 +217,36 @@ public class PathTileOverlay extends Overlay {
                     plugin.colourPath.getAlpha() / 2)
                 : colorCalculating;
 
-            PrimitiveIntList path = plugin.getPathfinder().getPath();
-            int counter = 0;
-            if (TileStyle.LINES.equals(plugin.pathStyle)) {
-                for (int i = 1; i < path.size(); i++) {
-                    drawLine(graphics, path.get(i - 1), path.get(i), color, 1 + counter++);
-                    drawTransportInfo(graphics, path.get(i - 1), path.get(i), path, i - 1);
+            PathSegments segments = plugin.getPathfinder().getPathSegments();
+            PrimitiveIntList path = segments.getPath();
+            boolean drawLines = TileStyle.LINES.equals(plugin.pathStyle);
+            boolean showTiles = TileStyle.TILES.equals(plugin.pathStyle);
+            for (int segment = 0; segment < segments.size(); segment++) {
+                // Lines start at the previous point, which can be on another plane than the segment
+                if (!isInScene(segments, segment, !drawLines)) {
+                    continue;
                 }
-            } else {
-                boolean showTiles = TileStyle.TILES.equals(plugin.pathStyle);
-                for (int i = 0; i < path.size(); i++) {
+
+                // The counter of a point is its path index, so culled segments do not shift it
+                for (int i = segments.getStart(segment); i < segments.getEnd(segment); i++) {
+                    if (drawLines) {
+                        if (i > 0) {
+                            drawLine(graphics, path.get(i - 1), path.get(i), color, i);
+                            drawTransportInfo(graphics, path.get(i - 1), path.get(i), path, i - 1);
+                        }
+                        continue;
+                    }
+
                     // Skip drawing tiles inside POH (no collision data, tiles render at wrong positions)
                     int pathX = WorldPointUtil.unpackWorldX(path.get(i));
                     int pathY = WorldPointUtil.unpackWorldY(path.get(i));
                     if (!ShortestPathPlugin.isInsidePoh(pathX, pathY)) {
-                        drawTile(graphics, path.get(i), color, counter, showTiles);
+                        drawTile(graphics, path.get(i), color, i, showTiles);
                     }
-                    counter++;
                     drawTransportInfo(graphics, path.get(i), (i + 1 == path.size()) ? WorldPointUtil.UNDEFINED : path.get(i + 1), path, i);
                 }
+            }
+            if (!drawLines) {
                 for (int target : plugin.getPathfinder().getTargets()) {
                     if (path.size() > 0 && target != path.get(path.size() - 1)) {
                         drawTile(graphics, target, colorCalculating, -1, showTiles);
@@ -176,6 +258,22 @@ public class PathTileOverlay extends Overlay {
         return null;
     }
 
+    private boolean isInScene(PathSegments segments, int segment, boolean checkPlane) {
+        WorldView worldView = client.getTopLevelWorldView();
+        if (worldView.isInstance()) {
+            return true; // Path points are template coordinates that are only mapped into the instance when drawn
+        }
+
+        if (checkPlane && segments.getPlane(segment) != worldView.getPlane()) {
+            return false;
+        }
+
+        int baseX = worldView.getBaseX();
+        int baseY = worldView.getBaseY();
+        return segments.intersects(segment, baseX, baseY,
+            baseX + worldView.getSizeX() - 1, baseY + worldView.getSizeY() - 1);
+    }
+
     private Point tileCenter(int b) {
         if (b == WorldPointUtil.UNDEFINED || client == null) {
             return null;
@@ -205,7 +303,7 @@ public class PathTileOverlay extends Overlay {
             return;
         }
 
-        PrimitiveIntList points = WorldPointUtil.toLocalInstance(client, location);
+        PrimitiveIntList points = WorldPointUtil.toLocalInstance(client, location, instancePoints);
         for (int i = 0; i < points.size(); i++) {
             int point = points.get(i);
             if (point == WorldPointUtil.UNDEFINED) {
@@ -232,8 +330,8 @@ public class PathTileOverlay extends Overlay {
     }
 
     private void drawLine(Graphics2D graphics, int startLoc, int endLoc, Color color, int counter) {
-        PrimitiveIntList starts = WorldPointUtil.toLocalInstance(client, startLoc);
-        PrimitiveIntList ends = WorldPointUtil.toLocalInstance(client, endLoc);
+        PrimitiveIntList starts = WorldPointUtil.toLocalInstance(client, startLoc, instanceStarts);
+        PrimitiveIntList ends = WorldPointUtil.toLocalInstance(client, endLoc, instanceEnds);
 
         if (starts.isEmpty() || ends.isEmpty()) {
             return;
@@ -368,7 +466,7 @@ public class PathTileOverlay extends Overlay {
                 text = text + " (Exit: " + pohExitInfo + ")";
             }
 
-            PrimitiveIntList points = WorldPointUtil.toLocalInstance(client, location);
+            PrimitiveIntList points = WorldPointUtil.toLocalInstance(client, location, instancePoints);
             for (int i = 0; i < points.size(); i++) {
                 LocalPoint lp = WorldPointUtil.toLocalPoint(client, points.get(i));
                 if (lp == null) {
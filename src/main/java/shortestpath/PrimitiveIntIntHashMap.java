@@ -0,0 +1,234 @@
+package shortestpath;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from primitive {@code int} keys to primitive {@code int} values, stored in flat parallel arrays.
+ * <p>
+ * Lookups probe the slots like {@link PrimitiveIntOpenHashMap}, but the values are ints as well, so nothing is boxed
+ * and a lookup never leaves the two arrays. The key {@code 0} marks an empty slot, so its value is kept outside the
+ * arrays.
+ */
+public class PrimitiveIntIntHashMap {
+    private static final float DEFAULT_LOAD_FACTOR = 0.5f;
+    private static final int EMPTY = 0;
+
+    private int[] keys;
+    private int[] values;
+    private boolean hasEmptyKey;
+    private int emptyKeyValue;
+    private int size;
+    private int mask;
+    private int capacity;
+    private final float loadFactor;
+
+    /**
+     * Receives the entries of a map.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    /**
+     * Creates a new map with the specified initial size and the default load factor (0.5).
+     *
+     * @param initialSize initial expected number of elements.
+     */
+    public PrimitiveIntIntHashMap(int initialSize) {
+        this(initialSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Creates a new map with the given initial size and load factor.
+     *
+     * @param initialSize initial expected number of elements.
+     * @param loadFactor a value in the range {@code (0.0, 1.0)} determining when the map grows.
+     * @throws IllegalArgumentException if {@code loadFactor} is outside the exclusive range 0..1.
+     */
+    public PrimitiveIntIntHashMap(int initialSize, float loadFactor) {
+        if (loadFactor <= 0.0f || loadFactor >= 1.0f) {
+            throw new IllegalArgumentException("Load factor must be between 0 and 1");
+        }
+
+        this.loadFactor = loadFactor;
+        allocate(PrimitiveIntOpenHashMap.tableSize(initialSize, loadFactor));
+    }
+
+    /**
+     * Returns the number of key/value pairs currently stored.
+     *
+     * @return current entry count (always {@code >= 0}).
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Retrieves the value mapped to the provided key.
+     *
+     * @param key primitive key to look up.
+     * @param defaultValue value to return if the key is not present.
+     * @return the mapped value, or {@code defaultValue} when absent.
+     */
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == EMPTY) {
+            return hasEmptyKey ? emptyKeyValue : defaultValue;
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            final int slotKey = keys[slot];
+            if (slotKey == key) {
+                return values[slot];
+            } else if (slotKey == EMPTY) {
+                return defaultValue;
+            }
+        }
+    }
+
+    public boolean containsKey(int key) {
+        if (key == EMPTY) {
+            return hasEmptyKey;
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return true;
+            } else if (keys[slot] == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Associates the specified value with the given key, replacing any previous value.
+     *
+     * @param key primitive key to insert or update.
+     * @param value value to associate.
+     * @return whether the key was not in the map before.
+     */
+    public boolean put(int key, int value) {
+        if (key == EMPTY) {
+            final boolean added = !hasEmptyKey;
+            hasEmptyKey = true;
+            emptyKeyValue = value;
+            if (added) {
+                size++;
+            }
+            return added;
+        }
+
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size >= capacity) {
+            allocate(keys.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the mapping of a key.
+     *
+     * @param key primitive key to remove.
+     * @return whether the key was in the map.
+     */
+    public boolean remove(int key) {
+        if (key == EMPTY) {
+            final boolean removed = hasEmptyKey;
+            if (removed) {
+                hasEmptyKey = false;
+                size--;
+            }
+            return removed;
+        }
+
+        int slot = slot(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        size--;
+
+        // Shift back the entries after the removed one that would no longer be found past the empty slot
+        int gap = slot;
+        for (slot = (slot + 1) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            final int home = slot(keys[slot]);
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = EMPTY;
+        return true;
+    }
+
+    /**
+     * Passes every entry of the map to a consumer, in no particular order. The map must not be changed while the
+     * entries are passed.
+     *
+     * @param consumer the consumer of the entries.
+     */
+    public void forEach(EntryConsumer consumer) {
+        if (hasEmptyKey) {
+            consumer.accept(EMPTY, emptyKeyValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Removes all entries from the map. The arrays keep their size.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        hasEmptyKey = false;
+        size = 0;
+    }
+
+    private int slot(int key) {
+        return PrimitiveIntOpenHashMap.hash(key) & mask;
+    }
+
+    /** Replaces the arrays with arrays of a size, and inserts the entries again */
+    private void allocate(int tableSize) {
+        final int[] oldKeys = keys;
+        final int[] oldValues = values;
+        keys = new int[tableSize];
+        values = new int[tableSize];
+        mask = tableSize - 1;
+        capacity = Math.min((int) (tableSize * loadFactor), tableSize - 1);
+        if (oldKeys == null) {
+            return;
+        }
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            final int key = oldKeys[i];
+            if (key == EMPTY) {
+                continue;
+            }
+            int slot = slot(key);
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = oldValues[i];
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package shortestpath;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A hash map keyed by primitive {@code int} values, stored in flat parallel arrays of keys and values.
+ * <p>
+ * Unlike {@link PrimitiveIntHashMap}, there are no entry objects or bucket arrays: a lookup hashes the key to a slot
+ * of {@link #keys} and probes the following slots until it finds the key or an empty slot, so it reads one or two
+ * adjacent ints and then the value. The key {@code 0} marks an empty slot, so its value is kept outside the arrays.
+ * Removed entries shift the entries after them back instead of leaving markers, which keeps every probe sequence
+ * short without rehashing.
+ * <p>
+ * Duplicate key insertion replaces the previous value, or appends collection contents when both the old and new
+ * values are {@link Collection}s, as {@link PrimitiveIntHashMap#put} does.
+ *
+ * @param <V> the value type stored for each primitive {@code int} key. Must be non-null.
+ */
+public class PrimitiveIntOpenHashMap<V> {
+    private static final int MINIMUM_SIZE = 8;
+    private static final float DEFAULT_LOAD_FACTOR = 0.5f;
+    private static final int EMPTY = 0;
+
+    private int[] keys;
+    private Object[] values;
+    /** The value of the key that marks empty slots, or {@code null} if it has none */
+    private Object emptyKeyValue;
+    private int size;
+    private int mask;
+    private int capacity;
+    private final float loadFactor;
+
+    /**
+     * Receives the entries of a map.
+     *
+     * @param <V> the value type of the map.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    /**
+     * Creates a new map with the specified initial size and the default load factor (0.5).
+     *
+     * @param initialSize initial expected number of elements.
+     */
+    public PrimitiveIntOpenHashMap(int initialSize) {
+        this(initialSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Creates a new map with the given initial size and load factor.
+     *
+     * @param initialSize initial expected number of elements.
+     * @param loadFactor a value in the range {@code (0.0, 1.0)} determining when the map grows. Higher values reduce
+     *                   space overhead but make probe sequences longer.
+     * @throws IllegalArgumentException if {@code loadFactor} is outside the exclusive range 0..1.
+     */
+    public PrimitiveIntOpenHashMap(int initialSize, float loadFactor) {
+        if (loadFactor <= 0.0f || loadFactor >= 1.0f) {
+            throw new IllegalArgumentException("Load factor must be between 0 and 1");
+        }
+
+        this.loadFactor = loadFactor;
+        allocate(tableSize(initialSize, loadFactor));
+    }
+
+    /**
+     * Returns the number of key/value pairs currently stored.
+     *
+     * @return current entry count (always {@code >= 0}).
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Retrieves the value mapped to the provided key, or {@code null} if absent.
+     *
+     * @param key primitive key to look up.
+     * @return the mapped value, or {@code null} if the key does not exist.
+     */
+    public V get(int key) {
+        return getOrDefault(key, null);
+    }
+
+    /**
+     * Retrieves the value mapped to the provided key.
+     *
+     * @param key primitive key to look up.
+     * @param defaultValue value to return if the key is not present.
+     * @return the mapped value, or {@code defaultValue} when absent.
+     */
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(int key, V defaultValue) {
+        if (key == EMPTY) {
+            return emptyKeyValue == null ? defaultValue : (V) emptyKeyValue;
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            final int slotKey = keys[slot];
+            if (slotKey == key) {
+                return (V) values[slot];
+            } else if (slotKey == EMPTY) {
+                return defaultValue;
+            }
+        }
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associates the specified value with the given key.
+     * <p>
+     * If a mapping already exists and both the existing and new values implement {@link Collection}, the method
+     * attempts to append all elements of the new collection into the existing one. If the append fails (e.g., due
+     * to incompatible element types or an unsupported operation) the existing value is replaced entirely.
+     * Otherwise the existing value is simply replaced.
+     *
+     * @param key primitive key to insert or update.
+     * @param value non-null value to associate.
+     * @param <E> inferred element type if both values are collections.
+     * @return the previous value mapped to {@code key} (if any), or {@code null} if inserting a new entry.
+     * @throws IllegalArgumentException if {@code value} is {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    public <E> V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Cannot insert a null value");
+        }
+
+        if (key == EMPTY) {
+            final V previous = (V) emptyKeyValue;
+            emptyKeyValue = merge(previous, value);
+            if (previous == null) {
+                size++;
+            }
+            return previous;
+        }
+
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                final V previous = (V) values[slot];
+                values[slot] = merge(previous, value);
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size >= capacity) {
+            allocate(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the mapping of a key.
+     *
+     * @param key primitive key to remove.
+     * @return the removed value, or {@code null} if the key was not present.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        if (key == EMPTY) {
+            final V previous = (V) emptyKeyValue;
+            if (previous != null) {
+                emptyKeyValue = null;
+                size--;
+            }
+            return previous;
+        }
+
+        int slot = slot(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return null;
+            }
+            slot = (slot + 1) & mask;
+        }
+        final V previous = (V) values[slot];
+        size--;
+
+        // Shift back the entries after the removed one that would no longer be found past the empty slot
+        int gap = slot;
+        for (slot = (slot + 1) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            final int home = slot(keys[slot]);
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = EMPTY;
+        values[gap] = null;
+        return previous;
+    }
+
+    /**
+     * Passes every entry of the map to a consumer, in no particular order. The map must not be changed while the
+     * entries are passed.
+     *
+     * @param consumer the consumer of the entries.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> consumer) {
+        if (emptyKeyValue != null) {
+            consumer.accept(EMPTY, (V) emptyKeyValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                consumer.accept(keys[slot], (V) values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Returns the keys of the map, in no particular order.
+     *
+     * @return a new array of the keys.
+     */
+    public int[] keys() {
+        final int[] result = new int[size];
+        int i = 0;
+        if (emptyKeyValue != null) {
+            result[i++] = EMPTY;
+        }
+        for (int key : keys) {
+            if (key != EMPTY) {
+                result[i++] = key;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes all entries from the map. The arrays keep their size.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        emptyKeyValue = null;
+        size = 0;
+    }
+
+    private int slot(int key) {
+        return hash(key) & mask;
+    }
+
+    /**
+     * Spreads the bits of the key over the whole int. Packed world points differ mostly in their low x and y bits,
+     * which would otherwise fill runs of adjacent slots.
+     */
+    static int hash(int key) {
+        final int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /** Returns the number of slots for a number of entries, which is a power of two */
+    static int tableSize(int expected, float loadFactor) {
+        final long needed = (long) Math.ceil(Math.max(expected, MINIMUM_SIZE) / (double) loadFactor) + 1;
+        if (needed > (1 << 30)) {
+            return 1 << 30;
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E, V> V merge(V previous, V value) {
+        if (previous instanceof Collection<?> && value instanceof Collection<?>) { // append
+            try {
+                ((Collection<E>) previous).addAll((Collection<E>) value);
+                return previous;
+            } catch (ClassCastException | UnsupportedOperationException e) {
+                // If the collections contain incompatible types or the operation is not supported,
+                // just replace instead of append
+            }
+        }
+        return value;
+    }
+
+    /** Replaces the arrays with arrays of a size, and inserts the entries again */
+    private void allocate(int tableSize) {
+        final int[] oldKeys = keys;
+        final Object[] oldValues = values;
+        keys = new int[tableSize];
+        values = new Object[tableSize];
+        mask = tableSize - 1;
+        capacity = Math.min((int) (tableSize * loadFactor), tableSize - 1);
+        if (oldKeys == null) {
+            return;
+        }
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            final int key = oldKeys[i];
+            if (key == EMPTY) {
+                continue;
+            }
+            int slot = slot(key);
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = oldValues[i];
+        }
+    }
+}
@@ -382,6 +382,110 @@ public interface ShortestPathConfig extends Config {
         return 5;
     }
 
+    @ConfigItem(
+        keyName = "calculationCutoffMode",
+        name = "Calculation cutoff mode",
+        description = "What the calculation cutoff is measured in.<br>" +
+            "Time: the cutoff ticks of real time.<br>" +
+            "Nodes: the number of tiles a typical computer checks in the cutoff ticks,<br>" +
+            "which gives the same path regardless of computer speed and load.<br>" +
+            "Time and nodes: whichever of the two runs out first",
+        position = 81,
+        section = sectionSettings
+    )
+    default CalculationCutoff calculationCutoffMode()
+    {
+        return CalculationCutoff.TIME;
+    }
+
+    @ConfigItem(
+        keyName = "useTransitRouting",
+        name = "Transit routing",
+        description = "Whether to answer long paths from a precomputed table of travel times between transports.<br>" +
+            "This is much faster, but can miss paths with long walks between two transports",
+        position = 82,
+        section = sectionSettings
+    )
+    default boolean useTransitRouting() {
+        return false;
+    }
+
+    @ConfigItem(
+        keyName = "useJumpPointSearch",
+        name = "Jump point search",
+        description = "Whether to search by jumping along straight and diagonal lines of walkable tiles,<br>" +
+            "and only stopping where the path can turn, instead of checking every tile",
+        position = 85,
+        section = sectionSettings
+    )
+    default boolean useJumpPointSearch() {
+        return false;
+    }
+
+    @ConfigItem(
+        keyName = "useLandmarks",
+        name = "Landmark guidance",
+        description = "Whether to guide searches with travel times to landmarks spread over the map.<br>" +
+            "The landmarks take about a minute to compute in the background and around 12 MiB to keep",
+        position = 90,
+        section = sectionSettings
+    )
+    default boolean useLandmarks() {
+        return false;
+    }
+
+    @ConfigItem(
+        keyName = "useDistanceFields",
+        name = "Nearest destination fields",
+        description = "Whether to precompute the travel time from every tile to the nearest destination of a kind,<br>" +
+            "e.g. the nearest bank, in the background, and follow it instead of searching",
+        position = 91,
+        section = sectionSettings
+    )
+    default boolean useDistanceFields() {
+        return false;
+    }
+
+    @ConfigItem(
+        keyName = "raceStrategies",
+        name = "Race search strategies",
+        description = "Whether to search with and without jump points, and landmarks if they guide searches, at the" +
+            "<br>same time on threads of their own, and take the route of whichever finishes first",
+        position = 87,
+        section = sectionSettings
+    )
+    default boolean raceStrategies() {
+        return false;
+    }
+
+    @ConfigItem(
+        keyName = "speculateRoutes",
+        name = "Precompute next routes",
+        description = "Whether to search the likely next routes from the target while no path is being searched:" +
+            "<br>to the nearest bank, back to the start, and to recent targets",
+        position = 88,
+        section = sectionSettings
+    )
+    default boolean speculateRoutes() {
+        return false;
+    }
+
+    @Range(
+        min = 1,
+        max = 16
+    )
+    @ConfigItem(
+        keyName = "searchThreads",
+        name = "Search threads",
+        description = "The number of threads that check the tiles of large walking searches, one step at a time.<br>" +
+            "Set to 1 to search on the pathfinding thread only",
+        position = 86,
+        section = sectionSettings
+    )
+    default int searchThreads() {
+        return 1;
+    }
+
     @ConfigItem(
         keyName = "showTransportInfo",
         name = "Show transport info",
@@ -912,6 +1016,25 @@ public interface ShortestPathConfig extends Config {
         return TileStyle.TILES;
     }
 
+    @Units(
+        value = Units.TICKS
+    )
+    @Range(
+        min = 0,
+        max = 1000
+    )
+    @ConfigItem(
+        keyName = "reachableTicks",
+        name = "Reachable area",
+        description = "Highlights the tiles in the game scene that can be reached from the player within this many" +
+            "<br>ticks by walking and the usable transports. Set to 0 to not highlight any tiles",
+        position = 83,
+        section = sectionDisplay
+    )
+    default int reachableTicks() {
+        return 0;
+    }
+
     @ConfigSection(
         name = "Colours",
         description = "Colours for the path map, minimap and scene tiles",
@@ -968,6 +1091,18 @@ public interface ShortestPathConfig extends Config {
         return new Color(0, 128, 255, 128);
     }
 
+    @Alpha
+    @ConfigItem(
+        keyName = "colourReachable",
+        name = "Reachable area",
+        description = "Colour of the reachable area tiles",
+        position = 84,
+        section = sectionColours
+    )
+    default Color colourReachable() {
+        return new Color(255, 255, 0, 48);
+    }
+
     @Alpha
     @ConfigItem(
         keyName = "colourText",
@@ -1032,6 +1167,30 @@ public interface ShortestPathConfig extends Config {
         return false;
     }
 
+    @ConfigItem(
+        keyName = "postPathUpdates",
+        name = "Post path updates",
+        description = "Whether to post the best path found so far as a PluginMessage event while the path is calculated,<br>" +
+            "at most once per tick, and the final path when the calculation is done",
+        position = 80,
+        section = sectionDebug
+    )
+    default boolean postPathUpdates() {
+        return false;
+    }
+
+    @ConfigItem(
+        keyName = "postPackedPaths",
+        name = "Post packed paths",
+        description = "Whether to post the calculated path as a PluginMessage event with the path and its transports<br>" +
+            "as int arrays, and to answer requests for the changes since an earlier packed path",
+        position = 89,
+        section = sectionDebug
+    )
+    default boolean postPackedPaths() {
+        return false;
+    }
+
     @ConfigItem(
         keyName = "builtTeleportationBoxes",
         name = "",
@@ -11,8 +11,11 @@ import java.awt.geom.Ellipse2D;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -62,8 +65,13 @@ import net.runelite.client.util.ColorUtil;
 import net.runelite.client.util.ImageUtil;
 import net.runelite.client.util.Text;
 import shortestpath.pathfinder.CollisionMap;
+import shortestpath.pathfinder.DistanceMatrix;
+import shortestpath.pathfinder.Isochrone;
+import shortestpath.pathfinder.PathSnapshot;
 import shortestpath.pathfinder.Pathfinder;
 import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.pathfinder.RouteSpeculator;
+import shortestpath.pathfinder.Tour;
 import shortestpath.transport.Transport;
 import shortestpath.transport.TransportType;
 
@@ -88,6 +96,23 @@ public class ShortestPathPlugin extends Plugin {
     private static final String PLUGIN_MESSAGE_TARGET = "target";
     private static final String PLUGIN_MESSAGE_CONFIG_OVERRIDE = "config";
     private static final String PLUGIN_MESSAGE_TRANSPORTS = "transports";
+    private static final String PLUGIN_MESSAGE_PATH_UPDATE = "pathUpdate";
+    private static final String PLUGIN_MESSAGE_MATRIX = "matrix";
+    private static final String PLUGIN_MESSAGE_MATRIX_RESULT = "matrixResult";
+    private static final String PLUGIN_MESSAGE_TOUR = "tour";
+    private static final String PLUGIN_MESSAGE_TOUR_RESULT = "tourResult";
+    private static final String PLUGIN_MESSAGE_REACHABLE = "reachable";
+    private static final String PLUGIN_MESSAGE_REACHABLE_RESULT = "reachableResult";
+    private static final String PLUGIN_MESSAGE_TICKS = "ticks";
+    private static final String PLUGIN_MESSAGE_ORIGINS = "origins";
+    private static final String PLUGIN_MESSAGE_TARGETS = "targets";
+    private static final String PLUGIN_MESSAGE_PATHS = "paths";
+    private static final String PLUGIN_MESSAGE_COMPACT_PATH = "compactPath";
+    private static final String PLUGIN_MESSAGE_PATH_PACKED = "pathPacked";
+    private static final String PLUGIN_MESSAGE_PATH_PACKED_DELTA = "pathPackedDelta";
+    private static final String PLUGIN_MESSAGE_PATH_PACKED_DELTA_RESULT = "pathPackedDeltaResult";
+    private static final String PLUGIN_MESSAGE_VERSION = "version";
+    private static final String PLUGIN_MESSAGE_ID = "id";
     private static final String CLEAR = "Clear";
     private static final String PATH = ColorUtil.wrapWithColorTag("Path", JagexColors.MENU_TARGET);
     private static final String SET = "Set";
@@ -144,8 +169,10 @@ public class ShortestPathPlugin extends Plugin {
     Color colourCollisionMap;
     Color colourPath;
     Color colourPathCalculating;
+    Color colourReachable;
     Color colourText;
     Color colourTransports;
+    int reachableTicks;
     int tileCounterStep;
     TileCounter showTileCounter;
     TileStyle pathStyle;
@@ -171,8 +198,19 @@ public class ShortestPathPlugin extends Plugin {
     private Pathfinder pathfinder;
     @Getter
     private PathfinderConfig pathfinderConfig;
+    /** Searches likely follow-up routes after a search, while the pathfinding thread is idle */
+    @Getter
+    private RouteSpeculator speculator;
+    /** The recent paths posted as packed plugin messages */
+    private PackedPaths packedPaths;
+    @Getter
+    private CollisionRasterCache collisionRasterCache;
     @Getter
     private boolean startPointSet = false;
+    /** The area reachable from the player that is highlighted, or {@code null} if none is */
+    @Getter
+    private volatile Isochrone reachable;
+    private volatile boolean computingReachable;
 
     @Provides
     public ShortestPathConfig provideConfig(ConfigManager configManager) {
@@ -184,6 +222,9 @@ public class ShortestPathPlugin extends Plugin {
         cacheConfigValues();
 
         pathfinderConfig = new PathfinderConfig(client, config);
+        collisionRasterCache = new CollisionRasterCache(this, pathfinderConfig.getBackground());
+        speculator = new RouteSpeculator(this, pathfinderConfig);
+        packedPaths = new PackedPaths(pathfinderConfig.getTransportTable());
         if (GameState.LOGGED_IN.equals(client.getGameState())) {
             clientThread.invokeLater(pathfinderConfig::refresh);
         }
@@ -206,14 +247,33 @@ public class ShortestPathPlugin extends Plugin {
         overlayManager.remove(pathMapTooltipOverlay);
         overlayManager.remove(debugOverlayPanel);
 
+        if (speculator != null) {
+            speculator.preempt();
+        }
         if (pathfindingExecutor != null) {
             pathfindingExecutor.shutdownNow();
             pathfindingExecutor = null;
         }
+
+        if (collisionRasterCache != null) {
+            collisionRasterCache.clear();
+        }
+        if (pathfinderConfig != null) {
+            pathfinderConfig.getDistanceFields().clear();
+            pathfinderConfig.getReachability().clear();
+            pathfinderConfig.getLandmarks().clear();
+            pathfinderConfig.getTransit().clear();
+            pathfinderConfig.getMatrices().clear();
+            pathfinderConfig.getRoutes().clear();
+            pathfinderConfig.getRace().clear();
+        }
+        reachable = null;
+        computingReachable = false;
     }
 
     public void restartPathfinding(int start, Set<Integer> ends, boolean canReviveFiltered) {
         synchronized (pathfinderMutex) {
+            speculator.preempt();
             if (pathfinder != null) {
                 pathfinder.cancel();
                 pathfinderFuture.cancel(true);
@@ -233,7 +293,13 @@ public class ShortestPathPlugin extends Plugin {
                     setTarget(WorldPointUtil.UNDEFINED);
                 } else {
                     pathfinder = new Pathfinder(this, pathfinderConfig, start, ends);
+                    if (override("postPathUpdates", config.postPathUpdates())) {
+                        pathfinder.addPathListener(this::postPathUpdate);
+                    }
                     pathfinderFuture = pathfindingExecutor.submit(pathfinder);
+                    if (pathfinderConfig.isSpeculateRoutes()) {
+                        pathfindingExecutor.submit(speculator.after(start, ends));
+                    }
                 }
             }
         });
@@ -286,6 +352,10 @@ public class ShortestPathPlugin extends Plugin {
 
     @Subscribe
     public void onGameStateChanged(GameStateChanged event) {
+        if (GameState.LOADING.equals(event.getGameState())) {
+            WorldPointUtil.clearInstanceMapping();
+        }
+
         if (pathfinderConfig == null
             || !GameState.LOGGING_IN.equals(lastLastGameState)
             || !GameState.LOADING.equals(lastLastGameState = lastGameState)
@@ -366,6 +436,92 @@ public class ShortestPathPlugin extends Plugin {
 
             boolean useOld = targets.isEmpty() && pathfinder != null;
             restartPathfinding(start, useOld ? pathfinder.getTargets() : targets, useOld);
+        } else if (PLUGIN_MESSAGE_MATRIX.equals(action)) {
+            Map<String, Object> data = event.getData();
+            List<Integer> origins = new ArrayList<>();
+            List<Integer> targets = new ArrayList<>();
+            if (!addPackedPoints(data.get(PLUGIN_MESSAGE_ORIGINS), origins)
+                || !addPackedPoints(data.get(PLUGIN_MESSAGE_TARGETS), targets)
+                || origins.isEmpty() || targets.isEmpty()) {
+                return;
+            }
+            boolean withPaths = Boolean.TRUE.equals(data.get(PLUGIN_MESSAGE_PATHS));
+            Object id = data.get(PLUGIN_MESSAGE_ID);
+
+            getClientThread().invokeLater(() -> {
+                pathfinderConfig.refresh();
+                pathfinderConfig.getMatrices()
+                    .compute(origins.stream().mapToInt(i -> i).toArray(), targets.stream().mapToInt(i -> i).toArray(), withPaths)
+                    .thenAccept(matrix -> postMatrix(id, matrix));
+            });
+        } else if (PLUGIN_MESSAGE_TOUR.equals(action)) {
+            Map<String, Object> data = event.getData();
+            Object objStart = data.get(PLUGIN_MESSAGE_START);
+            int start = (objStart instanceof WorldPoint) ? WorldPointUtil.packWorldPoint((WorldPoint) objStart)
+                : ((objStart instanceof Integer) ? ((int) objStart) : WorldPointUtil.UNDEFINED);
+            if (start == WorldPointUtil.UNDEFINED) {
+                if (client.getLocalPlayer() == null) {
+                    return;
+                }
+                start = WorldPointUtil.packWorldPoint(client.getLocalPlayer().getWorldLocation());
+            }
+
+            Set<Integer> stops = new LinkedHashSet<>();
+            if (!addPackedPoints(data.get(PLUGIN_MESSAGE_TARGET), stops)) {
+                return;
+            }
+            stops.remove(start);
+            if (stops.isEmpty()) {
+                return;
+            }
+            Object id = data.get(PLUGIN_MESSAGE_ID);
+
+            final int tourStart = start;
+            getClientThread().invokeLater(() -> {
+                pathfinderConfig.refresh();
+                pathfinderConfig.getMatrices()
+                    .computeTour(tourStart, stops.stream().mapToInt(i -> i).toArray())
+                    .thenAccept(tour -> postTour(id, tour));
+            });
+        } else if (PLUGIN_MESSAGE_REACHABLE.equals(action)) {
+            Map<String, Object> data = event.getData();
+            Object objStart = data.get(PLUGIN_MESSAGE_START);
+            Object objTicks = data.get(PLUGIN_MESSAGE_TICKS);
+            if (!(objTicks instanceof Integer)) {
+                return;
+            }
+            int start = (objStart instanceof WorldPoint) ? WorldPointUtil.packWorldPoint((WorldPoint) objStart)
+                : ((objStart instanceof Integer) ? ((int) objStart) : WorldPointUtil.UNDEFINED);
+            if (start == WorldPointUtil.UNDEFINED) {
+                if (client.getLocalPlayer() == null) {
+                    return;
+                }
+                start = WorldPointUtil.packWorldPoint(client.getLocalPlayer().getWorldLocation());
+            }
+            int ticks = (int) objTicks;
+            Object id = data.get(PLUGIN_MESSAGE_ID);
+
+            final int reachableStart = start;
+            getClientThread().invokeLater(() -> {
+                pathfinderConfig.refresh();
+                pathfinderConfig.getMatrices().computeReachable(reachableStart, ticks).thenAccept(isochrone -> {
+                    Map<String, Object> result = new HashMap<>();
+                    result.put(PLUGIN_MESSAGE_ID, id);
+                    result.put(PLUGIN_MESSAGE_START, WorldPointUtil.unpackWorldPoint(isochrone.getStart()));
+                    result.put(PLUGIN_MESSAGE_TICKS, isochrone.getTicks());
+                    result.put(PLUGIN_MESSAGE_REACHABLE, isochrone);
+                    eventBus.post(new PluginMessage(CONFIG_GROUP, PLUGIN_MESSAGE_REACHABLE_RESULT, result));
+                });
+            });
+        } else if (PLUGIN_MESSAGE_PATH_PACKED_DELTA.equals(action)) {
+            Map<String, Object> data = event.getData();
+            Object objVersion = data.get(PLUGIN_MESSAGE_VERSION);
+            Map<String, Object> delta = packedPaths.deltaSince(objVersion instanceof Integer ? (int) objVersion : -1);
+            if (delta == null) {
+                return;
+            }
+            delta.put(PLUGIN_MESSAGE_ID, data.get(PLUGIN_MESSAGE_ID));
+            eventBus.post(new PluginMessage(CONFIG_GROUP, PLUGIN_MESSAGE_PATH_PACKED_DELTA_RESULT, delta));
         } else if (PLUGIN_MESSAGE_CLEAR.equals(action)) {
             this.configOverride.clear();
             cacheConfigValues();
@@ -387,7 +543,7 @@ public class ShortestPathPlugin extends Plugin {
             for (int i = 1; i < currentPath.size(); i++) {
                 int origin = currentPath.get(i-1);
                 int destination = currentPath.get(i);
-                for (Transport transport : pathfinderConfig.getTransports().getOrDefault(origin, new HashSet<>())) {
+                for (Transport transport : pathfinderConfig.getTransports().getOrDefault(origin, Collections.emptySet())) {
                     if (transport.getDestination() == destination) {
                         transportOrigins.add(WorldPointUtil.unpackWorldPoint(origin));
                         transportDestinations.add(WorldPointUtil.unpackWorldPoint(destination));
@@ -402,6 +558,114 @@ public class ShortestPathPlugin extends Plugin {
             data.put("displayInfo", transportDisplayInfos);
             eventBus.post(new PluginMessage(CONFIG_GROUP, PLUGIN_MESSAGE_TRANSPORTS, data));
         }
+        if (override("postPackedPaths", config.postPackedPaths())) {
+            Map<String, Object> data = packedPaths.publish(pathfinder.getPath(), pathfinderConfig.getTransportsPacked());
+            eventBus.post(new PluginMessage(CONFIG_GROUP, PLUGIN_MESSAGE_PATH_PACKED, data));
+        }
+    }
+
+    /**
+     * Adds the packed points of a plugin message value, which is a packed point, a {@link WorldPoint} or a
+     * collection of them. Unlike the targets of the path message, values of any other type are rejected.
+     *
+     * @return whether all points were valid
+     */
+    private static boolean addPackedPoints(Object obj, Collection<Integer> packedPoints) {
+        if (obj instanceof Collection<?>) {
+            for (Object element : (Collection<?>) obj) {
+                if (element instanceof Collection<?> || !addPackedPoints(element, packedPoints)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int packedPoint;
+        if (obj instanceof Integer) {
+            packedPoint = (Integer) obj;
+        } else if (obj instanceof WorldPoint) {
+            packedPoint = WorldPointUtil.packWorldPoint((WorldPoint) obj);
+        } else {
+            return obj == null;
+        }
+        if (packedPoint == WorldPointUtil.UNDEFINED) {
+            return false;
+        }
+        packedPoints.add(packedPoint);
+        return true;
+    }
+
+    private void postMatrix(Object id, DistanceMatrix matrix) {
+        int[] origins = matrix.getOrigins();
+        int[] targets = matrix.getTargets();
+        int[][] costs = new int[origins.length][targets.length];
+        List<List<List<WorldPoint>>> paths = new ArrayList<>(origins.length);
+        for (int origin = 0; origin < origins.length; origin++) {
+            List<List<WorldPoint>> originPaths = new ArrayList<>(targets.length);
+            for (int target = 0; target < targets.length; target++) {
+                costs[origin][target] = matrix.getCost(origin, target);
+                PrimitiveIntList path = matrix.getPath(origin, target);
+                List<WorldPoint> points = null;
+                if (path != null) {
+                    points = new ArrayList<>(path.size());
+                    for (int i = 0; i < path.size(); i++) {
+                        points.add(WorldPointUtil.unpackWorldPoint(path.get(i)));
+                    }
+                }
+                originPaths.add(points);
+            }
+            paths.add(originPaths);
+        }
+
+        Map<String, Object> data = new HashMap<>();
+        data.put(PLUGIN_MESSAGE_ID, id);
+        data.put(PLUGIN_MESSAGE_ORIGINS, toWorldPoints(origins));
+        data.put(PLUGIN_MESSAGE_TARGETS, toWorldPoints(targets));
+        data.put("costs", costs);
+        if (matrix.hasPaths()) {
+            data.put(PLUGIN_MESSAGE_PATHS, paths);
+        }
+        eventBus.post(new PluginMessage(CONFIG_GROUP, PLUGIN_MESSAGE_MATRIX_RESULT, data));
+    }
+
+    private void postTour(Object id, Tour tour) {
+        Map<String, Object> data = new HashMap<>();
+        data.put(PLUGIN_MESSAGE_ID, id);
+        data.put(PLUGIN_MESSAGE_START, WorldPointUtil.unpackWorldPoint(tour.getStart()));
+        data.put("stops", toWorldPoints(tour.getStops()));
+        data.put("cost", tour.getCost());
+        PrimitiveIntList path = tour.getPath();
+        if (path != null) {
+            List<WorldPoint> points = new ArrayList<>(path.size());
+            for (int i = 0; i < path.size(); i++) {
+                points.add(WorldPointUtil.unpackWorldPoint(path.get(i)));
+            }
+            data.put("path", points);
+            data.put(PLUGIN_MESSAGE_COMPACT_PATH, CompactPath.encode(path).toArray());
+        }
+        eventBus.post(new PluginMessage(CONFIG_GROUP, PLUGIN_MESSAGE_TOUR_RESULT, data));
+    }
+
+    private static List<WorldPoint> toWorldPoints(int[] packedPoints) {
+        List<WorldPoint> points = new ArrayList<>(packedPoints.length);
+        for (int packedPoint : packedPoints) {
+            points.add(WorldPointUtil.unpackWorldPoint(packedPoint));
+        }
+        return points;
+    }
+
+    private void postPathUpdate(PathSnapshot snapshot) {
+        List<WorldPoint> path = new ArrayList<>(snapshot.size());
+        for (int i = 0; i < snapshot.size(); i++) {
+            path.add(WorldPointUtil.unpackWorldPoint(snapshot.get(i)));
+        }
+        Map<String, Object> data = new HashMap<>();
+        data.put("path", path);
+        data.put(PLUGIN_MESSAGE_COMPACT_PATH, snapshot.toCompactPath().toArray());
+        data.put("cost", snapshot.getCost());
+        data.put("version", snapshot.getVersion());
+        data.put("final", snapshot.isFinished());
+        eventBus.post(new PluginMessage(CONFIG_GROUP, PLUGIN_MESSAGE_PATH_UPDATE, data));
     }
 
     @Subscribe
@@ -418,6 +682,7 @@ public class ShortestPathPlugin extends Plugin {
         }
 
         Player localPlayer = client.getLocalPlayer();
+        updateReachable(localPlayer);
         if (localPlayer == null || pathfinder == null) {
             return;
         }
@@ -439,6 +704,29 @@ public class ShortestPathPlugin extends Plugin {
         }
     }
 
+    /** Starts computing the highlighted reachable area again when the player moved or the tick budget changed */
+    private void updateReachable(Player localPlayer) {
+        if (reachableTicks <= 0 || localPlayer == null || pathfinderConfig == null) {
+            reachable = null;
+            return;
+        }
+
+        int location = WorldPointUtil.fromLocalInstance(client, localPlayer);
+        Isochrone current = reachable;
+        if (computingReachable
+            || (current != null && current.getStart() == location && current.getTicks() == reachableTicks)) {
+            return;
+        }
+
+        computingReachable = true;
+        pathfinderConfig.getMatrices().computeReachable(location, reachableTicks).whenComplete((isochrone, error) -> {
+            if (isochrone != null) {
+                reachable = isochrone;
+            }
+            computingReachable = false;
+        });
+    }
+
     @Subscribe
     public void onMenuEntryAdded(MenuEntryAdded event) {
         if (client.isKeyPressed(KeyCode.KC_SHIFT)
@@ -746,6 +1034,19 @@ public class ShortestPathPlugin extends Plugin {
         return defaultValue;
     }
 
+    public static CalculationCutoff override(String configOverrideKey, CalculationCutoff defaultValue) {
+        if (!configOverride.isEmpty()) {
+            Object value = configOverride.get(configOverrideKey);
+            if (value instanceof String) {
+                CalculationCutoff calculationCutoff = CalculationCutoff.fromType((String) value);
+                if (calculationCutoff != null) {
+                    return calculationCutoff;
+                }
+            }
+        }
+        return defaultValue;
+    }
+
     public static JewelleryBoxTier override(String configOverrideKey, JewelleryBoxTier defaultValue) {
         if (!configOverride.isEmpty()) {
             Object value = configOverride.get(configOverrideKey);
@@ -796,9 +1097,11 @@ public class ShortestPathPlugin extends Plugin {
         colourCollisionMap = override("colourCollisionMap", config.colourCollisionMap());
         colourPath = override("colourPath", config.colourPath());
         colourPathCalculating = override("colourPathCalculating", config.colourPathCalculating());
+        colourReachable = override("colourReachable", config.colourReachable());
         colourText = override("colourText", config.colourText());
         colourTransports = override("colourTransports", config.colourTransports());
 
+        reachableTicks = override("reachableTicks", config.reachableTicks());
         tileCounterStep = override("tileCounterStep", config.tileCounterStep());
 
         showTileCounter = override("showTileCounter", config.showTileCounter());
@@ -24,6 +24,9 @@ import static net.runelite.api.Perspective.LOCAL_COORD_BITS;
 public class WorldPointUtil {
     public static final int UNDEFINED = -1;
 
+    // Reverse mapping of the current instance; replaced as a whole, so that every thread sees a complete mapping
+    private static volatile InstanceMapping instanceMapping;
+
     /**
      * Packs a {@link WorldPoint} into a compact {@code int} encoding.
      *
@@ -91,6 +94,25 @@ public class WorldPointUtil {
         return (packedPoint >> 30) & 0x3;
     }
 
+    /**
+     * Computes the id of the 64x64 region containing a packed world point, matching {@link WorldPoint#getRegionID()}.
+     * @param packedPoint packed coordinate.
+     * @return region id.
+     */
+    public static int getRegionId(int packedPoint) {
+        return getRegionId(unpackWorldX(packedPoint), unpackWorldY(packedPoint));
+    }
+
+    /**
+     * Computes the id of the 64x64 region containing the world coordinates {@code (x, y)}.
+     * @param x world x.
+     * @param y world y.
+     * @return region id.
+     */
+    public static int getRegionId(int x, int y) {
+        return ((x >> 6) << 8) | (y >> 6);
+    }
+
     /**
      * Offsets a packed world point by {@code (dx, dy)} on the same plane.
      *
@@ -323,23 +345,70 @@ public class WorldPointUtil {
      * @return list of packed coordinates valid in the current instance.
      */
     public static PrimitiveIntList toLocalInstance(Client client, int packedPoint) {
+        return toLocalInstance(client, packedPoint, new PrimitiveIntList());
+    }
+
+    /**
+     * Same as {@link #toLocalInstance(Client, int)}, but clears and fills the provided list instead of allocating a
+     * new one, so per-frame callers can reuse a buffer. Instance lookups use a template chunk to instance chunk map
+     * that is built once per scene and never changed afterwards.
+     *
+     * @param client RuneLite client.
+     * @param packedPoint packed world coordinate.
+     * @param worldPoints list to receive the packed coordinates valid in the current instance.
+     * @return {@code worldPoints}, for convenience.
+     */
+    public static PrimitiveIntList toLocalInstance(Client client, int packedPoint, PrimitiveIntList worldPoints) {
         WorldView worldView = client.getTopLevelWorldView();
 
-        PrimitiveIntList worldPoints = new PrimitiveIntList();
+        worldPoints.clear();
         if (!worldView.isInstance()) {
             worldPoints.add(packedPoint);
             return worldPoints;
         }
 
-        int baseX = worldView.getBaseX();
-        int baseY = worldView.getBaseY();
-        int worldPointX = unpackWorldX(packedPoint);
-        int worldPointY = unpackWorldY(packedPoint);
-        int worldPointPlane = unpackWorldPlane(packedPoint);
+        // (instance chunk south-west corner, rotation) pairs for every instance chunk copied from the template chunk
+        PrimitiveIntList instanceChunks = getInstanceChunks(worldView).get(packWorldPoint(
+            unpackWorldX(packedPoint) & ~(CHUNK_SIZE - 1),
+            unpackWorldY(packedPoint) & ~(CHUNK_SIZE - 1),
+            unpackWorldPlane(packedPoint)));
+        if (instanceChunks == null) {
+            return worldPoints;
+        }
+
+        int localX = unpackWorldX(packedPoint) & (CHUNK_SIZE - 1);
+        int localY = unpackWorldY(packedPoint) & (CHUNK_SIZE - 1);
+        for (int i = 0; i < instanceChunks.size(); i += 2) {
+            int instanceChunk = instanceChunks.get(i);
+            worldPoints.add(rotate(
+                unpackWorldX(instanceChunk) + localX,
+                unpackWorldY(instanceChunk) + localY,
+                unpackWorldPlane(instanceChunk),
+                instanceChunks.get(i + 1)));
+        }
+        return worldPoints;
+    }
+
+    /**
+     * Discards the cached instance chunk mapping. Called when a new scene starts loading, since the client may reuse
+     * the template chunk array for the next instance.
+     */
+    public static void clearInstanceMapping() {
+        instanceMapping = null;
+    }
 
+    private static PrimitiveIntHashMap<PrimitiveIntList> getInstanceChunks(WorldView worldView) {
         int[][][] instanceTemplateChunks = worldView.getInstanceTemplateChunks();
+        int baseX = worldView.getBaseX();
+        int baseY = worldView.getBaseY();
+        InstanceMapping mapping = instanceMapping;
+        if (mapping != null && instanceTemplateChunks == mapping.templateChunks
+            && baseX == mapping.baseX && baseY == mapping.baseY) {
+            return mapping.chunksByTemplate;
+        }
 
         // find instance chunks using the template point. there might be more than one.
+        PrimitiveIntHashMap<PrimitiveIntList> chunksByTemplate = new PrimitiveIntHashMap<>(256);
         for (int z = 0; z < instanceTemplateChunks.length; z++) {
             for (int x = 0; x < instanceTemplateChunks[z].length; ++x) {
                 for (int y = 0; y < instanceTemplateChunks[z][x].length; ++y) {
@@ -348,19 +417,36 @@ public class WorldPointUtil {
                     int templateChunkY = (chunkData >> 3 & 0x7FF) * CHUNK_SIZE;
                     int templateChunkX = (chunkData >> 14 & 0x3FF) * CHUNK_SIZE;
                     int plane = chunkData >> 24 & 0x3;
-                    if (worldPointX >= templateChunkX && worldPointX < templateChunkX + CHUNK_SIZE
-                        && worldPointY >= templateChunkY && worldPointY < templateChunkY + CHUNK_SIZE
-                        && plane == worldPointPlane) {
-                        worldPoints.add(rotate(
-                            baseX + x * CHUNK_SIZE + (worldPointX & (CHUNK_SIZE - 1)),
-                            baseY + y * CHUNK_SIZE + (worldPointY & (CHUNK_SIZE - 1)),
-                            z,
-                            rotation));
+                    int templateChunk = packWorldPoint(templateChunkX, templateChunkY, plane);
+                    PrimitiveIntList instanceChunks = chunksByTemplate.get(templateChunk);
+                    if (instanceChunks == null) {
+                        instanceChunks = new PrimitiveIntList(2);
+                        chunksByTemplate.put(templateChunk, instanceChunks);
                     }
+                    instanceChunks.add(packWorldPoint(baseX + x * CHUNK_SIZE, baseY + y * CHUNK_SIZE, z));
+                    instanceChunks.add(rotation);
                 }
             }
         }
-        return worldPoints;
+
+        instanceMapping = new InstanceMapping(instanceTemplateChunks, baseX, baseY, chunksByTemplate);
+        return chunksByTemplate;
+    }
+
+    /** The instance chunks of a scene, keyed by packed template chunk south-west corner */
+    private static final class InstanceMapping {
+        private final int[][][] templateChunks;
+        private final int baseX;
+        private final int baseY;
+        private final PrimitiveIntHashMap<PrimitiveIntList> chunksByTemplate;
+
+        private InstanceMapping(int[][][] templateChunks, int baseX, int baseY,
+            PrimitiveIntHashMap<PrimitiveIntList> chunksByTemplate) {
+            this.templateChunks = templateChunks;
+            this.baseX = baseX;
+            this.baseY = baseY;
+            this.chunksByTemplate = chunksByTemplate;
+        }
     }
 
     private static boolean isInScene(WorldView worldView, int packedPoint) {
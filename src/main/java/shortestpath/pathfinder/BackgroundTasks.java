@@ -0,0 +1,180 @@
+package shortestpath.pathfinder;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs the background work of one index or cache on the threads that the plugin shares, a few tasks at a time.
+ * <p>
+ * Cached values are computed by key: a key is computed once until the owner invalidates its values, and results
+ * of computations that started before the invalidation are dropped. The tasks are guarded by the lock of the owner,
+ * which also guards its cached values, so that publishing a result and invalidating the values cannot interleave.
+ */
+public class BackgroundTasks implements Executor {
+    private final ExecutorService executor;
+    private final Object lock;
+    /** The most tasks that run at the same time */
+    private final int threads;
+    private final Queue<FutureTask<?>> queue = new ArrayDeque<>();
+    /** The tasks that are queued or running, so that they can be cancelled */
+    private final Set<FutureTask<?>> tasks = new HashSet<>();
+    /** The keys that are being computed */
+    private final Set<Object> pending = new HashSet<>();
+    private int running;
+    /** Incremented on every invalidation, so that values computed from outdated inputs are dropped */
+    private int generation;
+
+    /**
+     * @param executor the threads that the plugin shares
+     * @param lock the lock of the owner, which guards its cached values
+     * @param threads the most tasks that run at the same time
+     */
+    public BackgroundTasks(ExecutorService executor, Object lock, int threads) {
+        this.executor = executor;
+        this.lock = lock;
+        this.threads = threads;
+    }
+
+    /** Creates the threads that the plugin shares; they are started when needed and stop after a minute idle */
+    public static ExecutorService newSharedExecutor() {
+        ThreadFactory backgroundNaming = new ThreadFactoryBuilder()
+            .setNameFormat("shortest-path-background-%d")
+            .setDaemon(true)
+            .build();
+        return Executors.newCachedThreadPool(backgroundNaming);
+    }
+
+    /**
+     * Schedules the computation of a cached value, unless the key is being computed already. The result is published
+     * while holding the lock of the owner, and only if the values were not invalidated since the computation was
+     * scheduled. A computation that returns {@code null} publishes nothing and leaves the key pending until the
+     * next invalidation.
+     *
+     * @param key the key of the value
+     * @param compute computes the value
+     * @param publish stores the value in the owner
+     * @return whether the computation was scheduled
+     */
+    public <T> boolean schedule(Object key, Supplier<T> compute, Consumer<T> publish) {
+        synchronized (lock) {
+            if (!pending.add(key)) {
+                return false;
+            }
+
+            final int taskGeneration = generation;
+            submit(() -> {
+                synchronized (lock) {
+                    if (taskGeneration != generation) {
+                        return null; // Invalidated while queued; the key is computed again when it is asked for
+                    }
+                }
+                T value = compute.get();
+                synchronized (lock) {
+                    if (value != null && taskGeneration == generation && pending.remove(key)) {
+                        publish.accept(value);
+                    }
+                }
+                return null;
+            });
+            return true;
+        }
+    }
+
+    /** Returns whether the value of a key is being computed */
+    public boolean isPending(Object key) {
+        synchronized (lock) {
+            return pending.contains(key);
+        }
+    }
+
+    /**
+     * Runs a task on the shared threads.
+     *
+     * @return the result of the task; it is cancelled if the tasks are {@link #cancel() cancelled} first
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final FutureTask<T> future = new FutureTask<T>(task) {
+            @Override
+            protected void done() {
+                synchronized (lock) {
+                    tasks.remove(this);
+                }
+                if (isCancelled()) {
+                    result.cancel(false);
+                    return;
+                }
+                try {
+                    result.complete(get());
+                } catch (ExecutionException e) {
+                    result.completeExceptionally(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt(); // Cannot happen once the task is done
+                }
+            }
+        };
+
+        synchronized (lock) {
+            tasks.add(future);
+            queue.add(future);
+            if (running < threads) {
+                running++;
+                executor.execute(this::runQueued);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        submit(Executors.callable(task));
+    }
+
+    /** Drops the values that are being computed; their keys are computed again when they are scheduled */
+    public void invalidate() {
+        synchronized (lock) {
+            generation++;
+            pending.clear();
+        }
+    }
+
+    /** Invalidates the values and cancels the queued tasks, interrupting the running ones */
+    public void cancel() {
+        synchronized (lock) {
+            invalidate();
+            queue.clear();
+            for (FutureTask<?> task : new ArrayList<>(tasks)) {
+                task.cancel(true);
+            }
+        }
+    }
+
+    private void runQueued() {
+        while (true) {
+            final FutureTask<?> task;
+            synchronized (lock) {
+                task = queue.poll();
+                if (task == null) {
+                    running--;
+                    return;
+                }
+            }
+            Thread.interrupted(); // Clears an interrupt that cancelled the previous task
+            task.run();
+        }
+    }
+}
@@ -80,8 +80,54 @@ public class CollisionMap {
         final int z = WorldPointUtil.unpackWorldPlane(node.packedPosition);
 
         neighbors.clear();
+        addTransports(node, visited, config, wildernessLevel);
 
-        if (!config.isBankVisited() && config.getDestinations("bank").contains(node.packedPosition)) {
+        computeTraversable(x, y, z);
+
+        for (int i = 0; i < traversable.length; i++) {
+            OrdinalDirection d = ORDINAL_VALUES[i];
+            int neighborPacked = packedPointFromOrdinal(node.packedPosition, d);
+            if (visited.get(neighborPacked)) continue;
+
+            if (traversable[i]) {
+                neighbors.add(new Node(neighborPacked, node));
+            } else if (Math.abs(d.x + d.y) == 1 && isBlocked(x + d.x, y + d.y, z)) {
+                addBlockedTransportOrigins(node, neighborPacked, visited, config);
+            }
+        }
+
+        return neighbors;
+    }
+
+    /**
+     * Returns the neighbours of a node that are not walked to: the transport destinations, and the origins of
+     * transports on blocked tiles next to it. The walking neighbours are left to the caller, e.g. a
+     * {@link JumpPoints jump point search}.
+     */
+    public List<Node> getTransportNeighbors(Node node, VisitedTiles visited, PathfinderConfig config,
+        int wildernessLevel) {
+        final int x = WorldPointUtil.unpackWorldX(node.packedPosition);
+        final int y = WorldPointUtil.unpackWorldY(node.packedPosition);
+        final int z = WorldPointUtil.unpackWorldPlane(node.packedPosition);
+
+        neighbors.clear();
+        addTransports(node, visited, config, wildernessLevel);
+
+        computeTraversable(x, y, z);
+
+        for (int i = 0; i < 4; i++) {
+            OrdinalDirection d = ORDINAL_VALUES[i];
+            int neighborPacked = packedPointFromOrdinal(node.packedPosition, d);
+            if (!traversable[i] && !visited.get(neighborPacked) && isBlocked(x + d.x, y + d.y, z)) {
+                addBlockedTransportOrigins(node, neighborPacked, visited, config);
+            }
+        }
+
+        return neighbors;
+    }
+
+    private void addTransports(Node node, VisitedTiles visited, PathfinderConfig config, int wildernessLevel) {
+        if (!config.isBankVisited() && config.getDestinationLayer("bank").get(node.packedPosition)) {
             config.setBankVisited(true, node.packedPosition, wildernessLevel);
         }
 
@@ -94,7 +140,56 @@ public class CollisionMap {
             if (visited.get(transport.getDestination())) continue;
             neighbors.add(new TransportNode(transport.getDestination(), node, transport.getDuration(), config.getAdditionalTransportCost(transport)));
         }
+    }
+
+    private void addBlockedTransportOrigins(Node node, int neighborPacked, VisitedTiles visited, PathfinderConfig config) {
+        // The transport starts from a blocked adjacent tile, e.g. fairy ring
+        // Only checks non-teleport transports (includes portals and levers, but not items and spells)
+        @SuppressWarnings("unchecked") // Casting EMPTY_LIST to List<Transport> is safe here
+        Set<Transport> neighborTransports = config.getTransportsPacked().getOrDefault(neighborPacked, (Set<Transport>)Collections.EMPTY_SET);
+        for (Transport transport : neighborTransports) {
+            if (transport.getOrigin() == Transport.UNDEFINED_ORIGIN || visited.get(transport.getOrigin())) {
+                continue;
+            }
+            neighbors.add(new Node(transport.getOrigin(), node));
+        }
+    }
+
+    /**
+     * Returns whether the neighbouring tile in the given direction can be walked to from a tile, following the
+     * same rules as {@link #getNeighbors}. Unlike {@link #getTraversable} this only reads the collision data, so it
+     * may be called from any thread.
+     */
+    public boolean isTraversable(int x, int y, int z, OrdinalDirection direction) {
+        if (isBlocked(x, y, z)) {
+            if (isBlocked(x + direction.x, y + direction.y, z)) {
+                return false;
+            }
+            return direction.x == 0 || direction.y == 0
+                || (!isBlocked(x + direction.x, y, z) && !isBlocked(x, y + direction.y, z));
+        }
+        switch (direction) {
+            case WEST: return w(x, y, z);
+            case EAST: return e(x, y, z);
+            case SOUTH: return s(x, y, z);
+            case NORTH: return n(x, y, z);
+            case SOUTH_WEST: return sw(x, y, z);
+            case SOUTH_EAST: return se(x, y, z);
+            case NORTH_WEST: return nw(x, y, z);
+            default: return ne(x, y, z);
+        }
+    }
+
+    /**
+     * Returns whether each neighbouring tile can be walked to from a tile, by {@link OrdinalDirection} ordinal. The
+     * array is reused by the next call.
+     */
+    public boolean[] getTraversable(int x, int y, int z) {
+        computeTraversable(x, y, z);
+        return traversable;
+    }
 
+    private void computeTraversable(int x, int y, int z) {
         if (isBlocked(x, y, z)) {
             boolean westBlocked = isBlocked(x - 1, y, z);
             boolean eastBlocked = isBlocked(x + 1, y, z);
@@ -122,28 +217,5 @@ public class CollisionMap {
             traversable[6] = nw(x, y, z);
             traversable[7] = ne(x, y, z);
         }
-
-        for (int i = 0; i < traversable.length; i++) {
-            OrdinalDirection d = ORDINAL_VALUES[i];
-            int neighborPacked = packedPointFromOrdinal(node.packedPosition, d);
-            if (visited.get(neighborPacked)) continue;
-
-            if (traversable[i]) {
-                neighbors.add(new Node(neighborPacked, node));
-            } else if (Math.abs(d.x + d.y) == 1 && isBlocked(x + d.x, y + d.y, z)) {
-                // The transport starts from a blocked adjacent tile, e.g. fairy ring
-                // Only checks non-teleport transports (includes portals and levers, but not items and spells)
-                @SuppressWarnings("unchecked") // Casting EMPTY_LIST to List<Transport> is safe here
-                Set<Transport> neighborTransports = config.getTransportsPacked().getOrDefault(neighborPacked, (Set<Transport>)Collections.EMPTY_SET);
-                for (Transport transport : neighborTransports) {
-                    if (transport.getOrigin() == Transport.UNDEFINED_ORIGIN || visited.get(transport.getOrigin())) {
-                        continue;
-                    }
-                    neighbors.add(new Node(transport.getOrigin(), node));
-                }
-            }
-        }
-
-        return neighbors;
     }
 }
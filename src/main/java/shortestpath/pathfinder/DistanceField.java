@@ -0,0 +1,225 @@
+package shortestpath.pathfinder;
+
+import java.util.Set;
+
+import shortestpath.PrimitiveIntHashMap;
+import shortestpath.PrimitiveIntList;
+import shortestpath.WorldPointUtil;
+
+import static net.runelite.api.Constants.REGION_SIZE;
+
+/**
+ * The number of ticks from every tile to the nearest of a set of destinations, together with the first step to take
+ * towards it, computed by a single reverse search from all destinations at once.
+ * <p>
+ * The search walks backwards over the collision map and over the usable transports that have an origin, so the field
+ * answers "route to the nearest bank" from anywhere by following next hops. Teleports without an origin are not part
+ * of the field; they only matter at the start of a route and are added by the caller.
+ * <p>
+ * Each tile takes a single {@code char}: the cost in the upper 12 bits and the next hop in the lower 4 bits. Tiles
+ * that are more than {@link #MAX_COST} ticks away are left unreached. Tiles are stored region by region like
+ * {@link VisitedTiles}, and regions the search never reached are not allocated.
+ */
+public class DistanceField {
+    public static final int MAX_COST = 4095;
+    /** Next hops 0-7 are the ordinal direction to walk in */
+    public static final int HOP_TRANSPORT = 8;
+    public static final int HOP_ARRIVED = 9;
+
+    private static final int UNREACHED = 0;
+    private static final OrdinalDirection[] ORDINAL_VALUES = OrdinalDirection.values();
+    private static final OrdinalDirection[] CARDINAL_VALUES = {
+        OrdinalDirection.WEST, OrdinalDirection.EAST, OrdinalDirection.SOUTH, OrdinalDirection.NORTH};
+
+    private final SplitFlagMap.RegionExtent regionExtents;
+    private final int widthInclusive;
+    private final byte[] regionPlanes;
+    private final char[][] regions;
+
+    private DistanceField(CollisionMap map) {
+        regionExtents = SplitFlagMap.getRegionExtents();
+        widthInclusive = regionExtents.getWidth() + 1;
+        regionPlanes = map.getPlanes();
+        regions = new char[regionPlanes.length][];
+    }
+
+    /**
+     * Returns the number of ticks from a tile to the nearest destination.
+     *
+     * @param packedPoint the tile to look up
+     * @return the cost in ticks, or {@code -1} if the tile was not reached
+     */
+    public int getCost(int packedPoint) {
+        final int value = get(packedPoint);
+        return value == UNREACHED ? -1 : value >>> 4;
+    }
+
+    /**
+     * Returns the first step from a tile towards the nearest destination.
+     *
+     * @param packedPoint the tile to look up
+     * @return the {@link OrdinalDirection} ordinal to walk in, {@link #HOP_TRANSPORT} to take a transport from the tile,
+     * {@link #HOP_ARRIVED} if the tile is a destination, or {@code -1} if the tile was not reached
+     */
+    public int getNextHop(int packedPoint) {
+        final int value = get(packedPoint);
+        return value == UNREACHED ? -1 : (value & 0xF) - 1;
+    }
+
+    /**
+     * Returns the tile that is a walking step away in the given direction.
+     *
+     * @param packedPoint the tile to step from
+     * @param hop an {@link OrdinalDirection} ordinal as returned by {@link #getNextHop(int)}
+     */
+    public static int step(int packedPoint, int hop) {
+        final OrdinalDirection direction = ORDINAL_VALUES[hop];
+        return WorldPointUtil.packWorldPoint(
+            WorldPointUtil.unpackWorldX(packedPoint) + direction.x,
+            WorldPointUtil.unpackWorldY(packedPoint) + direction.y,
+            WorldPointUtil.unpackWorldPlane(packedPoint));
+    }
+
+    /**
+     * Runs the reverse search. This takes a while and is meant to run in the background; it returns {@code null} if
+     * the thread is interrupted.
+     *
+     * @param map the collision map, which must not be shared with another thread
+     * @param destinations the packed destination tiles
+     * @param transports usable transports with an origin as consecutive (origin, destination, cost) triples
+     * @param avoidWilderness whether walking or travelling into the wilderness from outside of it is avoided
+     */
+    public static DistanceField compute(CollisionMap map, Set<Integer> destinations, int[] transports,
+        boolean avoidWilderness) {
+        final DistanceField field = new DistanceField(map);
+
+        // Transports by destination as (origin, cost) pairs, and the transport origins for blocked tile lookups
+        final PrimitiveIntHashMap<PrimitiveIntList> transportsByDestination = new PrimitiveIntHashMap<>(transports.length / 3);
+        final TileLayer.Builder originsBuilder = TileLayer.builder();
+        for (int i = 0; i < transports.length; i += 3) {
+            PrimitiveIntList incoming = transportsByDestination.get(transports[i + 1]);
+            if (incoming == null) {
+                incoming = new PrimitiveIntList(2);
+                transportsByDestination.put(transports[i + 1], incoming);
+            }
+            incoming.add(transports[i]);
+            incoming.add(transports[i + 2]);
+            originsBuilder.add(transports[i]);
+        }
+        final TileLayer origins = originsBuilder.build();
+
+        // Costs are small integers, so a bucket per cost is enough to visit tiles in order of cost
+        final PrimitiveIntList[] buckets = new PrimitiveIntList[MAX_COST + 1];
+        for (int destination : destinations) {
+            field.relax(destination, 0, HOP_ARRIVED, buckets);
+        }
+
+        for (int cost = 0; cost <= MAX_COST; cost++) {
+            final PrimitiveIntList bucket = buckets[cost];
+            if (bucket == null) {
+                continue;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+
+            for (int i = 0; i < bucket.size(); i++) {
+                final int packedPoint = bucket.get(i);
+                if (field.getCost(packedPoint) != cost) {
+                    continue; // Reached again with a lower cost after it was queued
+                }
+
+                final int x = WorldPointUtil.unpackWorldX(packedPoint);
+                final int y = WorldPointUtil.unpackWorldY(packedPoint);
+                final int z = WorldPointUtil.unpackWorldPlane(packedPoint);
+                final boolean inWilderness = avoidWilderness && WildernessChecker.isInWilderness(packedPoint);
+
+                for (OrdinalDirection direction : ORDINAL_VALUES) {
+                    final int previousX = x - direction.x;
+                    final int previousY = y - direction.y;
+                    if (map.isTraversable(previousX, previousY, z, direction)) {
+                        final int previous = WorldPointUtil.packWorldPoint(previousX, previousY, z);
+                        if (!inWilderness || WildernessChecker.isInWilderness(previous)) {
+                            field.relax(previous, cost + 1, direction.ordinal(), buckets);
+                        }
+                    }
+                }
+
+                // Transports starting from a blocked tile are entered from the tiles next to it, e.g. fairy rings
+                if (origins.get(packedPoint) && map.isBlocked(x, y, z)) {
+                    for (OrdinalDirection direction : CARDINAL_VALUES) {
+                        final int previous = WorldPointUtil.packWorldPoint(x - direction.x, y - direction.y, z);
+                        if (!inWilderness || WildernessChecker.isInWilderness(previous)) {
+                            field.relax(previous, cost + 1, direction.ordinal(), buckets);
+                        }
+                    }
+                }
+
+                final PrimitiveIntList incoming = transportsByDestination.get(packedPoint);
+                if (incoming != null) {
+                    for (int j = 0; j < incoming.size(); j += 2) {
+                        final int origin = incoming.get(j);
+                        if (!inWilderness || WildernessChecker.isInWilderness(origin)) {
+                            field.relax(origin, cost + incoming.get(j + 1), HOP_TRANSPORT, buckets);
+                        }
+                    }
+                }
+            }
+            buckets[cost] = null;
+        }
+
+        return field;
+    }
+
+    private void relax(int packedPoint, int cost, int hop, PrimitiveIntList[] buckets) {
+        if (cost > MAX_COST) {
+            return;
+        }
+
+        final int x = WorldPointUtil.unpackWorldX(packedPoint);
+        final int y = WorldPointUtil.unpackWorldY(packedPoint);
+        final int plane = WorldPointUtil.unpackWorldPlane(packedPoint);
+        final int regionIndex = getRegionIndex(x / REGION_SIZE, y / REGION_SIZE);
+        if (regionIndex < 0 || regionIndex >= regions.length || plane >= regionPlanes[regionIndex]) {
+            return;
+        }
+
+        char[] region = regions[regionIndex];
+        if (region == null) {
+            region = new char[regionPlanes[regionIndex] * REGION_SIZE * REGION_SIZE];
+            regions[regionIndex] = region;
+        }
+
+        final int tileIndex = getTileIndex(x, y, plane);
+        final char value = region[tileIndex];
+        if (value != UNREACHED && value >>> 4 <= cost) {
+            return;
+        }
+
+        region[tileIndex] = (char) ((cost << 4) | (hop + 1));
+        if (buckets[cost] == null) {
+            buckets[cost] = new PrimitiveIntList();
+        }
+        buckets[cost].add(packedPoint);
+    }
+
+    private int get(int packedPoint) {
+        final int x = WorldPointUtil.unpackWorldX(packedPoint);
+        final int y = WorldPointUtil.unpackWorldY(packedPoint);
+        final int plane = WorldPointUtil.unpackWorldPlane(packedPoint);
+        final int regionIndex = getRegionIndex(x / REGION_SIZE, y / REGION_SIZE);
+        if (regionIndex < 0 || regionIndex >= regions.length || regions[regionIndex] == null
+            || plane >= regionPlanes[regionIndex]) {
+            return UNREACHED;
+        }
+        return regions[regionIndex][getTileIndex(x, y, plane)];
+    }
+
+    private int getRegionIndex(int regionX, int regionY) {
+        return (regionX - regionExtents.getMinX()) + (regionY - regionExtents.getMinY()) * widthInclusive;
+    }
+
+    private static int getTileIndex(int x, int y, int plane) {
+        return (plane * REGION_SIZE + y % REGION_SIZE) * REGION_SIZE + x % REGION_SIZE;
+    }
+}
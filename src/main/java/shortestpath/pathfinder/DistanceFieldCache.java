@@ -0,0 +1,83 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Distance fields for the destination categories that are routed to, e.g. "nearest bank".
+ * <p>
+ * A field is computed on the background threads the first time its category is asked for, and is kept until the
+ * usable transports or the wilderness setting change in a way that affects walking between tiles. Until the field
+ * is ready, callers fall back to a regular search.
+ */
+@Slf4j
+public class DistanceFieldCache {
+    private final PathfinderConfig config;
+    private final Map<String, DistanceField> fields = new HashMap<>();
+    private final BackgroundTasks tasks;
+    /** Usable transports with an origin as sorted (origin, destination, cost) triples */
+    private int[] transports = new int[0];
+    private boolean avoidWilderness;
+
+    public DistanceFieldCache(PathfinderConfig config) {
+        this.config = config;
+        tasks = new BackgroundTasks(config.getBackground(), this, 1);
+    }
+
+    /**
+     * Returns the distance field of a destination category, or {@code null} if it is not computed yet, in which
+     * case its computation is scheduled.
+     *
+     * @param destinationType the destination category, e.g. {@code "bank"}
+     * @param destinations the destinations of the category
+     */
+    public synchronized DistanceField get(String destinationType, Set<Integer> destinations) {
+        DistanceField field = fields.get(destinationType);
+        if (field == null) {
+            final int[] fieldTransports = transports;
+            final boolean fieldAvoidWilderness = avoidWilderness;
+            tasks.schedule(destinationType, () -> compute(destinationType, destinations, fieldTransports,
+                fieldAvoidWilderness), computed -> fields.put(destinationType, computed));
+        }
+        return field;
+    }
+
+    /**
+     * Updates the inputs of the fields, and drops the fields if the inputs changed.
+     *
+     * @param transports usable transports with an origin as sorted (origin, destination, cost) triples
+     * @param avoidWilderness whether walking into the wilderness is avoided
+     */
+    public synchronized void setTransports(int[] transports, boolean avoidWilderness) {
+        if (avoidWilderness == this.avoidWilderness && Arrays.equals(transports, this.transports)) {
+            return;
+        }
+
+        this.transports = transports;
+        this.avoidWilderness = avoidWilderness;
+        invalidate();
+    }
+
+    public synchronized void clear() {
+        fields.clear();
+        tasks.cancel();
+    }
+
+    private void invalidate() {
+        fields.clear();
+        tasks.invalidate();
+    }
+
+    private DistanceField compute(String destinationType, Set<Integer> destinations, int[] transports,
+        boolean avoidWilderness) {
+        long startNanos = System.nanoTime();
+        DistanceField field = DistanceField.compute(config.getMap(), destinations, transports, avoidWilderness);
+        if (field != null) {
+            log.debug("Computed distance field for {} in {} ms", destinationType, (System.nanoTime() - startNanos) / 1_000_000);
+        }
+        return field;
+    }
+}
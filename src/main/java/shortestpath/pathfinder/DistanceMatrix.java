@@ -0,0 +1,315 @@
+package shortestpath.pathfinder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import shortestpath.PrimitiveIntIntHashMap;
+import shortestpath.PrimitiveIntList;
+import shortestpath.WorldPointUtil;
+
+import static net.runelite.api.Constants.REGION_SIZE;
+
+/**
+ * The number of ticks from each of a set of origins to each of a set of targets, and optionally the paths, from one
+ * search per origin that runs until all targets are reached.
+ * <p>
+ * The searches walk over the collision map and the usable transports that have an origin, and take teleports only
+ * from the origin, like a {@link DistanceField}. Unlike the {@link Pathfinder}, they do not pick up teleports from
+ * the bank on the way, and do not stop early without reaching every target.
+ */
+public class DistanceMatrix {
+    /** Targets that are further away than this many ticks are left unreached */
+    public static final int MAX_COST = 4095;
+
+    private static final int HOP_START = 8;
+    private static final int HOP_TRANSPORT = 9;
+    private static final int UNREACHED = 0;
+    private static final OrdinalDirection[] ORDINAL_VALUES = OrdinalDirection.values();
+
+    private final int[] origins;
+    private final int[] targets;
+    /** Costs indexed by origin * targets + target, -1 for targets that were not reached */
+    private final int[] costs;
+    /** Paths indexed like the costs, or {@code null} if the paths were not asked for */
+    private final PrimitiveIntList[] paths;
+
+    DistanceMatrix(int[] origins, int[] targets, Row[] rows, boolean withPaths) {
+        this.origins = origins;
+        this.targets = targets;
+        costs = new int[origins.length * targets.length];
+        paths = withPaths ? new PrimitiveIntList[costs.length] : null;
+        for (int origin = 0; origin < origins.length; origin++) {
+            System.arraycopy(rows[origin].costs, 0, costs, origin * targets.length, targets.length);
+            if (withPaths) {
+                System.arraycopy(rows[origin].paths, 0, paths, origin * targets.length, targets.length);
+            }
+        }
+    }
+
+    public int[] getOrigins() {
+        return origins.clone();
+    }
+
+    public int[] getTargets() {
+        return targets.clone();
+    }
+
+    /**
+     * Returns the number of ticks from an origin to a target.
+     *
+     * @param origin the index of the origin
+     * @param target the index of the target
+     * @return the cost, or {@code -1} if the target was not reached from the origin
+     */
+    public int getCost(int origin, int target) {
+        return costs[origin * targets.length + target];
+    }
+
+    /** Returns whether the paths were kept */
+    public boolean hasPaths() {
+        return paths != null;
+    }
+
+    /**
+     * Returns the path from an origin to a target.
+     *
+     * @param origin the index of the origin
+     * @param target the index of the target
+     * @return the tiles of the path, or {@code null} if the target was not reached or the paths were not asked for
+     */
+    public PrimitiveIntList getPath(int origin, int target) {
+        return paths == null ? null : paths[origin * targets.length + target];
+    }
+
+    /** The costs and paths from one origin */
+    static class Row {
+        final int[] costs;
+        final PrimitiveIntList[] paths;
+
+        Row(int targets) {
+            costs = new int[targets];
+            paths = new PrimitiveIntList[targets];
+        }
+    }
+
+    /**
+     * Runs the search from one origin. It returns {@code null} if the thread is interrupted.
+     *
+     * @param map the collision map of the calling thread
+     * @param graph the usable transports with an origin
+     * @param origin the tile to search from
+     * @param startTransports teleports that can be taken from the origin as (destination, cost) pairs
+     * @param targets the tiles to search for
+     * @param avoidWilderness whether walking or travelling into the wilderness from outside of it is avoided
+     * @param withPaths whether to keep the paths
+     */
+    static Row search(CollisionMap map, TransportGraph graph, int origin, int[] startTransports, int[] targets,
+        boolean avoidWilderness, boolean withPaths) {
+        final Search search = new Search(map);
+        final PrimitiveIntList[] buckets = new PrimitiveIntList[MAX_COST + 1];
+        search.relax(origin, 0, HOP_START, buckets);
+        for (int i = 0; i < startTransports.length; i += 2) {
+            if (!avoidWilderness || !isEnteringWilderness(origin, startTransports[i])) {
+                search.relax(startTransports[i], startTransports[i + 1], HOP_TRANSPORT, buckets);
+            }
+        }
+
+        final PrimitiveIntIntHashMap targetIndexes = new PrimitiveIntIntHashMap(targets.length);
+        for (int i = 0; i < targets.length; i++) {
+            targetIndexes.put(targets[i], i);
+        }
+        final boolean[] reached = new boolean[targets.length];
+        int remaining = targetIndexes.size();
+
+        for (int cost = 0; cost <= MAX_COST && remaining > 0; cost++) {
+            final PrimitiveIntList bucket = buckets[cost];
+            if (bucket == null) {
+                continue;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+
+            for (int i = 0; i < bucket.size(); i++) {
+                final int packedPoint = bucket.get(i);
+                if (search.getCost(packedPoint) != cost) {
+                    continue; // Reached again with a lower cost after it was queued
+                }
+                final int targetIndex = targetIndexes.getOrDefault(packedPoint, -1);
+                if (targetIndex >= 0 && !reached[targetIndex]) {
+                    reached[targetIndex] = true;
+                    remaining--;
+                }
+
+                final int x = WorldPointUtil.unpackWorldX(packedPoint);
+                final int y = WorldPointUtil.unpackWorldY(packedPoint);
+                final int z = WorldPointUtil.unpackWorldPlane(packedPoint);
+                final boolean[] traversable = map.getTraversable(x, y, z);
+                for (OrdinalDirection direction : ORDINAL_VALUES) {
+                    final int next = WorldPointUtil.packWorldPoint(x + direction.x, y + direction.y, z);
+                    if (avoidWilderness && isEnteringWilderness(packedPoint, next)) {
+                        continue;
+                    }
+                    if (traversable[direction.ordinal()]) {
+                        search.relax(next, cost + 1, direction.ordinal(), buckets);
+                    } else if (Math.abs(direction.x + direction.y) == 1 && graph.origins.get(next)
+                        && map.isBlocked(x + direction.x, y + direction.y, z)) {
+                        // The transport starts from a blocked tile next to this one, e.g. a fairy ring
+                        search.relax(next, cost + 1, direction.ordinal(), buckets);
+                    }
+                }
+
+                final PrimitiveIntList transports = graph.byOrigin.get(packedPoint);
+                if (transports != null) {
+                    for (int j = 0; j < transports.size(); j += 2) {
+                        final int destination = transports.get(j);
+                        if (!avoidWilderness || !isEnteringWilderness(packedPoint, destination)) {
+                            search.relax(destination, cost + transports.get(j + 1), HOP_TRANSPORT, buckets);
+                        }
+                    }
+                }
+            }
+            buckets[cost] = null;
+        }
+
+        final Row row = new Row(targets.length);
+        for (int i = 0; i < targets.length; i++) {
+            row.costs[i] = search.getCost(targets[i]);
+            if (withPaths && row.costs[i] >= 0) {
+                row.paths[i] = search.getPath(targets[i], origin, startTransports, graph);
+            }
+        }
+        return row;
+    }
+
+    static boolean isEnteringWilderness(int packedPoint, int next) {
+        return !WildernessChecker.isInWilderness(packedPoint) && WildernessChecker.isInWilderness(next);
+    }
+
+    /**
+     * The cost and the hop each tile was reached with, as cost << 4 | hop + 1 in a {@code char} per tile, stored
+     * region by region like {@link VisitedTiles}.
+     */
+    private static class Search {
+        private final SplitFlagMap.RegionExtent regionExtents;
+        private final int widthInclusive;
+        private final byte[] regionPlanes;
+        private final char[][] regions;
+
+        Search(CollisionMap map) {
+            regionExtents = SplitFlagMap.getRegionExtents();
+            widthInclusive = regionExtents.getWidth() + 1;
+            regionPlanes = map.getPlanes();
+            regions = new char[regionPlanes.length][];
+        }
+
+        /** Returns the cost a tile was reached with, or -1 if it was not reached */
+        int getCost(int packedPoint) {
+            final int value = get(packedPoint);
+            return value == UNREACHED ? -1 : value >>> 4;
+        }
+
+        void relax(int packedPoint, int cost, int hop, PrimitiveIntList[] buckets) {
+            if (cost > MAX_COST) {
+                return;
+            }
+            final int regionIndex = getRegionIndex(packedPoint);
+            if (regionIndex < 0) {
+                return;
+            }
+
+            char[] region = regions[regionIndex];
+            if (region == null) {
+                region = new char[regionPlanes[regionIndex] * REGION_SIZE * REGION_SIZE];
+                regions[regionIndex] = region;
+            }
+            final int tileIndex = getTileIndex(packedPoint);
+            if (region[tileIndex] != UNREACHED && region[tileIndex] >>> 4 <= cost) {
+                return;
+            }
+
+            region[tileIndex] = (char) ((cost << 4) | (hop + 1));
+            if (buckets[cost] == null) {
+                buckets[cost] = new PrimitiveIntList();
+            }
+            buckets[cost].add(packedPoint);
+        }
+
+        /** Walks back from a reached tile to the origin, and returns the tiles from the origin */
+        PrimitiveIntList getPath(int packedPoint, int origin, int[] startTransports, TransportGraph graph) {
+            final List<Integer> reversed = new ArrayList<>();
+            int tile = packedPoint;
+            while (true) {
+                reversed.add(tile);
+                final int value = get(tile);
+                final int hop = (value & 0xF) - 1;
+                if (hop == HOP_START) {
+                    break;
+                } else if (hop == HOP_TRANSPORT) {
+                    tile = findTransportOrigin(tile, value >>> 4, origin, startTransports, graph);
+                    if (tile == WorldPointUtil.UNDEFINED) {
+                        return null;
+                    }
+                } else {
+                    final OrdinalDirection direction = ORDINAL_VALUES[hop];
+                    tile = WorldPointUtil.packWorldPoint(
+                        WorldPointUtil.unpackWorldX(tile) - direction.x,
+                        WorldPointUtil.unpackWorldY(tile) - direction.y,
+                        WorldPointUtil.unpackWorldPlane(tile));
+                }
+            }
+
+            final PrimitiveIntList path = new PrimitiveIntList(reversed.size());
+            for (int i = reversed.size() - 1; i >= 0; i--) {
+                path.add(reversed.get(i));
+            }
+            return path;
+        }
+
+        /** Returns the origin of a transport that reaches a tile with the cost it was reached with */
+        private int findTransportOrigin(int destination, int cost, int origin, int[] startTransports,
+            TransportGraph graph) {
+            for (int i = 0; i < startTransports.length; i += 2) {
+                if (startTransports[i] == destination && startTransports[i + 1] == cost) {
+                    return origin;
+                }
+            }
+            final PrimitiveIntList incoming = graph.byDestination.get(destination);
+            if (incoming != null) {
+                for (int i = 0; i < incoming.size(); i += 2) {
+                    final int originCost = getCost(incoming.get(i));
+                    if (originCost >= 0 && originCost + incoming.get(i + 1) == cost) {
+                        return incoming.get(i);
+                    }
+                }
+            }
+            return WorldPointUtil.UNDEFINED;
+        }
+
+        private int get(int packedPoint) {
+            final int regionIndex = getRegionIndex(packedPoint);
+            if (regionIndex < 0 || regions[regionIndex] == null) {
+                return UNREACHED;
+            }
+            return regions[regionIndex][getTileIndex(packedPoint)];
+        }
+
+        /** Returns the index of a tile's region, or -1 if the tile is outside of the collision map */
+        private int getRegionIndex(int packedPoint) {
+            final int regionX = WorldPointUtil.unpackWorldX(packedPoint) / REGION_SIZE - regionExtents.getMinX();
+            final int regionY = WorldPointUtil.unpackWorldY(packedPoint) / REGION_SIZE - regionExtents.getMinY();
+            if (regionX < 0 || regionX >= widthInclusive || regionY < 0) {
+                return -1;
+            }
+            final int regionIndex = regionX + regionY * widthInclusive;
+            return regionIndex < regions.length
+                && WorldPointUtil.unpackWorldPlane(packedPoint) < regionPlanes[regionIndex] ? regionIndex : -1;
+        }
+
+        private static int getTileIndex(int packedPoint) {
+            final int x = WorldPointUtil.unpackWorldX(packedPoint) % REGION_SIZE;
+            final int y = WorldPointUtil.unpackWorldY(packedPoint) % REGION_SIZE;
+            return (WorldPointUtil.unpackWorldPlane(packedPoint) * REGION_SIZE + y) * REGION_SIZE + x;
+        }
+    }
+}
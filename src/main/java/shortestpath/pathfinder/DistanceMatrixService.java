@@ -0,0 +1,121 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Computes {@link DistanceMatrix distance matrices} on a few of the background threads, one search per origin,
+ * next to the single thread of the {@link Pathfinder} that draws the path. The {@link Isochrone reachable areas} are
+ * computed on the same threads.
+ */
+public class DistanceMatrixService {
+    /** Leaves a core for the client and the pathfinder */
+    private static final int THREADS = Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() - 1));
+
+    private final PathfinderConfig config;
+    private final BackgroundTasks tasks;
+    /** Usable transports with an origin as sorted (origin, destination, cost) triples */
+    private int[] transports = new int[0];
+    private boolean avoidWilderness;
+    private TransportGraph graph;
+
+    public DistanceMatrixService(PathfinderConfig config) {
+        this.config = config;
+        tasks = new BackgroundTasks(config.getBackground(), this, THREADS);
+    }
+
+    /**
+     * Starts computing the costs from every origin to every target. The teleports usable from each origin are taken
+     * from the config on the calling thread.
+     *
+     * @param origins the tiles to search from
+     * @param targets the tiles to search for
+     * @param withPaths whether to keep the path of every pair as well
+     * @return the matrix once all origins are searched; it completes exceptionally if the searches are cancelled
+     */
+    public synchronized CompletableFuture<DistanceMatrix> compute(int[] origins, int[] targets, boolean withPaths) {
+        if (graph == null) {
+            graph = new TransportGraph(transports);
+        }
+        final TransportGraph searchGraph = graph;
+        final boolean searchAvoidWilderness = avoidWilderness;
+        final int[] searchTargets = targets.clone();
+
+        @SuppressWarnings("unchecked")
+        final CompletableFuture<DistanceMatrix.Row>[] rows = new CompletableFuture[origins.length];
+        for (int i = 0; i < origins.length; i++) {
+            final int origin = origins[i];
+            final int[] startTransports = config.getTeleportEdges(WildernessChecker.getWildernessLevel(origin));
+            rows[i] = tasks.submit(() -> {
+                DistanceMatrix.Row row = DistanceMatrix.search(config.getMap(), searchGraph, origin, startTransports,
+                    searchTargets, searchAvoidWilderness, withPaths);
+                if (row == null) {
+                    throw new CompletionException(new InterruptedException());
+                }
+                return row;
+            });
+        }
+
+        final int[] matrixOrigins = origins.clone();
+        return CompletableFuture.allOf(rows).thenApply(done -> new DistanceMatrix(matrixOrigins, searchTargets,
+            Arrays.stream(rows).map(CompletableFuture::join).toArray(DistanceMatrix.Row[]::new), withPaths));
+    }
+
+    /**
+     * Starts planning the cheapest order to visit all stops from a start, from the costs between all of them.
+     *
+     * @param start the tile the tour starts from
+     * @param stops the distinct tiles to visit
+     * @return the tour with its path; it completes exceptionally if the searches are cancelled
+     */
+    public CompletableFuture<Tour> computeTour(int start, int[] stops) {
+        final int[] origins = new int[stops.length + 1];
+        origins[0] = start;
+        System.arraycopy(stops, 0, origins, 1, stops.length);
+        return compute(origins, stops, true).thenApply(TourPlanner::plan);
+    }
+
+    /**
+     * Starts computing the tiles that can be reached from a start within a number of ticks.
+     *
+     * @param start the tile to search from
+     * @param ticks the tick budget
+     * @return the reachable area; it completes exceptionally if the search is cancelled
+     */
+    public synchronized CompletableFuture<Isochrone> computeReachable(int start, int ticks) {
+        if (graph == null) {
+            graph = new TransportGraph(transports);
+        }
+        final TransportGraph searchGraph = graph;
+        final boolean searchAvoidWilderness = avoidWilderness;
+        final int[] startTransports = config.getTeleportEdges(WildernessChecker.getWildernessLevel(start));
+        return tasks.submit(() -> {
+            Isochrone isochrone = Isochrone.compute(config.getMap(), searchGraph, start, startTransports,
+                Math.max(0, ticks), searchAvoidWilderness);
+            if (isochrone == null) {
+                throw new CompletionException(new InterruptedException());
+            }
+            return isochrone;
+        });
+    }
+
+    /**
+     * Updates the transports of the searches.
+     *
+     * @param transports usable transports with an origin as sorted (origin, destination, cost) triples
+     * @param avoidWilderness whether walking into the wilderness is avoided
+     */
+    public synchronized void setTransports(int[] transports, boolean avoidWilderness) {
+        if (!Arrays.equals(transports, this.transports)) {
+            this.transports = transports;
+            graph = null;
+        }
+        this.avoidWilderness = avoidWilderness;
+    }
+
+    /** Cancels the running searches */
+    public synchronized void clear() {
+        tasks.cancel();
+    }
+}
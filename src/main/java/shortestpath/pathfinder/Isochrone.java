@@ -0,0 +1,128 @@
+package shortestpath.pathfinder;
+
+import lombok.Getter;
+import shortestpath.PrimitiveIntList;
+import shortestpath.WorldPointUtil;
+
+/**
+ * The tiles that can be reached from a start within a number of ticks, by walking and taking the usable transports.
+ * <p>
+ * The tiles are kept as the per-region bitsets of {@link VisitedTiles}, which the bounded search also uses as its
+ * closed set. Like a {@link DistanceMatrix} search, teleports are only taken from the start.
+ */
+public class Isochrone {
+    private static final OrdinalDirection[] ORDINAL_VALUES = OrdinalDirection.values();
+
+    @Getter
+    private final int start;
+    @Getter
+    private final int ticks;
+    /** The reached tiles; {@link VisitedTiles#contains(int)} tells whether a tile is reachable */
+    @Getter
+    private final VisitedTiles tiles;
+    @Getter
+    private final int tileCount;
+
+    private Isochrone(int start, int ticks, VisitedTiles tiles, int tileCount) {
+        this.start = start;
+        this.ticks = ticks;
+        this.tiles = tiles;
+        this.tileCount = tileCount;
+    }
+
+    /** Returns whether a tile can be reached within the ticks */
+    public boolean contains(int packedPoint) {
+        return tiles.contains(packedPoint);
+    }
+
+    /**
+     * Runs a search from the start that stops at the tick budget. It returns {@code null} if the thread is
+     * interrupted.
+     *
+     * @param map the collision map of the calling thread
+     * @param graph the usable transports with an origin
+     * @param start the tile to search from
+     * @param startTransports teleports that can be taken from the start as (destination, cost) pairs
+     * @param ticks the tick budget
+     * @param avoidWilderness whether walking or travelling into the wilderness from outside of it is avoided
+     */
+    static Isochrone compute(CollisionMap map, TransportGraph graph, int start, int[] startTransports, int ticks,
+        boolean avoidWilderness) {
+        final VisitedTiles reached = new VisitedTiles(map);
+        // Tiles are queued once per cheaper way found to them, and only the first one taken from the queue counts
+        final PrimitiveIntList[] buckets = new PrimitiveIntList[ticks + 1];
+        enqueue(buckets, start, 0);
+        for (int i = 0; i < startTransports.length; i += 2) {
+            if (!avoidWilderness || !DistanceMatrix.isEnteringWilderness(start, startTransports[i])) {
+                enqueue(buckets, startTransports[i], startTransports[i + 1]);
+            }
+        }
+
+        int tileCount = 0;
+        for (int cost = 0; cost <= ticks; cost++) {
+            final PrimitiveIntList bucket = buckets[cost];
+            if (bucket == null) {
+                continue;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+
+            for (int i = 0; i < bucket.size(); i++) {
+                final int packedPoint = bucket.get(i);
+                final int x = WorldPointUtil.unpackWorldX(packedPoint);
+                final int y = WorldPointUtil.unpackWorldY(packedPoint);
+                final int z = WorldPointUtil.unpackWorldPlane(packedPoint);
+                if (!reached.set(x, y, z)) {
+                    continue;
+                }
+                tileCount++;
+
+                final PrimitiveIntList transports = graph.byOrigin.get(packedPoint);
+                if (transports != null) {
+                    for (int j = 0; j < transports.size(); j += 2) {
+                        final int destination = transports.get(j);
+                        if (!avoidWilderness || !DistanceMatrix.isEnteringWilderness(packedPoint, destination)) {
+                            enqueue(buckets, destination, cost + transports.get(j + 1));
+                        }
+                    }
+                }
+                if (cost == ticks) {
+                    continue;
+                }
+
+                final boolean[] traversable = map.getTraversable(x, y, z);
+                for (OrdinalDirection direction : ORDINAL_VALUES) {
+                    final int nextX = x + direction.x;
+                    final int nextY = y + direction.y;
+                    if (reached.get(nextX, nextY, z)) {
+                        continue;
+                    }
+                    final int next = WorldPointUtil.packWorldPoint(nextX, nextY, z);
+                    if (avoidWilderness && DistanceMatrix.isEnteringWilderness(packedPoint, next)) {
+                        continue;
+                    }
+                    if (traversable[direction.ordinal()]) {
+                        enqueue(buckets, next, cost + 1);
+                    } else if (Math.abs(direction.x + direction.y) == 1 && graph.origins.get(next)
+                        && map.isBlocked(nextX, nextY, z)) {
+                        // The transport starts from a blocked tile next to this one, e.g. a fairy ring
+                        enqueue(buckets, next, cost + 1);
+                    }
+                }
+            }
+            buckets[cost] = null;
+        }
+        return new Isochrone(start, ticks, reached, tileCount);
+    }
+
+    private static void enqueue(PrimitiveIntList[] buckets, int packedPoint, int cost) {
+        if (cost >= buckets.length) {
+            return;
+        }
+        if (buckets[cost] == null) {
+            buckets[cost] = new PrimitiveIntList();
+        }
+        buckets[cost].add(packedPoint);
+    }
+}
@@ -0,0 +1,233 @@
+package shortestpath.pathfinder;
+
+import shortestpath.WorldPointUtil;
+
+/**
+ * Jump point search over the walking moves of the collision map.
+ * <p>
+ * Walking moves all cost one tick, so many paths between two tiles are equally short. Instead of queueing every tile,
+ * a jump runs along a straight or diagonal line from a jump point and only stops at the next tile where the search
+ * has to branch: a tile with a forced neighbour, i.e. one that cannot be reached as cheaply without passing through
+ * the tile, or a tile that matters to the search for another reason. Diagonal jumps also stop where a straight jump
+ * along either of their components would stop.
+ * <p>
+ * The collision map has walls between tiles rather than only blocked tiles, so the pruning rules ask the map whether
+ * the cheaper way around the tile can be walked instead of whether a tile is blocked. Diagonal moves already need
+ * both of their cardinal moves, so corners are never cut. Tiles where the search does more than walk count as jump
+ * points as well:
+ * <ul>
+ *     <li>the targets</li>
+ *     <li>tiles with transports, and tiles next to a blocked tile with transports, e.g. a fairy ring</li>
+ *     <li>banks, until the bank is visited</li>
+ *     <li>tiles where the wilderness level drops, since teleports can become usable there</li>
+ * </ul>
+ * A jump also stops after {@link #MAX_JUMP} tiles, which keeps the work between two checks of the calculation
+ * cutoff small. Only jump points are taken from the queue, so when no target can be reached the closest tile found
+ * may be another one than a walking search finds.
+ */
+class JumpPoints {
+    static final int MAX_JUMP = 64;
+    static final int ALL_DIRECTIONS = 0xFF;
+
+    private static final OrdinalDirection[] ORDINAL_VALUES = OrdinalDirection.values();
+    /** Directions by (x + 1) * 3 + y + 1 of their offset */
+    private static final OrdinalDirection[] BY_OFFSET = new OrdinalDirection[9];
+
+    static {
+        for (OrdinalDirection direction : ORDINAL_VALUES) {
+            BY_OFFSET[(direction.x + 1) * 3 + direction.y + 1] = direction;
+        }
+    }
+
+    private final CollisionMap map;
+    private final PathfinderConfig config;
+    private final TileLayer targets;
+    private final boolean targetInWilderness;
+
+    // The traversable moves of the current tile, the tile before it and a tile beside them
+    private final boolean[] current = new boolean[8];
+    private final boolean[] previous = new boolean[8];
+    private final boolean[] side = new boolean[8];
+
+    /** The number of tiles that jumps have run over */
+    private long tilesScanned;
+
+    JumpPoints(CollisionMap map, PathfinderConfig config, TileLayer targets, boolean targetInWilderness) {
+        this.map = map;
+        this.config = config;
+        this.targets = targets;
+        this.targetInWilderness = targetInWilderness;
+    }
+
+    long getTilesScanned() {
+        return tilesScanned;
+    }
+
+    /**
+     * Returns the directions to jump in from a node, as a bit per {@link OrdinalDirection} ordinal. These are the
+     * directions that continue the move the node was reached with, and those of its forced neighbours. Nodes that
+     * were not walked to jump in every direction.
+     */
+    int getDirections(Node node) {
+        final Node before = node.previous;
+        if (before == null || node instanceof TransportNode
+            || WorldPointUtil.distanceBetween(before.packedPosition, node.packedPosition) != 1) {
+            return ALL_DIRECTIONS;
+        }
+
+        final int x = WorldPointUtil.unpackWorldX(node.packedPosition);
+        final int y = WorldPointUtil.unpackWorldY(node.packedPosition);
+        final int z = WorldPointUtil.unpackWorldPlane(node.packedPosition);
+        final OrdinalDirection direction = BY_OFFSET[(x - WorldPointUtil.unpackWorldX(before.packedPosition) + 1) * 3
+            + y - WorldPointUtil.unpackWorldY(before.packedPosition) + 1];
+        if (direction == null || WorldPointUtil.unpackWorldPlane(before.packedPosition) != z) {
+            return ALL_DIRECTIONS;
+        }
+
+        copyTraversable(x - direction.x, y - direction.y, z, previous);
+        copyTraversable(x, y, z, current);
+        int directions = 1 << direction.ordinal();
+        if (direction.x != 0 && direction.y != 0) {
+            directions |= 1 << direction(direction.x, 0).ordinal() | 1 << direction(0, direction.y).ordinal();
+        }
+        return directions | getForced(x, y, z, direction);
+    }
+
+    /**
+     * Jumps from a tile in a direction.
+     *
+     * @param packedPoint the tile to jump from
+     * @param direction the direction to jump in
+     * @param stopAtWildernessLevels whether tiles where the wilderness level drops are jump points
+     * @return the jump point, or {@link WorldPointUtil#UNDEFINED} if the jump ran into a wall without finding one
+     */
+    int jump(int packedPoint, OrdinalDirection direction, boolean stopAtWildernessLevels) {
+        int x = WorldPointUtil.unpackWorldX(packedPoint);
+        int y = WorldPointUtil.unpackWorldY(packedPoint);
+        final int z = WorldPointUtil.unpackWorldPlane(packedPoint);
+        final boolean diagonal = direction.x != 0 && direction.y != 0;
+        copyTraversable(x, y, z, current);
+
+        for (int steps = 1; steps <= MAX_JUMP; steps++) {
+            if (!current[direction.ordinal()]) {
+                return WorldPointUtil.UNDEFINED;
+            }
+            final int from = WorldPointUtil.packWorldPoint(x, y, z);
+            x += direction.x;
+            y += direction.y;
+            final int tile = WorldPointUtil.packWorldPoint(x, y, z);
+            if (config.avoidWilderness(from, tile, targetInWilderness)) {
+                return WorldPointUtil.UNDEFINED;
+            }
+            tilesScanned++;
+
+            System.arraycopy(current, 0, previous, 0, 8);
+            copyTraversable(x, y, z, current);
+            if (steps == MAX_JUMP || isSpecial(tile, x, y, z)
+                || (stopAtWildernessLevels
+                    && WildernessChecker.getWildernessLevel(tile) < WildernessChecker.getWildernessLevel(from))
+                || getForced(x, y, z, direction) != 0) {
+                return tile;
+            }
+
+            if (diagonal) {
+                // The straight jumps overwrite the traversable moves of this tile
+                final boolean stop = jump(tile, direction(direction.x, 0), stopAtWildernessLevels)
+                    != WorldPointUtil.UNDEFINED
+                    || jump(tile, direction(0, direction.y), stopAtWildernessLevels) != WorldPointUtil.UNDEFINED;
+                if (stop) {
+                    return tile;
+                }
+                copyTraversable(x, y, z, current);
+            }
+        }
+        return WorldPointUtil.UNDEFINED;
+    }
+
+    /**
+     * Returns the forced neighbours of a tile reached by a move in a direction, as a bit per direction from the tile.
+     * The moves of the tile and the tile before it have to be in {@link #current} and {@link #previous}.
+     */
+    private int getForced(int x, int y, int z, OrdinalDirection direction) {
+        final int px = x - direction.x;
+        final int py = y - direction.y;
+        int forced = 0;
+        if (direction.x == 0 || direction.y == 0) {
+            // Each side of a straight move, e.g. north and south of a move east
+            for (int sign = -1; sign <= 1; sign += 2) {
+                final int sx = sign * direction.y;
+                final int sy = sign * direction.x;
+                final OrdinalDirection aside = direction(sx, sy);
+                final OrdinalDirection aheadAside = direction(direction.x + sx, direction.y + sy);
+                final OrdinalDirection behindAside = direction(-direction.x + sx, -direction.y + sy);
+
+                // Beside the tile, reached diagonally from the tile before it
+                if (current[aside.ordinal()] && !previous[aheadAside.ordinal()]) {
+                    forced |= 1 << aside.ordinal();
+                }
+                // Beside the tile before it, reached straight from the tile before it
+                if (current[behindAside.ordinal()] && !previous[aside.ordinal()]) {
+                    forced |= 1 << behindAside.ordinal();
+                }
+                // Ahead beside the tile, reached diagonally and then straight from the tile before it
+                if (current[aheadAside.ordinal()] && (!previous[aheadAside.ordinal()]
+                    || !isSideTraversable(x, y, z, x + sx, y + sy, direction))) {
+                    forced |= 1 << aheadAside.ordinal();
+                }
+            }
+        } else {
+            // Each component of a diagonal move, e.g. east and north of a move north-east
+            for (int component = 0; component < 2; component++) {
+                final OrdinalDirection along = component == 0 ? direction(direction.x, 0) : direction(0, direction.y);
+                final OrdinalDirection other = component == 0 ? direction(0, direction.y) : direction(direction.x, 0);
+                final OrdinalDirection back = direction(-other.x, -other.y);
+                final OrdinalDirection backAlong = direction(along.x - other.x, along.y - other.y);
+
+                // Back along the other component, which is beside the tile before it
+                if (current[back.ordinal()] && !previous[along.ordinal()]) {
+                    forced |= 1 << back.ordinal();
+                }
+                // Two tiles along this component from the tile before it
+                if (current[backAlong.ordinal()] && (!previous[along.ordinal()]
+                    || !isSideTraversable(x, y, z, px + along.x, py + along.y, along))) {
+                    forced |= 1 << backAlong.ordinal();
+                }
+            }
+        }
+        return forced;
+    }
+
+    /** Returns whether the search has to stop at a tile for another reason than its neighbours */
+    private boolean isSpecial(int packedPoint, int x, int y, int z) {
+        if (targets.get(packedPoint)) {
+            return true;
+        }
+        final TileLayer origins = config.getTransportOrigins();
+        if (origins.get(packedPoint) || origins.get(x - 1, y, z) || origins.get(x + 1, y, z)
+            || origins.get(x, y - 1, z) || origins.get(x, y + 1, z)) {
+            return true;
+        }
+        return !config.isBankVisited() && config.getDestinationLayer("bank").get(packedPoint);
+    }
+
+    /**
+     * Returns whether a tile beside the current tile can be walked from in a direction. A diagonal move from a tile
+     * that is not blocked can only be walked if the moves around its corner can, which include this move, so only
+     * blocked tiles have to look it up.
+     */
+    private boolean isSideTraversable(int x, int y, int z, int sideX, int sideY, OrdinalDirection direction) {
+        if (!map.isBlocked(x, y, z)) {
+            return true;
+        }
+        copyTraversable(sideX, sideY, z, side);
+        return side[direction.ordinal()];
+    }
+
+    private void copyTraversable(int x, int y, int z, boolean[] moves) {
+        System.arraycopy(map.getTraversable(x, y, z), 0, moves, 0, 8);
+    }
+
+    static OrdinalDirection direction(int x, int y) {
+        return BY_OFFSET[(x + 1) * 3 + y + 1];
+    }
+}
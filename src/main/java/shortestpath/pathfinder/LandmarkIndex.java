@@ -0,0 +1,110 @@
+package shortestpath.pathfinder;
+
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import shortestpath.WorldPointUtil;
+
+/**
+ * Keeps the {@link Landmarks} of the collision map and its transports, which guide searches towards their targets.
+ * <p>
+ * The landmarks are computed on the background threads over the usable transports, once a search with landmark guidance
+ * asks for them. Bounds over a graph with more transports still hold, so transports that stop being usable keep the
+ * landmarks valid; only when a usable transport is missing from the landmark graph, or is cheaper than it, are the
+ * landmarks computed again.
+ */
+@Slf4j
+public class LandmarkIndex {
+    /** Hubs spread over the map, mostly towards its edges where landmarks give the tightest bounds */
+    private static final int[] HUBS = {
+        WorldPointUtil.packWorldPoint(3164, 3484, 0), // Grand Exchange
+        WorldPointUtil.packWorldPoint(3222, 3218, 0), // Lumbridge
+        WorldPointUtil.packWorldPoint(2662, 3305, 0), // East Ardougne
+        WorldPointUtil.packWorldPoint(2341, 3171, 0), // Lletya
+        WorldPointUtil.packWorldPoint(2852, 2955, 0), // Shilo Village
+        WorldPointUtil.packWorldPoint(3428, 2890, 0), // Nardah
+        WorldPointUtil.packWorldPoint(3687, 3468, 0), // Port Phasmatys
+        WorldPointUtil.packWorldPoint(3040, 3945, 0), // Deep Wilderness
+        WorldPointUtil.packWorldPoint(1639, 3673, 0), // Kourend Castle
+        WorldPointUtil.packWorldPoint(1680, 3136, 0), // Civitas illa Fortis
+        WorldPointUtil.packWorldPoint(2536, 3864, 0), // Miscellania
+        WorldPointUtil.packWorldPoint(3724, 3808, 0), // Fossil Island
+    };
+
+    private final PathfinderConfig config;
+    private volatile Landmarks landmarks;
+    /** Whether the landmarks hold for the usable transports */
+    private volatile boolean covered;
+    private final BackgroundTasks tasks;
+    private int[] transports = new int[0];
+
+    public LandmarkIndex(PathfinderConfig config) {
+        this.config = config;
+        tasks = new BackgroundTasks(config.getBackground(), this, 1);
+    }
+
+    /**
+     * Returns the lower bounds towards a set of targets, or {@code null} if the landmarks are not computed yet for
+     * the usable transports, in which case their computation is scheduled.
+     *
+     * @param targets the targets of a search
+     */
+    public Landmarks.Heuristic towards(Set<Integer> targets) {
+        final Landmarks current = landmarks;
+        if (current == null || !covered) {
+            scheduleLandmarks();
+            return null;
+        }
+        return current.towards(targets);
+    }
+
+    /**
+     * Updates the transports of the landmark graph.
+     *
+     * @param transports usable transports with an origin as (origin, destination, cost) triples
+     */
+    public synchronized void setTransports(int[] transports) {
+        this.transports = transports;
+        covered = landmarks != null && landmarks.covers(transports);
+    }
+
+    /** Stops computing the landmarks and drops them, since they take up a lot of memory */
+    public synchronized void clear() {
+        tasks.cancel();
+        landmarks = null;
+        covered = false;
+    }
+
+    /** Computes the landmarks for the usable transports on the calling thread */
+    void computeNow() {
+        final int[] graphTransports;
+        synchronized (this) {
+            graphTransports = transports;
+        }
+        Landmarks computed = computeLandmarks(graphTransports);
+        if (computed != null) {
+            publish(computed);
+        }
+    }
+
+    private synchronized void scheduleLandmarks() {
+        if (landmarks == null || !covered) {
+            final int[] graphTransports = transports;
+            tasks.schedule(Landmarks.class, () -> computeLandmarks(graphTransports), this::publish);
+        }
+    }
+
+    private Landmarks computeLandmarks(int[] graphTransports) {
+        long startNanos = System.nanoTime();
+        Landmarks computed = Landmarks.compute(config.getMap(), HUBS, graphTransports);
+        if (computed != null) {
+            log.debug("Computed {} landmarks in {} ms using {} KiB", computed.size(),
+                (System.nanoTime() - startNanos) / 1_000_000, computed.getMemoryBytes() / 1024);
+        }
+        return computed;
+    }
+
+    private synchronized void publish(Landmarks computed) {
+        landmarks = computed;
+        covered = computed.covers(transports);
+    }
+}
@@ -0,0 +1,472 @@
+package shortestpath.pathfinder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import shortestpath.PrimitiveIntList;
+import shortestpath.WorldPointUtil;
+
+import static net.runelite.api.Constants.REGION_SIZE;
+
+/**
+ * Lower bounds on the number of ticks between any two tiles, from the distances to and from a few landmark tiles
+ * and the triangle inequality (ALT).
+ * <p>
+ * The distances are computed over walking and a set of transports with an origin. Removing transports from that graph
+ * only makes the distances longer, so the bounds hold for every search that cannot teleport after its start, as long
+ * as the landmark graph {@link #covers} its usable transports.
+ * <p>
+ * Instead of a distance per tile, only the lowest and highest distance of each chunk of
+ * {@link #CHUNK_SIZE}x{@link #CHUNK_SIZE} tiles is kept. This costs the bounds up to the size of a chunk in
+ * precision, but keeps the table at 8 bytes per landmark per chunk. The highest distance only counts the tiles that
+ * were reached; the unblocked tiles that were not, such as closed off pockets, are kept as a bitset per region plane,
+ * which is only allocated for the few planes that have them.
+ */
+public class Landmarks {
+    static final int CHUNK_SIZE = 16;
+    private static final int CHUNKS_PER_SIDE = REGION_SIZE / CHUNK_SIZE;
+    private static final int CHUNKS = CHUNKS_PER_SIDE * CHUNKS_PER_SIDE;
+    /** Chunk distance for "unknown"; a lowest distance that is unknown had no reached tiles */
+    private static final char UNKNOWN = Character.MAX_VALUE;
+    private static final int MAX_COST = UNKNOWN - 1;
+    private static final int PLANE_WORDS = REGION_SIZE * REGION_SIZE / Long.SIZE;
+    private static final OrdinalDirection[] ORDINAL_VALUES = OrdinalDirection.values();
+    private static final OrdinalDirection[] CARDINAL_VALUES = {
+        OrdinalDirection.WEST, OrdinalDirection.EAST, OrdinalDirection.SOUTH, OrdinalDirection.NORTH};
+
+    private final CollisionMap map;
+    private final SplitFlagMap.RegionExtent regionExtents;
+    private final int widthInclusive;
+    private final byte[] regionPlanes;
+    /** Index of the first plane of every region in the chunk tables, or -1 for regions without collision data */
+    private final int[] planeOffsets;
+    private final int[] landmarks;
+    // Chunk distances from and to the landmarks, indexed by (plane * CHUNKS + chunk) * landmarks + landmark
+    private final char[] fromMin;
+    private final char[] fromMax;
+    private final char[] toMin;
+    private final char[] toMax;
+    // Unblocked tiles that are not reached from or do not reach each landmark, indexed by [landmark][plane], with a
+    // bit per tile or null if every unblocked tile of the plane is reached
+    private final long[][][] unreachedFrom;
+    private final long[][][] unreachedTo;
+    /** A bit per chunk with unreached tiles for any landmark, whose bounds are not the same for all its tiles */
+    private final long[] partialChunks;
+    /** The transports of the graph as sorted (origin << 32 | destination) keys, with their lowest costs */
+    private final long[] transportKeys;
+    private final int[] transportCosts;
+
+    private Landmarks(CollisionMap map, int[] landmarks, long[] transportKeys, int[] transportCosts) {
+        this.map = map;
+        this.landmarks = landmarks;
+        this.transportKeys = transportKeys;
+        this.transportCosts = transportCosts;
+        regionExtents = SplitFlagMap.getRegionExtents();
+        widthInclusive = regionExtents.getWidth() + 1;
+        regionPlanes = map.getPlanes();
+        planeOffsets = new int[regionPlanes.length];
+        int planes = 0;
+        for (int i = 0; i < regionPlanes.length; i++) {
+            planeOffsets[i] = regionPlanes[i] > 0 ? planes : -1;
+            planes += regionPlanes[i];
+        }
+        final int size = planes * CHUNKS * landmarks.length;
+        fromMin = new char[size];
+        fromMax = new char[size];
+        toMin = new char[size];
+        toMax = new char[size];
+        unreachedFrom = new long[landmarks.length][planes][];
+        unreachedTo = new long[landmarks.length][planes][];
+        partialChunks = new long[(planes * CHUNKS + Long.SIZE - 1) / Long.SIZE];
+    }
+
+    /** Returns the number of landmarks */
+    public int size() {
+        return landmarks.length;
+    }
+
+    /** Returns the size of the chunk tables and unreached tiles in bytes */
+    public long getMemoryBytes() {
+        final Set<long[]> bitsets = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int l = 0; l < landmarks.length; l++) {
+            for (long[] bitset : unreachedFrom[l]) {
+                if (bitset != null) {
+                    bitsets.add(bitset);
+                }
+            }
+            for (long[] bitset : unreachedTo[l]) {
+                if (bitset != null) {
+                    bitsets.add(bitset);
+                }
+            }
+        }
+        return 4L * Character.BYTES * fromMin.length + (long) bitsets.size() * PLANE_WORDS * Long.BYTES
+            + (long) partialChunks.length * Long.BYTES;
+    }
+
+    /**
+     * Returns whether the bounds hold for a set of transports, which is the case when the landmark graph has each
+     * of them at the same or a lower cost.
+     *
+     * @param transports transports with an origin as (origin, destination, cost) triples
+     */
+    public boolean covers(int[] transports) {
+        for (int i = 0; i < transports.length; i += 3) {
+            final int index = Arrays.binarySearch(transportKeys, key(transports[i], transports[i + 1]));
+            if (index < 0 || transportCosts[index] > transports[i + 2]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Prepares the lower bounds towards a set of targets.
+     *
+     * @param targets the targets of a search
+     * @return the bounds, which are 0 everywhere if any of the targets has no collision data
+     */
+    public Heuristic towards(Set<Integer> targets) {
+        final int[] targetOffsets = new int[targets.size()];
+        final boolean[] targetReaches = new boolean[targets.size() * landmarks.length];
+        int t = 0;
+        for (int target : targets) {
+            final int planeIndex = getPlaneIndex(target);
+            if (planeIndex < 0) {
+                return new Heuristic(new int[0], new boolean[0]); // Nothing is known about the way to this target
+            }
+            targetOffsets[t] = getOffset(planeIndex, target);
+            final boolean blocked = isBlocked(map, target);
+            for (int l = 0; l < landmarks.length; l++) {
+                // Blocked targets are not in the unreached tiles, so whether they reach the landmark is unknown
+                targetReaches[t * landmarks.length + l] = !blocked && !isSet(unreachedTo[l][planeIndex], target);
+            }
+            t++;
+        }
+        return new Heuristic(targetOffsets, targetReaches);
+    }
+
+    /** Lower bounds on the cost from any tile to the nearest of a set of targets */
+    public class Heuristic {
+        private final int[] targetOffsets;
+        /** Whether each target reaches each landmark, indexed by target * landmarks + landmark */
+        private final boolean[] targetReaches;
+        // The bound of a chunk that every landmark reaches all of is the same for all its tiles, and consecutive
+        // lookups are mostly in the same chunk
+        private int lastOffset = -1;
+        private int lastEstimate;
+
+        private Heuristic(int[] targetOffsets, boolean[] targetReaches) {
+            this.targetOffsets = targetOffsets;
+            this.targetReaches = targetReaches;
+        }
+
+        /**
+         * Returns a lower bound on the number of ticks from a tile to the nearest target, or {@code Integer.MAX_VALUE}
+         * if none of the targets can be reached from the tile.
+         */
+        public int estimate(int packedPoint) {
+            if (targetOffsets.length == 0) {
+                return 0;
+            }
+            final int planeIndex = getPlaneIndex(packedPoint);
+            if (planeIndex < 0 || isBlocked(map, packedPoint)) {
+                return 0; // A blocked tile may have been reached by a teleport that is not part of the landmark graph
+            }
+            final int offset = getOffset(planeIndex, packedPoint);
+            if (offset == lastOffset) {
+                return lastEstimate;
+            }
+
+            int nearest = Integer.MAX_VALUE;
+            for (int t = 0; t < targetOffsets.length && nearest > 0; t++) {
+                final int targetOffset = targetOffsets[t];
+                int bound = 0;
+                for (int l = 0; l < landmarks.length; l++) {
+                    // d(v, t) >= d(L, t) - d(L, v), as long as the landmark reaches the tile
+                    final int targetFrom = fromMin[targetOffset + l];
+                    final int pointFrom = fromMax[offset + l];
+                    if (pointFrom != UNKNOWN && !isSet(unreachedFrom[l][planeIndex], packedPoint)) {
+                        if (targetFrom == UNKNOWN) {
+                            bound = Integer.MAX_VALUE; // The landmark reaches the tile but not the target
+                            break;
+                        }
+                        bound = Math.max(bound, targetFrom - pointFrom);
+                    }
+                    // d(v, t) >= d(v, L) - d(t, L), as long as the target reaches the landmark
+                    if (targetReaches[t * landmarks.length + l]) {
+                        final int pointTo = toMin[offset + l];
+                        if (pointTo == UNKNOWN) {
+                            bound = Integer.MAX_VALUE; // The target reaches the landmark but the tile does not
+                            break;
+                        }
+                        bound = Math.max(bound, pointTo - toMax[targetOffset + l]);
+                    }
+                }
+                nearest = Math.min(nearest, bound);
+            }
+            final int chunkIndex = offset / landmarks.length;
+            if ((partialChunks[chunkIndex >>> 6] & (1L << chunkIndex)) == 0) {
+                lastOffset = offset;
+                lastEstimate = nearest;
+            }
+            return nearest;
+        }
+    }
+
+    /**
+     * Computes the distances from and to every landmark. This takes a while and is meant to run in the background;
+     * it returns {@code null} if the thread is interrupted.
+     *
+     * @param map the collision map, which must not be shared with another thread
+     * @param landmarks the landmark tiles; blocked tiles and tiles without collision data are left out
+     * @param transports transports with an origin as (origin, destination, cost) triples
+     */
+    public static Landmarks compute(CollisionMap map, int[] landmarks, int[] transports) {
+        final List<long[]> edges = new ArrayList<>(transports.length / 3);
+        for (int i = 0; i < transports.length; i += 3) {
+            edges.add(new long[]{key(transports[i], transports[i + 1]), transports[i + 2]});
+        }
+        edges.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        final long[] keys = new long[edges.size()];
+        final int[] costs = new int[edges.size()];
+        int unique = 0;
+        for (long[] edge : edges) {
+            if (unique == 0 || keys[unique - 1] != edge[0]) {
+                keys[unique] = edge[0];
+                costs[unique++] = (int) edge[1]; // The lowest cost comes first
+            }
+        }
+
+        final int[] usableLandmarks = Arrays.stream(landmarks).filter(landmark -> !isBlocked(map, landmark)).toArray();
+
+        final Landmarks result = new Landmarks(map, usableLandmarks, Arrays.copyOf(keys, unique),
+            Arrays.copyOf(costs, unique));
+        final TransportGraph graph = new TransportGraph(transports);
+        for (int l = 0; l < usableLandmarks.length; l++) {
+            final char[][] from = result.search(usableLandmarks[l], graph, true);
+            if (from == null) {
+                return null;
+            }
+            result.summarise(from, l, result.fromMin, result.fromMax, result.unreachedFrom);
+
+            final char[][] to = result.search(usableLandmarks[l], graph, false);
+            if (to == null) {
+                return null;
+            }
+            result.summarise(to, l, result.toMin, result.toMax, result.unreachedTo);
+        }
+        return result;
+    }
+
+    /**
+     * Runs a search from or to a landmark with a bucket per cost, and returns the distances as cost + 1 per tile,
+     * region by region, with 0 for tiles that were not reached.
+     */
+    private char[][] search(int landmark, TransportGraph graph, boolean forward) {
+        final char[][] regions = new char[regionPlanes.length][];
+        final List<PrimitiveIntList> buckets = new ArrayList<>();
+        relax(regions, buckets, landmark, 0);
+
+        for (int cost = 0; cost < buckets.size(); cost++) {
+            final PrimitiveIntList bucket = buckets.get(cost);
+            if (bucket == null) {
+                continue;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+
+            for (int i = 0; i < bucket.size(); i++) {
+                final int packedPoint = bucket.get(i);
+                if (get(regions, packedPoint) != cost + 1) {
+                    continue; // Reached again with a lower cost after it was queued
+                }
+
+                final int x = WorldPointUtil.unpackWorldX(packedPoint);
+                final int y = WorldPointUtil.unpackWorldY(packedPoint);
+                final int z = WorldPointUtil.unpackWorldPlane(packedPoint);
+                for (OrdinalDirection direction : ORDINAL_VALUES) {
+                    if (forward) {
+                        if (map.isTraversable(x, y, z, direction)) {
+                            relax(regions, buckets, WorldPointUtil.packWorldPoint(x + direction.x, y + direction.y, z), cost + 1);
+                        }
+                    } else if (map.isTraversable(x - direction.x, y - direction.y, z, direction)) {
+                        relax(regions, buckets, WorldPointUtil.packWorldPoint(x - direction.x, y - direction.y, z), cost + 1);
+                    }
+                }
+
+                // Transports starting from a blocked tile are entered from the tiles next to it
+                for (OrdinalDirection direction : CARDINAL_VALUES) {
+                    if (forward) {
+                        final int next = WorldPointUtil.packWorldPoint(x + direction.x, y + direction.y, z);
+                        if (graph.origins.get(next) && isBlocked(map, next) && !map.isTraversable(x, y, z, direction)) {
+                            relax(regions, buckets, next, cost + 1);
+                        }
+                    } else if (graph.origins.get(packedPoint) && map.isBlocked(x, y, z)) {
+                        relax(regions, buckets, WorldPointUtil.packWorldPoint(x - direction.x, y - direction.y, z), cost + 1);
+                    }
+                }
+
+                final PrimitiveIntList transports = (forward ? graph.byOrigin : graph.byDestination).get(packedPoint);
+                if (transports != null) {
+                    for (int j = 0; j < transports.size(); j += 2) {
+                        relax(regions, buckets, transports.get(j), cost + transports.get(j + 1));
+                    }
+                }
+            }
+            buckets.set(cost, null);
+        }
+        return regions;
+    }
+
+    private void relax(char[][] regions, List<PrimitiveIntList> buckets, int packedPoint, int cost) {
+        if (cost >= MAX_COST) {
+            return;
+        }
+        final int regionIndex = getRegionIndex(packedPoint);
+        if (regionIndex < 0 || WorldPointUtil.unpackWorldPlane(packedPoint) >= regionPlanes[regionIndex]) {
+            return;
+        }
+
+        char[] region = regions[regionIndex];
+        if (region == null) {
+            region = new char[regionPlanes[regionIndex] * REGION_SIZE * REGION_SIZE];
+            regions[regionIndex] = region;
+        }
+        final int tileIndex = getTileIndex(packedPoint);
+        if (region[tileIndex] != 0 && region[tileIndex] <= cost + 1) {
+            return;
+        }
+
+        region[tileIndex] = (char) (cost + 1);
+        while (buckets.size() <= cost) {
+            buckets.add(null);
+        }
+        if (buckets.get(cost) == null) {
+            buckets.set(cost, new PrimitiveIntList());
+        }
+        buckets.get(cost).add(packedPoint);
+    }
+
+    /**
+     * Keeps the lowest and highest distance of each chunk, and the unblocked tiles that were not reached. Blocked
+     * tiles can only be stood on after a transport, so they are left out unless they were reached. Bitsets that are
+     * the same as the previous landmark's are shared, and chunks with both reached and unreached tiles are marked as
+     * partial.
+     */
+    private void summarise(char[][] regions, int landmark, char[] min, char[] max, long[][][] unreached) {
+        for (int regionIndex = 0; regionIndex < regionPlanes.length; regionIndex++) {
+            final int planeOffset = planeOffsets[regionIndex];
+            if (planeOffset < 0) {
+                continue;
+            }
+            final char[] region = regions[regionIndex];
+            final int baseX = (regionIndex % widthInclusive + regionExtents.getMinX()) * REGION_SIZE;
+            final int baseY = (regionIndex / widthInclusive + regionExtents.getMinY()) * REGION_SIZE;
+            for (int z = 0; z < regionPlanes[regionIndex]; z++) {
+                long[] unreachedTiles = null;
+                for (int chunk = 0; chunk < CHUNKS; chunk++) {
+                    final int chunkX = (chunk % CHUNKS_PER_SIDE) * CHUNK_SIZE;
+                    final int chunkY = (chunk / CHUNKS_PER_SIDE) * CHUNK_SIZE;
+                    int lowest = UNKNOWN;
+                    int highest = -1;
+                    boolean partial = false;
+                    for (int dy = 0; dy < CHUNK_SIZE; dy++) {
+                        for (int dx = 0; dx < CHUNK_SIZE; dx++) {
+                            final int x = chunkX + dx;
+                            final int y = chunkY + dy;
+                            final int value = region == null ? 0 : region[(z * REGION_SIZE + y) * REGION_SIZE + x];
+                            if (value != 0) {
+                                lowest = Math.min(lowest, value - 1);
+                                highest = Math.max(highest, value - 1);
+                            } else if (!map.isBlocked(baseX + x, baseY + y, z)) {
+                                partial = true;
+                                if (unreachedTiles == null) {
+                                    unreachedTiles = new long[PLANE_WORDS];
+                                }
+                                final int bit = y * REGION_SIZE + x;
+                                unreachedTiles[bit >>> 6] |= 1L << bit;
+                            }
+                        }
+                    }
+                    final int chunkIndex = (planeOffset + z) * CHUNKS + chunk;
+                    if (lowest != UNKNOWN && partial) {
+                        partialChunks[chunkIndex >>> 6] |= 1L << chunkIndex;
+                    }
+                    final int index = chunkIndex * landmarks.length + landmark;
+                    min[index] = (char) lowest;
+                    max[index] = (char) (highest < 0 ? UNKNOWN : highest);
+                }
+                final long[] previous = landmark > 0 ? unreached[landmark - 1][planeOffset + z] : null;
+                unreached[landmark][planeOffset + z] = previous != null && Arrays.equals(previous, unreachedTiles)
+                    ? previous : unreachedTiles;
+            }
+        }
+    }
+
+    /** Returns the index of a tile's plane in the chunk tables, or -1 without collision data */
+    private int getPlaneIndex(int packedPoint) {
+        final int regionIndex = getRegionIndex(packedPoint);
+        final int plane = WorldPointUtil.unpackWorldPlane(packedPoint);
+        if (regionIndex < 0 || planeOffsets[regionIndex] < 0 || plane >= regionPlanes[regionIndex]) {
+            return -1;
+        }
+        return planeOffsets[regionIndex] + plane;
+    }
+
+    /** Returns the index of the first landmark of a tile's chunk in the chunk tables */
+    private int getOffset(int planeIndex, int packedPoint) {
+        final int x = WorldPointUtil.unpackWorldX(packedPoint) % REGION_SIZE;
+        final int y = WorldPointUtil.unpackWorldY(packedPoint) % REGION_SIZE;
+        final int chunk = (y / CHUNK_SIZE) * CHUNKS_PER_SIDE + x / CHUNK_SIZE;
+        return (planeIndex * CHUNKS + chunk) * landmarks.length;
+    }
+
+    private static boolean isSet(long[] unreachedTiles, int packedPoint) {
+        if (unreachedTiles == null) {
+            return false;
+        }
+        final int bit = (WorldPointUtil.unpackWorldY(packedPoint) % REGION_SIZE) * REGION_SIZE
+            + WorldPointUtil.unpackWorldX(packedPoint) % REGION_SIZE;
+        return (unreachedTiles[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    private int get(char[][] regions, int packedPoint) {
+        final int regionIndex = getRegionIndex(packedPoint);
+        if (regionIndex < 0 || regions[regionIndex] == null) {
+            return 0;
+        }
+        return regions[regionIndex][getTileIndex(packedPoint)];
+    }
+
+    /** Returns the index of a tile's region, or -1 if it is outside of the collision map */
+    private int getRegionIndex(int packedPoint) {
+        final int regionX = WorldPointUtil.unpackWorldX(packedPoint) / REGION_SIZE - regionExtents.getMinX();
+        final int regionY = WorldPointUtil.unpackWorldY(packedPoint) / REGION_SIZE - regionExtents.getMinY();
+        if (regionX < 0 || regionX >= widthInclusive || regionY < 0) {
+            return -1;
+        }
+        final int regionIndex = regionX + regionY * widthInclusive;
+        return regionIndex < regionPlanes.length ? regionIndex : -1;
+    }
+
+    private static int getTileIndex(int packedPoint) {
+        final int x = WorldPointUtil.unpackWorldX(packedPoint) % REGION_SIZE;
+        final int y = WorldPointUtil.unpackWorldY(packedPoint) % REGION_SIZE;
+        return (WorldPointUtil.unpackWorldPlane(packedPoint) * REGION_SIZE + y) * REGION_SIZE + x;
+    }
+
+    private static boolean isBlocked(CollisionMap map, int packedPoint) {
+        return map.isBlocked(WorldPointUtil.unpackWorldX(packedPoint), WorldPointUtil.unpackWorldY(packedPoint),
+            WorldPointUtil.unpackWorldPlane(packedPoint));
+    }
+
+    private static long key(int origin, int destination) {
+        return ((long) origin << 32) | (destination & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,81 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of nodes by a {@code long} priority, which avoids a comparator call per comparison and lets the
+ * same node be queued with a priority that is not stored in the node itself.
+ */
+class NodeQueue {
+    private long[] priorities;
+    private Node[] nodes;
+    private int size;
+
+    NodeQueue(int initialCapacity) {
+        priorities = new long[initialCapacity];
+        nodes = new Node[initialCapacity];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void add(Node node, long priority) {
+        if (size == nodes.length) {
+            priorities = Arrays.copyOf(priorities, size * 2);
+            nodes = Arrays.copyOf(nodes, size * 2);
+        }
+
+        int i = size++;
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (priorities[parent] <= priority) {
+                break;
+            }
+            priorities[i] = priorities[parent];
+            nodes[i] = nodes[parent];
+            i = parent;
+        }
+        priorities[i] = priority;
+        nodes[i] = node;
+    }
+
+    /** Removes and returns the node with the lowest priority, or {@code null} if the queue is empty */
+    Node poll() {
+        if (size == 0) {
+            return null;
+        }
+
+        final Node result = nodes[0];
+        final long priority = priorities[--size];
+        final Node node = nodes[size];
+        nodes[size] = null;
+
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && priorities[child + 1] < priorities[child]) {
+                child++;
+            }
+            if (priority <= priorities[child]) {
+                break;
+            }
+            priorities[i] = priorities[child];
+            nodes[i] = nodes[child];
+            i = child;
+        }
+        if (size > 0) {
+            priorities[i] = priority;
+            nodes[i] = node;
+        }
+        return result;
+    }
+
+    void clear() {
+        Arrays.fill(nodes, 0, size, null);
+        size = 0;
+    }
+}
@@ -0,0 +1,132 @@
+package shortestpath.pathfinder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import shortestpath.WorldPointUtil;
+import shortestpath.transport.Transport;
+
+/**
+ * Expands the levels of large walking searches on several threads.
+ * <p>
+ * Walking moves all cost one tick, so a plain search takes the nodes of its boundary one level of equal cost at a
+ * time, and the tiles of the next level do not depend on the order the nodes of a level are expanded in. The level
+ * is split into chunks that are expanded on the background threads. Each thread uses its own {@link CollisionMap} and
+ * neighbour list instead of the shared one of {@link CollisionMap#getNeighbors}, and the threads claim the tiles of
+ * the next level with compare-and-set on the rows of {@link VisitedTiles}. Which node a tile is reached from can
+ * differ between runs, but its cost cannot. Transports have costs of their own and are left to the search thread.
+ */
+public class ParallelFrontier {
+    /** Smaller levels are expanded faster on the search thread than they can be handed to the other threads */
+    static final int MIN_LEVEL_SIZE = 2048;
+    /** The fewest nodes a thread is given at once */
+    private static final int MIN_CHUNK_SIZE = 256;
+    private static final OrdinalDirection[] ORDINAL_VALUES = OrdinalDirection.values();
+
+    private final PathfinderConfig config;
+
+    public ParallelFrontier(PathfinderConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Expands nodes of equal cost into their walking neighbours that are not visited yet, and sets those visited.
+     * The regions around the nodes are prepared in the visited tiles first.
+     *
+     * @param level the nodes to expand
+     * @param count the number of nodes of the level to expand
+     * @param visited the visited tiles of the search
+     * @param targetInWilderness whether the search may walk into the wilderness when it is avoided
+     * @param threads the number of threads to expand the level on
+     * @return the neighbours, grouped by the chunk of nodes they were found from, or {@code null} if the search
+     *         thread is interrupted
+     */
+    List<Node> expand(Node[] level, int count, VisitedTiles visited, boolean targetInWilderness, int threads) {
+        for (int i = 0; i < count; i++) {
+            final int x = WorldPointUtil.unpackWorldX(level[i].packedPosition);
+            final int y = WorldPointUtil.unpackWorldY(level[i].packedPosition);
+            visited.prepare(x - 1, y - 1);
+            visited.prepare(x + 1, y - 1);
+            visited.prepare(x - 1, y + 1);
+            visited.prepare(x + 1, y + 1);
+        }
+
+        // Each thread takes the next chunk until none are left, so that threads with cheap chunks take more of them
+        final int chunks = Math.max(1, Math.min(threads * 4, count / MIN_CHUNK_SIZE));
+        @SuppressWarnings("unchecked")
+        final List<Node>[] results = new List[chunks];
+        final AtomicInteger nextChunk = new AtomicInteger();
+        final List<Callable<Void>> tasks = new ArrayList<>(threads);
+        for (int thread = 0; thread < Math.min(threads, chunks); thread++) {
+            tasks.add(() -> {
+                for (int chunk = nextChunk.getAndIncrement(); chunk < chunks; chunk = nextChunk.getAndIncrement()) {
+                    final int from = (int) ((long) count * chunk / chunks);
+                    final int to = (int) ((long) count * (chunk + 1) / chunks);
+                    results[chunk] = expandChunk(level, from, to, visited, targetInWilderness);
+                }
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> task : config.getBackground().invokeAll(tasks)) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+
+        final List<Node> neighbors = new ArrayList<>(count * 2);
+        for (List<Node> result : results) {
+            neighbors.addAll(result);
+        }
+        return neighbors;
+    }
+
+    private List<Node> expandChunk(Node[] level, int from, int to, VisitedTiles visited, boolean targetInWilderness) {
+        final CollisionMap map = config.getMap();
+        final List<Node> neighbors = new ArrayList<>((to - from) * 2);
+        for (int i = from; i < to; i++) {
+            final Node node = level[i];
+            final int x = WorldPointUtil.unpackWorldX(node.packedPosition);
+            final int y = WorldPointUtil.unpackWorldY(node.packedPosition);
+            final int z = WorldPointUtil.unpackWorldPlane(node.packedPosition);
+            final boolean[] traversable = map.getTraversable(x, y, z);
+            for (int j = 0; j < traversable.length; j++) {
+                final OrdinalDirection d = ORDINAL_VALUES[j];
+                final int neighborPacked = WorldPointUtil.packWorldPoint(x + d.x, y + d.y, z);
+                if (traversable[j]) {
+                    claim(neighbors, node, neighborPacked, visited, targetInWilderness);
+                } else if (Math.abs(d.x + d.y) == 1 && map.isBlocked(x + d.x, y + d.y, z)) {
+                    // The transport starts from a blocked adjacent tile, e.g. fairy ring
+                    final Set<Transport> transports = config.getTransportsPacked().get(neighborPacked);
+                    if (transports == null) {
+                        continue;
+                    }
+                    for (Transport transport : transports) {
+                        if (transport.getOrigin() != Transport.UNDEFINED_ORIGIN) {
+                            claim(neighbors, node, transport.getOrigin(), visited, targetInWilderness);
+                        }
+                    }
+                }
+            }
+        }
+        return neighbors;
+    }
+
+    private void claim(List<Node> neighbors, Node node, int packedPoint, VisitedTiles visited,
+        boolean targetInWilderness) {
+        if (!config.avoidWilderness(node.packedPosition, packedPoint, targetInWilderness)
+            && visited.claim(WorldPointUtil.unpackWorldX(packedPoint), WorldPointUtil.unpackWorldY(packedPoint),
+            WorldPointUtil.unpackWorldPlane(packedPoint))) {
+            neighbors.add(new Node(packedPoint, node));
+        }
+    }
+}
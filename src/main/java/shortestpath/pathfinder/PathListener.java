@@ -0,0 +1,10 @@
+package shortestpath.pathfinder;
+
+/**
+ * Receives the paths a {@link Pathfinder} finds while it is searching. Listeners are called on the pathfinding
+ * thread, so they should hand the snapshot over to another thread instead of doing work of their own.
+ */
+@FunctionalInterface
+public interface PathListener {
+    void onPathUpdated(PathSnapshot snapshot);
+}
@@ -0,0 +1,64 @@
+package shortestpath.pathfinder;
+
+import lombok.Getter;
+import shortestpath.CompactPath;
+import shortestpath.PrimitiveIntList;
+
+/**
+ * The best path of a search at one point in time. Snapshots never change after they are published; a later snapshot
+ * of the same search has a higher version.
+ */
+public class PathSnapshot {
+    private final PrimitiveIntList path;
+    /** The last node of the path, or {@code null} if the path is empty */
+    private final Node last;
+    /** The cost of the path in ticks */
+    @Getter
+    private final int cost;
+    /** Counts up from 1 for every snapshot published by a search */
+    @Getter
+    private final int version;
+    /** Whether the search is done and this is its result */
+    @Getter
+    private final boolean finished;
+
+    PathSnapshot(Node last, int version, boolean finished) {
+        this.path = last == null ? new PrimitiveIntList(0) : last.getPath();
+        this.last = last;
+        this.cost = last == null ? 0 : last.cost;
+        this.version = version;
+        this.finished = finished;
+    }
+
+    public int size() {
+        return path.size();
+    }
+
+    public boolean isEmpty() {
+        return path.isEmpty();
+    }
+
+    /** Returns the packed point at an index of the path */
+    public int get(int index) {
+        return path.get(index);
+    }
+
+    /** Returns a copy of the path that the caller can change */
+    public PrimitiveIntList toList() {
+        PrimitiveIntList copy = new PrimitiveIntList(path.size());
+        for (int i = 0; i < path.size(); i++) {
+            copy.add(path.get(i));
+        }
+        return copy;
+    }
+
+    /** Returns the path with the cost at each of its tiles as a {@link CompactPath} */
+    public CompactPath toCompactPath() {
+        final int[] costs = new int[path.size()];
+        int i = costs.length;
+        for (Node node = last; node != null; node = node.previous) {
+            costs[--i] = node.cost;
+        }
+        return CompactPath.encode(path, costs);
+    }
+}
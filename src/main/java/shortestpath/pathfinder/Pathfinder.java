@@ -1,17 +1,32 @@
 package shortestpath.pathfinder;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import lombok.Getter;
+import lombok.Setter;
+import net.runelite.api.Constants;
+import shortestpath.PathSegments;
 import shortestpath.PrimitiveIntList;
 import shortestpath.ShortestPathPlugin;
 import shortestpath.WorldPointUtil;
+import shortestpath.transport.Transport;
 
 public class Pathfinder implements Runnable {
+    /** How far from an unreachable target to look for a reachable tile to search for instead */
+    private static final int MAX_SUBSTITUTE_DISTANCE = 128;
+    /** The most targets a landmark guided search estimates the distance to for every node */
+    private static final int MAX_LANDMARK_TARGETS = 8;
+    private static final OrdinalDirection[] ORDINAL_VALUES = OrdinalDirection.values();
+
     private PathfinderStats stats;
     private volatile boolean done = false;
     private volatile boolean cancelled = false;
@@ -23,18 +38,70 @@ public class Pathfinder implements Runnable {
 
     private final ShortestPathPlugin plugin;
     private final PathfinderConfig config;
-    private final CollisionMap map;
+    /** The collision map of the thread the search runs on */
+    private CollisionMap map;
     private final boolean targetInWilderness;
+    /** The config fingerprint that the route is cached with */
+    private final long fingerprint;
+    /** Whether teleports are not picked up from the bank on the way, so that later tiles may reuse the route */
+    private final boolean suffixReusable;
+    /** Index of the targets the search heads for; replaced by reachable tiles near them if they are unreachable */
+    private PointIndex targetIndex;
+    /** The tiles the search heads for: the targets, or reachable tiles next to them if they cannot be reached */
+    private Set<Integer> searchTargets;
 
     // Capacities should be enough to store all nodes without requiring the queue to grow
     // They were found by checking the max queue size
     private final Deque<Node> boundary = new ArrayDeque<>(4096);
     private final Queue<Node> pending = new PriorityQueue<>(256);
     private final VisitedTiles visited;
+    /** Lower bounds towards the targets when the search is guided by landmarks, and the queue and costs it uses */
+    private Landmarks.Heuristic heuristic;
+    private JumpPoints jumps;
+    private NodeQueue open;
+    private TileCosts costs;
+    /** The threads that expand the levels of large walking searches; 1 expands them on this thread */
+    private final int searchThreads;
+    private final ParallelFrontier frontier;
+    /** The nodes of the level that is expanded on the search threads */
+    private Node[] level;
 
     private PrimitiveIntList path = new PrimitiveIntList();
+    private PathSegments pathSegments = new PathSegments(path);
     private boolean pathNeedsUpdate = false;
     private Node bestLastNode;
+
+    private final List<PathListener> listeners = new CopyOnWriteArrayList<>();
+    /** The shortest time between two snapshots for the listeners, apart from the final one */
+    @Setter
+    private long snapshotIntervalNanos = Constants.GAME_TICK_LENGTH * 1_000_000L;
+    private long lastSnapshotNanos;
+    private int snapshotVersion;
+    /** Whether the best path changed since the last snapshot */
+    private boolean snapshotPending;
+    // How close the search has come to a target, and the budget that is refilled when it comes closer
+    private int bestDistance;
+    private long bestHeuristic;
+    private SearchBudget budget;
+    private boolean reachedTarget;
+    /**
+     * Whether the search stopped at a substitute for targets that cannot be reached. The route only comes close to
+     * the targets, so it neither counts as reaching them nor gets cached for them.
+     */
+    private boolean reachedSubstitute;
+    /**
+     * The strategy of a search that runs in a {@link SearchRace}, or {@code null} if the strategy follows the config.
+     * Searches in a race share the config, so they never change its teleports.
+     */
+    @Getter
+    private SearchRace.Strategy strategy;
+    /**
+     * Whether the search runs before its route is asked for, only to cache the route. It skips the cache lookup and
+     * posts no plugin messages.
+     */
+    @Getter
+    @Setter
+    private boolean speculative;
     /**
      * Teleportation transports are updated when this changes.
      * Can be either:
@@ -54,7 +121,12 @@ public class Pathfinder implements Runnable {
         this.targets = targets;
         visited = new VisitedTiles(map);
         targetInWilderness = WildernessChecker.isInWilderness(targets);
+        targetIndex = new PointIndex(targets);
         wildernessLevel = 31;
+        fingerprint = config.getFingerprint();
+        suffixReusable = config.isBankVisited();
+        searchThreads = config.getSearchThreads();
+        frontier = config.getFrontier();
     }
 
     public boolean isDone() {
@@ -65,6 +137,19 @@ public class Pathfinder implements Runnable {
         cancelled = true;
     }
 
+    /**
+     * Adds a listener that is given the best path found so far while the search runs, at most once every
+     * {@link #setSnapshotIntervalNanos(long) snapshot interval}, and the final path when the search is done.
+     * Cancelled searches do not publish a final path.
+     */
+    public void addPathListener(PathListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removePathListener(PathListener listener) {
+        listeners.remove(listener);
+    }
+
     public PathfinderStats getStats() {
         if (stats.started && stats.ended) {
             return stats;
@@ -88,6 +173,20 @@ public class Pathfinder implements Runnable {
         return path;
     }
 
+    /**
+     * Returns the current path split into per-region segments for culling. The segments are rebuilt only when the
+     * path changes; use {@link PathSegments#getPath()} to get the path they belong to.
+     */
+    public PathSegments getPathSegments() {
+        PrimitiveIntList currentPath = getPath();
+        PathSegments segments = pathSegments; // For thread safety, read pathSegments once
+        if (segments.getPath() != currentPath) {
+            segments = new PathSegments(currentPath);
+            pathSegments = segments;
+        }
+        return segments;
+    }
+
     private void addNeighbors(Node node) {
         List<Node> nodes = map.getNeighbors(node, visited, config, wildernessLevel);
         for (int i = 0; i < nodes.size(); ++i) {
@@ -108,91 +207,649 @@ public class Pathfinder implements Runnable {
         }
     }
 
+    /**
+     * Queues the neighbours of a node by their cost plus the landmark bound on their remaining cost. Tiles are queued
+     * again when they are reached with a lower cost, since the chunked bounds are not consistent between tiles.
+     */
+    private void addGuidedNeighbors(Node node) {
+        List<Node> nodes = map.getNeighbors(node, visited, config, wildernessLevel);
+        for (int i = 0; i < nodes.size(); ++i) {
+            Node neighbor = nodes.get(i);
+            if (!config.avoidWilderness(node.packedPosition, neighbor.packedPosition, targetInWilderness)) {
+                enqueue(neighbor);
+            }
+        }
+    }
+
+    /**
+     * Queues the transports of a node and the jump points that can be walked to from it. The tiles that a jump runs
+     * over are filled in between the node and the jump point, so that the path and costs are the same as when
+     * walking tile by tile.
+     */
+    private void addJumpNeighbors(Node node) {
+        List<Node> nodes = map.getTransportNeighbors(node, visited, config, wildernessLevel);
+        for (int i = 0; i < nodes.size(); ++i) {
+            Node neighbor = nodes.get(i);
+            if (!config.avoidWilderness(node.packedPosition, neighbor.packedPosition, targetInWilderness)) {
+                enqueue(neighbor);
+            }
+        }
+
+        int directions = jumps.getDirections(node);
+        int x = WorldPointUtil.unpackWorldX(node.packedPosition);
+        int y = WorldPointUtil.unpackWorldY(node.packedPosition);
+        int z = WorldPointUtil.unpackWorldPlane(node.packedPosition);
+        for (OrdinalDirection direction : ORDINAL_VALUES) {
+            if ((directions & (1 << direction.ordinal())) == 0) {
+                continue;
+            }
+            int jumpPoint = jumps.jump(node.packedPosition, direction, wildernessLevel > 0);
+            if (jumpPoint == WorldPointUtil.UNDEFINED) {
+                continue;
+            }
+            int steps = WorldPointUtil.distanceBetween(node.packedPosition, jumpPoint);
+            if (node.cost + steps >= costs.get(jumpPoint)) {
+                continue;
+            }
+
+            Node next = node;
+            for (int step = 1; step <= steps; step++) {
+                next = new Node(WorldPointUtil.packWorldPoint(x + step * direction.x, y + step * direction.y, z), next);
+            }
+            enqueue(next);
+        }
+    }
+
+    /**
+     * Queues a node by its cost, plus the landmark bound on its remaining cost if there is one, unless its tile was
+     * already reached as cheaply.
+     */
+    private void enqueue(Node neighbor) {
+        if (neighbor.cost >= costs.get(neighbor.packedPosition)) {
+            return;
+        }
+
+        int estimate = heuristic != null ? heuristic.estimate(neighbor.packedPosition) : 0;
+        if (estimate == Integer.MAX_VALUE) {
+            return; // None of the targets can be reached from here
+        }
+
+        costs.set(neighbor.packedPosition, neighbor.cost);
+        // Ties are broken towards the node that has come further
+        open.add(neighbor, ((long) (neighbor.cost + estimate) << 32) | (Integer.MAX_VALUE - neighbor.cost));
+        if (neighbor instanceof TransportNode) {
+            ++stats.transportsChecked;
+        } else {
+            ++stats.nodesChecked;
+        }
+    }
+
+    /** Returns whether the search reached one of its targets, rather than the closest tile it found to them */
+    public boolean isTargetReached() {
+        return done && reachedTarget;
+    }
+
     @Override
     public void run() {
-        stats.start();
-        boundary.addFirst(new Node(start, null));
-
-        int bestDistance = Integer.MAX_VALUE;
-        long bestHeuristic = Integer.MAX_VALUE;
-        long cutoffDurationMillis = config.getCalculationCutoffMillis();
-        long cutoffTimeMillis = System.currentTimeMillis() + cutoffDurationMillis;
+        search();
+        if (strategy == null && !speculative) {
+            plugin.postPluginMessages();
+        }
+    }
 
-        while (!cancelled && (!boundary.isEmpty() || !pending.isEmpty())) {
-            Node node = boundary.peekFirst();
-            Node p = pending.peek();
+    private boolean canRace() {
+        return strategy == null && config.isRaceStrategies() && config.isBankVisited()
+            && !WildernessChecker.isInWilderness(start);
+    }
 
-            if (p != null && (node == null || p.cost < node.cost)) {
-                node = pending.poll();
-            } else {
-                node = boundary.removeFirst();
+    /**
+     * Races a search per strategy and takes the route and stats of the winner. The route is looked up and the
+     * targets are substituted once before the race, so the searches start searching right away.
+     * <p>
+     * Teleports only change during a search inside the wilderness or at the bank, so outside of those the teleports
+     * of the start are applied once and the searches share the config without changing it. The bank is visited
+     * already, so none of them changes it by visiting a bank either.
+     *
+     * @param searchTargets the tiles the searches head for
+     */
+    private void race(Set<Integer> searchTargets) {
+        wildernessLevel = 0;
+        config.refreshTeleports(start, wildernessLevel);
+
+        List<Pathfinder> racing = new ArrayList<>();
+        for (SearchRace.Strategy strategy : SearchRace.Strategy.values()) {
+            if (strategy == SearchRace.Strategy.LANDMARKS && !config.isUseLandmarks()) {
+                continue; // It would search exactly like walking
             }
+            Pathfinder search = new Pathfinder(plugin, config, start, targets);
+            search.strategy = strategy;
+            search.speculative = speculative;
+            search.searchTargets = searchTargets;
+            search.targetIndex = targetIndex;
+            search.stats.targetsUnreachable = stats.targetsUnreachable;
+            racing.add(search);
+        }
+        Pathfinder[] searches = racing.toArray(new Pathfinder[0]);
 
-            if (wildernessLevel > 0) {
-                // We don't need to remove teleports when going from 20 to 21 or higher,
-                // because the teleport is either used at the very start of the
-                // path or when going from 31 or higher to 30, or from 21 or higher to 20.
+        int winner = config.getRace().run(searches, () -> cancelled);
+        if (winner < 0 || cancelled) {
+            return;
+        }
+        Pathfinder search = searches[winner];
+        stats = search.stats;
+        bestLastNode = search.bestLastNode;
+        pathNeedsUpdate = true;
+        reachedTarget = search.reachedTarget;
+        reachedSubstitute = search.reachedSubstitute;
+        done = true;
+        publishSnapshot(true);
+    }
 
-                boolean update = false;
+    private void search() {
+        map = config.getMap();
+        stats.start();
+        boundary.addFirst(new Node(start, null));
 
-                // These are overlapping boundaries, so if the node isn't in level 30, it's in 0-29
-                // likewise, if the node isn't in level 20, it's in 0-19
-                if (wildernessLevel > 30 && !WildernessChecker.isInLevel30Wilderness(node.packedPosition)) {
-                    wildernessLevel = 30;
-                    update = true;
-                }
-                if (wildernessLevel > 20 && !WildernessChecker.isInLevel20Wilderness(node.packedPosition)) {
-                    wildernessLevel = 20;
-                    update = true;
-                }
-                if (wildernessLevel > 0 && !WildernessChecker.isInWilderness(node.packedPosition)) {
-                    wildernessLevel = 0;
-                    update = true;
-                }
-                if (update) {
-                    config.refreshTeleports(node.packedPosition, wildernessLevel);
+        // Searches in a race get the targets from the race, which has looked the route up already
+        Node knownRoute = strategy == null ? findKnownRoute() : null;
+        reachedTarget = knownRoute != null;
+        if (knownRoute != null) {
+            bestLastNode = knownRoute;
+            pathNeedsUpdate = true;
+            boundary.clear(); // Nothing left to search
+        } else {
+            if (strategy == null) {
+                searchTargets = substituteUnreachableTargets();
+                if (canRace()) {
+                    boundary.clear();
+                    race(searchTargets);
+                    return;
                 }
             }
+            if (strategy == null || strategy == SearchRace.Strategy.LANDMARKS) {
+                heuristic = getLandmarkHeuristic(searchTargets);
+            }
+            if (strategy == null ? config.isUseJumpPointSearch() : strategy == SearchRace.Strategy.JUMP_POINTS) {
+                jumps = new JumpPoints(map, config, TileLayer.builder().addAll(searchTargets).build(),
+                    targetInWilderness);
+            }
+            if (heuristic != null || jumps != null) {
+                boundary.clear();
+                open = new NodeQueue(4096);
+                costs = new TileCosts(map);
+                costs.set(start, 0);
+                open.add(new Node(start, null), 0);
+            }
+        }
 
-            if (targets.contains(node.packedPosition)) {
-                bestLastNode = node;
-                pathNeedsUpdate = true;
-                break;
+        bestDistance = Integer.MAX_VALUE;
+        bestHeuristic = Integer.MAX_VALUE;
+        budget = new SearchBudget(config.getCalculationCutoffMode(),
+            config.getCalculationCutoffMillis() * 1_000_000, config.getCalculationCutoffNodes());
+        budget.start();
+        lastSnapshotNanos = System.nanoTime();
+
+        while (!cancelled && (!boundary.isEmpty() || !pending.isEmpty() || (open != null && !open.isEmpty()))) {
+            if (canExpandLevel()) {
+                if (expandLevel()) {
+                    break;
+                }
+                continue;
             }
 
-            for (int target : targets) {
-                int distance = WorldPointUtil.distanceBetween(node.packedPosition, target);
-                long heuristic = distance + (long) WorldPointUtil.distanceBetween(node.packedPosition, target, 2);
-                if (heuristic < bestHeuristic || (heuristic <= bestHeuristic && distance < bestDistance)) {
-                    bestLastNode = node;
-                    pathNeedsUpdate = true;
-                    bestDistance = distance;
-                    bestHeuristic = heuristic;
-                    cutoffTimeMillis = System.currentTimeMillis() + cutoffDurationMillis;
+            Node node;
+            if (open != null) {
+                node = open.poll();
+                if (node.cost > costs.get(node.packedPosition)) {
+                    continue; // Reached again with a lower cost after it was queued
+                }
+            } else {
+                node = boundary.peekFirst();
+                Node p = pending.peek();
+
+                if (p != null && (node == null || p.cost < node.cost)) {
+                    node = pending.poll();
+                } else {
+                    node = boundary.removeFirst();
                 }
             }
 
-            if (System.currentTimeMillis() > cutoffTimeMillis) {
+            if (visit(node)) {
                 break;
             }
 
-            addNeighbors(node);
+            if (jumps != null) {
+                addJumpNeighbors(node);
+            } else if (heuristic != null) {
+                addGuidedNeighbors(node);
+            } else {
+                addNeighbors(node);
+            }
         }
 
         done = !cancelled;
+        stats.cutoffLimit = budget.getExhaustedLimit();
+        if (done && !reachedTarget && !reachedSubstitute && config.isBankVisited()) {
+            // Searched everything reachable or up to the cutoff, so the next search for unreachable targets can head
+            // for reachable tiles next to them instead
+            config.getReachability().scheduleComponents();
+        }
+        if (done && reachedTarget && !stats.cached) {
+            config.getRoutes().put(start, targets, fingerprint, bestLastNode, suffixReusable, speculative);
+        }
 
         boundary.clear();
         visited.clear();
         pending.clear();
+        open = null;
+        costs = null;
 
         stats.end(); // Include cleanup in stats to get the total cost of pathfinding
 
-        plugin.postPluginMessages();
+        if (done) {
+            publishSnapshot(true);
+        }
+    }
+
+    /**
+     * Visits a node that is taken from the queue: updates the usable teleports and the closest node to the targets,
+     * and spends the budget on it.
+     *
+     * @return whether the search stops at the node instead of expanding it
+     */
+    private boolean visit(Node node) {
+        if (wildernessLevel > 0) {
+            // We don't need to remove teleports when going from 20 to 21 or higher,
+            // because the teleport is either used at the very start of the
+            // path or when going from 31 or higher to 30, or from 21 or higher to 20.
+
+            boolean update = false;
+
+            // These are overlapping boundaries, so if the node isn't in level 30, it's in 0-29
+            // likewise, if the node isn't in level 20, it's in 0-19
+            if (wildernessLevel > 30 && !WildernessChecker.isInLevel30Wilderness(node.packedPosition)) {
+                wildernessLevel = 30;
+                update = true;
+            }
+            if (wildernessLevel > 20 && !WildernessChecker.isInLevel20Wilderness(node.packedPosition)) {
+                wildernessLevel = 20;
+                update = true;
+            }
+            if (wildernessLevel > 0 && !WildernessChecker.isInWilderness(node.packedPosition)) {
+                wildernessLevel = 0;
+                update = true;
+            }
+            if (update) {
+                refreshTeleports(node.packedPosition);
+            }
+        }
+
+        // Only the closest target can improve the heuristic, and it is the node itself once a target is reached
+        int target = targetIndex.nearest(node.packedPosition);
+        if (target == node.packedPosition) {
+            bestLastNode = node;
+            pathNeedsUpdate = true;
+            if (stats.targetsUnreachable) {
+                reachedSubstitute = true;
+            } else {
+                reachedTarget = true;
+            }
+            return true;
+        }
+
+        if (target != WorldPointUtil.UNDEFINED) {
+            int distance = WorldPointUtil.distanceBetween(node.packedPosition, target);
+            long estimate = distance + (long) WorldPointUtil.distanceBetween(node.packedPosition, target, 2);
+            if (estimate < bestHeuristic || (estimate <= bestHeuristic && distance < bestDistance)) {
+                bestLastNode = node;
+                pathNeedsUpdate = true;
+                bestDistance = distance;
+                bestHeuristic = estimate;
+                budget.refill();
+                snapshotPending = true;
+                publishSnapshotIfDue();
+            }
+        }
+
+        if (budget.expand()) {
+            return true;
+        }
+        if (snapshotPending && budget.getExpansions() % SearchBudget.CLOCK_CHECK_INTERVAL == 0) {
+            publishSnapshotIfDue();
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the next level of a plain walking search is expanded on the search threads. Teleports and
+     * the bank can change the transports of later nodes, so the level has to start outside of the wilderness after
+     * the bank is visited, and no cheaper transport may be pending.
+     */
+    private boolean canExpandLevel() {
+        if (searchThreads <= 1 || open != null || wildernessLevel > 0 || !config.isBankVisited()
+            || boundary.size() < ParallelFrontier.MIN_LEVEL_SIZE) {
+            return false;
+        }
+        Node p = pending.peek();
+        return p == null || p.cost >= boundary.peekFirst().cost;
+    }
+
+    /**
+     * Takes the nodes of the cheapest level of the boundary and expands them on the search threads. The nodes are
+     * visited one at a time first, and only those before the node the search stops at are expanded. Their transports
+     * are added after their walking neighbours.
+     *
+     * @return whether the search stops
+     */
+    private boolean expandLevel() {
+        int cost = boundary.peekFirst().cost;
+        if (level == null) {
+            level = new Node[ParallelFrontier.MIN_LEVEL_SIZE * 2];
+        }
+        int size = 0;
+        while (!boundary.isEmpty() && boundary.peekFirst().cost == cost) {
+            if (size == level.length) {
+                level = Arrays.copyOf(level, size * 2);
+            }
+            level[size++] = boundary.removeFirst();
+        }
+
+        int count = 0;
+        boolean stop = false;
+        for (; count < size; count++) {
+            if (visit(level[count])) {
+                stop = true;
+                break;
+            }
+        }
+
+        if (count < ParallelFrontier.MIN_LEVEL_SIZE) {
+            for (int i = 0; i < count; i++) {
+                addNeighbors(level[i]);
+            }
+        } else {
+            List<Node> neighbors = frontier.expand(level, count, visited, targetInWilderness, searchThreads);
+            if (neighbors == null) {
+                cancelled = true;
+                return true;
+            }
+            boundary.addAll(neighbors);
+            stats.nodesChecked += neighbors.size();
+            for (int i = 0; i < count; i++) {
+                addTransportNeighbors(level[i]);
+            }
+        }
+        Arrays.fill(level, 0, size, null);
+        return stop;
+    }
+
+    private void addTransportNeighbors(Node node) {
+        Set<Transport> transports = config.getTransportsPacked().get(node.packedPosition);
+        if (transports == null) {
+            return;
+        }
+        for (Transport transport : transports) {
+            int destination = transport.getDestination();
+            if (visited.get(destination)
+                || config.avoidWilderness(node.packedPosition, destination, targetInWilderness)) {
+                continue;
+            }
+            visited.set(destination);
+            pending.add(new TransportNode(destination, node, transport.getDuration(),
+                config.getAdditionalTransportCost(transport)));
+            ++stats.transportsChecked;
+        }
+    }
+
+    private void refreshTeleports(int packedPoint) {
+        if (strategy == null) {
+            config.refreshTeleports(packedPoint, wildernessLevel);
+        }
+    }
+
+    private void publishSnapshotIfDue() {
+        if (!listeners.isEmpty() && System.nanoTime() - lastSnapshotNanos >= snapshotIntervalNanos) {
+            publishSnapshot(false);
+        }
+    }
+
+    private void publishSnapshot(boolean finished) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+
+        PathSnapshot snapshot = new PathSnapshot(bestLastNode, ++snapshotVersion, finished);
+        lastSnapshotNanos = System.nanoTime();
+        snapshotPending = false;
+        for (PathListener listener : listeners) {
+            listener.onPathUpdated(snapshot);
+        }
+    }
+
+    /**
+     * Looks up a route without searching: from the route cache, along a distance field, or through the transit table.
+     *
+     * @return the last node of the route, or {@code null} if the search has to run
+     */
+    private Node findKnownRoute() {
+        RouteCache.Route cachedRoute = speculative ? null : config.getRoutes().get(start, targets, fingerprint);
+        stats.cached = cachedRoute != null;
+        Node route = cachedRoute != null ? cachedRoute.toNode() : routeWithDistanceField();
+        return route != null ? route : routeWithTransitTable();
+    }
+
+    /**
+     * Follows the distance field towards the targets if there is one, instead of searching. Teleports are not part of
+     * the field, so the ones usable from the start are compared against walking first. Teleports using items from the
+     * bank only become usable during a search, so the bank has to be visited already.
+     *
+     * @return the last node of the route, or {@code null} if the search has to run
+     */
+    private Node routeWithDistanceField() {
+        if (!config.isBankVisited()) {
+            return null;
+        }
+        DistanceField field = config.getDistanceField(targets);
+        // Teleports from inside the wilderness depend on how far the route has walked out of it. Only the wilderness
+        // itself matters: the search also drops to level 0 on tiles of the level 20 areas outside of it
+        if (field == null || WildernessChecker.isInWilderness(start)) {
+            return null;
+        }
+
+        wildernessLevel = 0;
+        refreshTeleports(start);
+
+        Node node = new Node(start, null);
+        int bestCost = field.getCost(start);
+        Transport bestTransport = null;
+        for (Transport transport : getTransports(start)) {
+            int cost = getCost(field, node, transport);
+            if (cost >= 0 && (bestCost < 0 || cost < bestCost)) {
+                bestCost = cost;
+                bestTransport = transport;
+            }
+        }
+        if (bestCost < 0) {
+            return null;
+        }
+        if (bestTransport != null) {
+            node = new TransportNode(bestTransport.getDestination(), node, bestTransport.getDuration(),
+                config.getAdditionalTransportCost(bestTransport));
+        }
+
+        // Every step lowers the remaining cost, apart from transports that take no time
+        for (int steps = 0; steps <= 2 * DistanceField.MAX_COST; steps++) {
+            int hop = field.getNextHop(node.packedPosition);
+            if (hop == DistanceField.HOP_ARRIVED) {
+                return node;
+            } else if (hop == DistanceField.HOP_TRANSPORT) {
+                bestTransport = null;
+                bestCost = -1;
+                for (Transport transport : getTransports(node.packedPosition)) {
+                    int cost = getCost(field, node, transport);
+                    if (cost >= 0 && (bestCost < 0 || cost < bestCost)) {
+                        bestCost = cost;
+                        bestTransport = transport;
+                    }
+                }
+                if (bestTransport == null) {
+                    return null;
+                }
+                node = new TransportNode(bestTransport.getDestination(), node, bestTransport.getDuration(),
+                    config.getAdditionalTransportCost(bestTransport));
+            } else if (hop >= 0) {
+                node = new Node(DistanceField.step(node.packedPosition, hop), node);
+            } else {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Looks up a route through the transit table if transit routing is enabled and the targets are far enough away,
+     * instead of searching. Like the distance field, the table has no teleports, so the ones usable from the start
+     * are passed along.
+     *
+     * @return the last node of the route, or {@code null} if the search has to run
+     */
+    private Node routeWithTransitTable() {
+        if (!config.isUseTransitRouting() || !config.isBankVisited() || WildernessChecker.isInWilderness(start)
+            || (config.isAvoidWilderness() && targetInWilderness)) {
+            return null; // The table assumes no teleports after the start, and avoids the wilderness if set to
+        }
+        TransitTable table = config.getTransit().get();
+        if (table == null) {
+            return null;
+        }
+
+        wildernessLevel = 0;
+        refreshTeleports(start);
+
+        Set<Transport> transports = getTransports(start);
+        int[] startTransports = new int[2 * transports.size()];
+        int i = 0;
+        for (Transport transport : transports) {
+            startTransports[i++] = transport.getDestination();
+            startTransports[i++] = transport.getDuration() + config.getAdditionalTransportCost(transport);
+        }
+
+        PrimitiveIntList route = table.route(map, start, targets, startTransports);
+        if (route == null) {
+            return null;
+        }
+        Node node = new Node(start, null);
+        for (int j = 1; j < route.size(); j++) {
+            node = step(node, route.get(j));
+        }
+        return node;
+    }
+
+    /** Returns the node after a step of a route, which is a transport unless the step can be walked */
+    private Node step(Node node, int next) {
+        Transport bestTransport = null;
+        for (Transport transport : getTransports(node.packedPosition)) {
+            if (transport.getDestination() == next && (bestTransport == null
+                || transport.getDuration() + config.getAdditionalTransportCost(transport)
+                < bestTransport.getDuration() + config.getAdditionalTransportCost(bestTransport))) {
+                bestTransport = transport;
+            }
+        }
+        if (bestTransport == null || isWalkable(node.packedPosition, next)) {
+            return new Node(next, node);
+        }
+        return new TransportNode(next, node, bestTransport.getDuration(),
+            config.getAdditionalTransportCost(bestTransport));
+    }
+
+    private boolean isWalkable(int from, int to) {
+        if (WorldPointUtil.distanceBetween(from, to) != 1) {
+            return false;
+        }
+        int x = WorldPointUtil.unpackWorldX(from);
+        int y = WorldPointUtil.unpackWorldY(from);
+        for (OrdinalDirection direction : OrdinalDirection.values()) {
+            if (x + direction.x == WorldPointUtil.unpackWorldX(to) && y + direction.y == WorldPointUtil.unpackWorldY(to)) {
+                return map.isTraversable(x, y, WorldPointUtil.unpackWorldPlane(from), direction);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Searching for targets that cannot be reached explores everything reachable until the cutoff, so when none of
+     * the targets can be reached, the search heads for the closest reachable tiles next to them instead.
+     *
+     * @return the tiles the search heads for
+     */
+    private Set<Integer> substituteUnreachableTargets() {
+        if (!config.isBankVisited()) {
+            return targets; // Teleports using items from the bank only become usable during the search
+        }
+
+        ReachabilityIndex.ReachableTiles reachable = config.getReachability().fromStart(start);
+        if (reachable == null) {
+            return targets;
+        }
+        for (int target : targets) {
+            if (!reachable.isKnown(target) || reachable.isReachable(target)) {
+                return targets;
+            }
+        }
+
+        Set<Integer> substitutes = new HashSet<>(targets.size());
+        for (int target : targets) {
+            int substitute = reachable.findNearestReachable(target, MAX_SUBSTITUTE_DISTANCE);
+            if (substitute != WorldPointUtil.UNDEFINED) {
+                substitutes.add(substitute);
+            }
+        }
+        stats.targetsUnreachable = true;
+        if (substitutes.isEmpty()) {
+            return targets;
+        }
+        targetIndex = new PointIndex(substitutes);
+        return substitutes;
+    }
+
+    /**
+     * Returns the landmark bounds towards the targets if the search can be guided by them. The bounds only hold while
+     * no teleports can be taken after the start, which rules out starting in the wilderness and banking on the way.
+     */
+    private Landmarks.Heuristic getLandmarkHeuristic(Set<Integer> searchTargets) {
+        if (!config.isUseLandmarks() || searchTargets.size() > MAX_LANDMARK_TARGETS || !config.isBankVisited()
+            || WildernessChecker.isInWilderness(start)) {
+            return null;
+        }
+        return config.getLandmarks().towards(searchTargets);
+    }
+
+    @SuppressWarnings("unchecked") // Casting EMPTY_SET to Set<Transport> is safe here
+    private Set<Transport> getTransports(int packedPoint) {
+        return config.getTransportsPacked().getOrDefault(packedPoint, (Set<Transport>) Collections.EMPTY_SET);
+    }
+
+    /** Returns the cost of taking a transport and then following the field, or -1 if that does not reach a target */
+    private int getCost(DistanceField field, Node node, Transport transport) {
+        int remaining = field.getCost(transport.getDestination());
+        if (remaining < 0 || config.avoidWilderness(node.packedPosition, transport.getDestination(), targetInWilderness)) {
+            return -1;
+        }
+        return transport.getDuration() + config.getAdditionalTransportCost(transport) + remaining;
     }
 
     public static class PathfinderStats {
         @Getter
         private int nodesChecked = 0, transportsChecked = 0;
+        /** Whether none of the targets could be reached, so that the search headed for reachable tiles near them */
+        @Getter
+        private boolean targetsUnreachable = false;
+        /** The limit of the calculation cutoff that stopped the search, if it did not run to completion */
+        @Getter
+        private SearchBudget.Limit cutoffLimit = SearchBudget.Limit.NONE;
+        /** Whether the path was taken from the route cache instead of searching */
+        @Getter
+        private boolean cached = false;
         private long startNanos, endNanos;
         private volatile boolean started = false, ended = false;
 
@@ -208,6 +865,9 @@ public class Pathfinder implements Runnable {
             started = true;
             nodesChecked = 0;
             transportsChecked = 0;
+            targetsUnreachable = false;
+            cutoffLimit = SearchBudget.Limit.NONE;
+            cached = false;
             startNanos = System.nanoTime();
         }
 
@@ -5,6 +5,8 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
 
 import static shortestpath.transport.TransportType.AGILITY_SHORTCUT;
 import static shortestpath.transport.TransportType.BOAT;
@@ -32,6 +34,7 @@ import static shortestpath.transport.TransportType.WILDERNESS_OBELISK;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Set;
 import lombok.Getter;
 import net.runelite.api.Client;
@@ -48,17 +51,20 @@ import net.runelite.api.gameval.InventoryID;
 import net.runelite.api.gameval.ItemID;
 import net.runelite.api.gameval.VarPlayerID;
 import net.runelite.api.gameval.VarbitID;
+import shortestpath.CalculationCutoff;
 import shortestpath.JewelleryBoxTier;
 import shortestpath.TeleportationItem;
 import shortestpath.ShortestPathConfig;
 import shortestpath.ShortestPathPlugin;
 import shortestpath.Destination;
 import shortestpath.ItemVariations;
-import shortestpath.PrimitiveIntHashMap;
+import shortestpath.PrimitiveIntOpenHashMap;
+import shortestpath.PrimitiveIntList;
 import shortestpath.WorldPointUtil;
 import shortestpath.transport.Transport;
 import shortestpath.transport.TransportItems;
 import shortestpath.transport.TransportLoader;
+import shortestpath.transport.TransportTable;
 import shortestpath.transport.TransportType;
 import shortestpath.transport.TransportVarPlayer;
 import shortestpath.transport.TransportVarbit;
@@ -78,16 +84,22 @@ public class PathfinderConfig {
 	};
     private static final Set<Integer> CURRENCIES = Set.of(
         ItemID.COINS, ItemID.VILLAGE_TRADE_STICKS, ItemID.ECTOTOKEN, ItemID.WARGUILD_TOKENS);
+    private static final PrimitiveIntList EMPTY_ORIGINS = new PrimitiveIntList(0);
     private static final TransportItems DRAMEN_STAFF = new TransportItems(
         new int[][]{null},
         new int[][]{ItemVariations.DRAMEN_STAFF.getIds()},
         new int[][]{null},
         new int[]{1});
+    /** Roughly the number of nodes a search expands in a game tick, used to turn the cutoff into a node budget */
+    private static final long NODES_PER_TICK = 250_000;
 
     private final SplitFlagMap mapData;
     private final ThreadLocal<CollisionMap> map;
     /** All transports by origin. The WorldPointUtil.UNDEFINED key is used for transports centered on the player. */
     private final Map<Integer, Set<Transport>> allTransports;
+    /** All transports by a fixed index, for packed plugin messages */
+    @Getter
+    private final TransportTable transportTable;
     private final Set<Transport> usableTeleports;
     private final Map<String, Set<Integer>> allDestinations;
     private final Map<String, Set<Integer>> filteredDestinations;
@@ -98,9 +110,46 @@ public class PathfinderConfig {
     private final Map<Integer, Set<Transport>> transports;
     // Copy of transports with packed positions for the hotpath; lists are not copied and are the same reference in both maps
     @Getter
-    private final PrimitiveIntHashMap<Set<Transport>> transportsPacked;
+    private final PrimitiveIntOpenHashMap<Set<Transport>> transportsPacked;
+    /** Origins of usable non-teleport transports grouped by region id, rebuilt together with the transports */
+    private final Map<Integer, PrimitiveIntList> transportOriginsByRegion = new HashMap<>();
+    /** Incremented whenever the usable transports are rebuilt, so that derived caches know to refresh */
+    @Getter
+    private int transportsVersion;
+    /** The origins of the usable transports */
+    @Getter
+    private TileLayer transportOrigins = TileLayer.EMPTY;
     /** Reference that points to either allDestinations or filteredDestinations */
     private Map<String, Set<Integer>> destinations;
+    /** The destinations compiled into tile layers for lookups on the hotpath, by destination type */
+    private final Map<String, TileLayer> allDestinationLayers;
+    private final Map<String, TileLayer> filteredDestinationLayers;
+    /** Reference that points to either allDestinationLayers or filteredDestinationLayers */
+    private Map<String, TileLayer> destinationLayers;
+    /** The destinations indexed for nearest-destination queries, by destination type */
+    private final Map<String, PointIndex> allDestinationIndexes;
+    private final Map<String, PointIndex> filteredDestinationIndexes;
+    /** Reference that points to either allDestinationIndexes or filteredDestinationIndexes */
+    private Map<String, PointIndex> destinationIndexes;
+    /** The threads that the indexes, caches and parallel searches share for their background work */
+    @Getter
+    private final ExecutorService background = BackgroundTasks.newSharedExecutor();
+    @Getter
+    private final DistanceFieldCache distanceFields = new DistanceFieldCache(this);
+    @Getter
+    private final ReachabilityIndex reachability = new ReachabilityIndex(this);
+    @Getter
+    private final LandmarkIndex landmarks = new LandmarkIndex(this);
+    @Getter
+    private final TransitIndex transit = new TransitIndex(this);
+    @Getter
+    private final DistanceMatrixService matrices = new DistanceMatrixService(this);
+    @Getter
+    private final RouteCache routes = new RouteCache();
+    @Getter
+    private final ParallelFrontier frontier = new ParallelFrontier(this);
+    @Getter
+    private final SearchRace race = new SearchRace(background);
 
     private final Client client;
     private final ShortestPathConfig config;
@@ -108,9 +157,36 @@ public class PathfinderConfig {
     @Getter
     private long calculationCutoffMillis;
     @Getter
+    private long calculationCutoffNodes;
+    @Getter
+    private CalculationCutoff calculationCutoffMode;
+    @Getter
+    private boolean useTransitRouting;
+    @Getter
+    private boolean useJumpPointSearch;
+    @Getter
+    private boolean useLandmarks;
+    @Getter
+    private boolean useDistanceFields;
+    @Getter
+    private boolean raceStrategies;
+    @Getter
+    private boolean speculateRoutes;
+    /** The number of threads that expand the levels of large walking searches; 1 expands them on the search thread */
+    @Getter
+    private int searchThreads;
+    @Getter
     private boolean avoidWilderness;
     @Getter
     private boolean bankVisited;
+    /**
+     * Changes whenever the usable transports and teleports, their costs, the bank items, or the settings that
+     * routes depend on change, so that routes are only reused with the config they were found with.
+     */
+    @Getter
+    private long fingerprint;
+    /** The part of the fingerprint from the usable transports, teleports and bank items */
+    private long transportsFingerprint;
     private boolean useAgilityShortcuts,
         useGrappleShortcuts,
         useBoats,
@@ -156,18 +232,37 @@ public class PathfinderConfig {
         this.mapData = SplitFlagMap.fromResources();
         this.map = ThreadLocal.withInitial(() -> new CollisionMap(mapData));
         this.allTransports = TransportLoader.loadAllFromResources();
+        this.transportTable = new TransportTable(allTransports);
         this.usableTeleports = new HashSet<>(allTransports.size() / 20);
         this.transports = new HashMap<>(allTransports.size() / 2);
-        this.transportsPacked = new PrimitiveIntHashMap<>(allTransports.size() / 2);
+        this.transportsPacked = new PrimitiveIntOpenHashMap<>(allTransports.size() / 2);
         this.allDestinations = Destination.loadAllFromResources();
         this.filteredDestinations = filterDestinations(allDestinations);
         this.destinations = allDestinations;
+        this.allDestinationLayers = compileDestinations(allDestinations, new HashMap<>(),
+            points -> TileLayer.builder().addAll(points).build());
+        this.filteredDestinationLayers = compileDestinations(filteredDestinations, allDestinationLayers,
+            points -> TileLayer.builder().addAll(points).build());
+        this.destinationLayers = allDestinationLayers;
+        this.allDestinationIndexes = compileDestinations(allDestinations, new HashMap<>(), PointIndex::new);
+        this.filteredDestinationIndexes = compileDestinations(filteredDestinations, allDestinationIndexes, PointIndex::new);
+        this.destinationIndexes = allDestinationIndexes;
     }
 
     public CollisionMap getMap() {
         return map.get();
     }
 
+    /**
+     * Returns the origins of usable non-teleport transports in the given region, on any plane.
+     *
+     * @param regionId region id as returned by {@link WorldPointUtil#getRegionId(int)}
+     * @return the transport origins in the region, or an empty list if there are none
+     */
+    public PrimitiveIntList getTransportOriginsInRegion(int regionId) {
+        return transportOriginsByRegion.getOrDefault(regionId, EMPTY_ORIGINS);
+    }
+
     public boolean hasDestination(String destinationType) {
         return destinations.containsKey(destinationType);
     }
@@ -176,8 +271,66 @@ public class PathfinderConfig {
         return destinations.get(destinationType);
     }
 
+    /**
+     * Returns the destinations of the given type as a tile layer, to test many tiles without boxing.
+     *
+     * @param destinationType destination type, e.g. {@code "bank"}
+     * @return the layer of the destinations, or {@link TileLayer#EMPTY} if there are none
+     */
+    public TileLayer getDestinationLayer(String destinationType) {
+        return destinationLayers.getOrDefault(destinationType, TileLayer.EMPTY);
+    }
+
+    /**
+     * Returns the destination of the given type that is closest to a tile in a straight line. This ignores
+     * obstacles and transports, so it is only an approximation of the destination that is closest to walk to.
+     *
+     * @param destinationType destination type, e.g. {@code "bank"}
+     * @param packedPoint the tile to search from
+     * @return the closest destination on the same plane, or {@link WorldPointUtil#UNDEFINED} if there is none
+     */
+    public int getNearestDestination(String destinationType, int packedPoint) {
+        PointIndex index = destinationIndexes.get(destinationType);
+        return index == null ? WorldPointUtil.UNDEFINED : index.nearest(packedPoint);
+    }
+
+    /**
+     * Returns the distance field for a set of targets if the fields are enabled, the targets are exactly the
+     * destinations of a category and its field is ready. Otherwise the field is scheduled to be computed when the
+     * fields are enabled and the targets are a category.
+     *
+     * @param targets the targets of a search
+     * @return the distance field towards the targets, or {@code null}
+     */
+    public DistanceField getDistanceField(Set<Integer> targets) {
+        if (!useDistanceFields) {
+            return null;
+        }
+        for (Map.Entry<String, Set<Integer>> entry : destinations.entrySet()) {
+            if (entry.getValue().size() == targets.size() && entry.getValue().equals(targets)) {
+                return distanceFields.get(entry.getKey(), entry.getValue());
+            }
+        }
+        return null;
+    }
+
     public void refresh() {
         calculationCutoffMillis = config.calculationCutoff() * Constants.GAME_TICK_LENGTH;
+        calculationCutoffNodes = config.calculationCutoff() * NODES_PER_TICK;
+        calculationCutoffMode = ShortestPathPlugin.override("calculationCutoffMode", config.calculationCutoffMode());
+        useTransitRouting = ShortestPathPlugin.override("useTransitRouting", config.useTransitRouting());
+        useJumpPointSearch = ShortestPathPlugin.override("useJumpPointSearch", config.useJumpPointSearch());
+        useLandmarks = ShortestPathPlugin.override("useLandmarks", config.useLandmarks());
+        if (!useLandmarks) {
+            landmarks.clear();
+        }
+        useDistanceFields = ShortestPathPlugin.override("useDistanceFields", config.useDistanceFields());
+        if (!useDistanceFields) {
+            distanceFields.clear();
+        }
+        raceStrategies = ShortestPathPlugin.override("raceStrategies", config.raceStrategies());
+        speculateRoutes = ShortestPathPlugin.override("speculateRoutes", config.speculateRoutes());
+        searchThreads = ShortestPathPlugin.override("searchThreads", config.searchThreads());
         avoidWilderness = ShortestPathPlugin.override("avoidWilderness", config.avoidWilderness());
         usePoh = ShortestPathPlugin.override("usePoh", config.usePoh());
         useAgilityShortcuts = ShortestPathPlugin.override("useAgilityShortcuts", config.useAgilityShortcuts());
@@ -248,6 +401,18 @@ public class PathfinderConfig {
         }
 
         refreshDestinations();
+
+        long hash = transportsFingerprint;
+        hash = 31 * hash + (avoidWilderness ? 1 : 0);
+        hash = 31 * hash + (includeBankPath ? 1 : 0);
+        hash = 31 * hash + (useTransitRouting ? 1 : 0);
+        hash = 31 * hash + (useJumpPointSearch ? 1 : 0);
+        hash = 31 * hash + (useLandmarks ? 1 : 0);
+        hash = 31 * hash + (useDistanceFields ? 1 : 0);
+        hash = 31 * hash + calculationCutoffMode.ordinal();
+        hash = 31 * hash + calculationCutoffMillis;
+        hash = 31 * hash + calculationCutoffNodes;
+        fingerprint = hash;
     }
 
     /** Specialized method for only updating player-held item and spell transports */
@@ -268,8 +433,31 @@ public class PathfinderConfig {
         }
     }
 
+    /**
+     * Returns the usable teleports at a wilderness level as (destination, cost) pairs.
+     *
+     * @param wildernessLevel the wilderness level, as in {@link #refreshTeleports(int, int)}
+     */
+    public int[] getTeleportEdges(int wildernessLevel) {
+        PrimitiveIntList edges = new PrimitiveIntList();
+        for (Transport teleport : usableTeleports) {
+            if (wildernessLevel <= teleport.getMaxWildernessLevel()) {
+                edges.add(teleport.getDestination());
+                edges.add(teleport.getDuration() + getAdditionalTransportCost(teleport));
+            }
+        }
+
+        int[] flattened = new int[edges.size()];
+        for (int i = 0; i < flattened.length; i++) {
+            flattened[i] = edges.get(i);
+        }
+        return flattened;
+    }
+
     private void refreshDestinations() {
         destinations = avoidWilderness ? filteredDestinations : allDestinations;
+        destinationLayers = avoidWilderness ? filteredDestinationLayers : allDestinationLayers;
+        destinationIndexes = avoidWilderness ? filteredDestinationIndexes : allDestinationIndexes;
     }
 
     /** Changes to the config might have invalidated some locations, e.g. those in the wilderness */
@@ -323,6 +511,49 @@ public class PathfinderConfig {
         return filteredDestinations;
     }
 
+    /** Returns the usable transports with an origin as sorted (origin, destination, cost) triples */
+    private int[] getTransportEdges() {
+        List<int[]> triples = new ArrayList<>();
+        for (Map.Entry<Integer, Set<Transport>> entry : transports.entrySet()) {
+            for (Transport transport : entry.getValue()) {
+                if (transport.getDestination() != Transport.UNDEFINED_DESTINATION) {
+                    triples.add(new int[]{entry.getKey(), transport.getDestination(),
+                        transport.getDuration() + getAdditionalTransportCost(transport)});
+                }
+            }
+        }
+        triples.sort(Comparator.<int[]>comparingInt(t -> t[0]).thenComparingInt(t -> t[1]).thenComparingInt(t -> t[2]));
+
+        int[] flattened = new int[triples.size() * 3];
+        for (int i = 0; i < triples.size(); i++) {
+            System.arraycopy(triples.get(i), 0, flattened, i * 3, 3);
+        }
+        return flattened;
+    }
+
+    /** Returns the sorted destinations of the usable teleports without an origin */
+    private int[] getTeleportDestinations() {
+        int[] destinations = new int[usableTeleports.size()];
+        int i = 0;
+        for (Transport teleport : usableTeleports) {
+            destinations[i++] = teleport.getDestination();
+        }
+        Arrays.sort(destinations);
+        return destinations;
+    }
+
+    private <T> Map<String, T> compileDestinations(Map<String, Set<Integer>> destinations,
+        Map<String, T> compiledDestinations, Function<Set<Integer>, T> compiler) {
+        Map<String, T> compiled = new HashMap<>(destinations.size());
+        for (Map.Entry<String, Set<Integer>> entry : destinations.entrySet()) {
+            // Destination sets that were not filtered are the same reference as in allDestinations
+            T existing = allDestinations.get(entry.getKey()) == entry.getValue()
+                ? compiledDestinations.get(entry.getKey()) : null;
+            compiled.put(entry.getKey(), existing != null ? existing : compiler.apply(entry.getValue()));
+        }
+        return compiled;
+    }
+
     private void refreshTransports() {
         if (!Thread.currentThread().equals(client.getClientThread())) {
             return; // Has to run on the client thread; data will be refreshed when path finding commences
@@ -393,6 +624,53 @@ public class PathfinderConfig {
             transports.put(pohLanding, existingAtLanding);
             transportsPacked.put(pohLanding, pohTransports);
         }
+
+        transportOriginsByRegion.clear();
+        for (Map.Entry<Integer, Set<Transport>> entry : transports.entrySet()) {
+            int origin = entry.getKey();
+            for (Transport transport : entry.getValue()) {
+                if (!TransportType.isTeleport(transport.getType())) {
+                    transportOriginsByRegion.computeIfAbsent(WorldPointUtil.getRegionId(origin), k -> new PrimitiveIntList()).add(origin);
+                    break;
+                }
+            }
+        }
+        transportsVersion++;
+        transportOrigins = TileLayer.builder().addAll(transports.keySet()).build();
+        int[] transportEdges = getTransportEdges();
+        distanceFields.setTransports(transportEdges, avoidWilderness);
+        int[] teleportDestinations = getTeleportDestinations();
+        reachability.setTransports(transportEdges, teleportDestinations);
+        landmarks.setTransports(transportEdges);
+        transit.setTransports(transportEdges, teleportDestinations, avoidWilderness);
+        matrices.setTransports(transportEdges, avoidWilderness);
+        transportsFingerprint = getTransportsFingerprint(transportEdges);
+    }
+
+    /** Hashes the usable transports and teleports, and the bank items if the bank may be visited on the way */
+    private long getTransportsFingerprint(int[] transportEdges) {
+        long hash = Arrays.hashCode(transportEdges);
+        long teleportsHash = 0;
+        for (Transport teleport : usableTeleports) {
+            // Summed, since the order of the set is not defined
+            teleportsHash += spread(31L * (31L * teleport.getDestination() + teleport.getDuration()
+                + getAdditionalTransportCost(teleport)) + teleport.getMaxWildernessLevel());
+        }
+        hash = 31 * hash + teleportsHash;
+
+        long bankHash = 0;
+        if (includeBankPath && bank != null) {
+            for (Item item : bank.getItems()) {
+                bankHash += spread(31L * item.getId() + item.getQuantity());
+            }
+        }
+        return 31 * hash + bankHash;
+    }
+
+    /** Mixes the bits of a hash, so that sums of hashes of different elements rarely collide */
+    private static long spread(long hash) {
+        hash *= 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
     }
 
     private void refreshUsableTeleports() {
@@ -416,6 +694,15 @@ public class PathfinderConfig {
                 && WildernessChecker.isInWilderness(packedNeighborPosition);
     }
 
+    /**
+     * Returns whether a search has visited the bank since the last refresh. The teleports of the bank items then stay
+     * usable from the start of every later search until the next refresh, so those searches no longer match the
+     * fingerprint.
+     */
+    public boolean isBankVisitedSinceRefresh() {
+        return includeBankPath && bankVisited;
+    }
+
     public void setBankVisited(boolean visited, int packedLocation, int wildernessLevel) {
         bankVisited = visited;
         if (bankVisited) {
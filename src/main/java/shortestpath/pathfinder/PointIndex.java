@@ -0,0 +1,118 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import shortestpath.WorldPointUtil;
+
+/**
+ * Spatial index over a fixed set of packed world points that answers "which point is closest to this tile" in
+ * logarithmic time, instead of testing every point.
+ * <p>
+ * Closeness is measured like the pathfinder's heuristic: the sum of the Chebyshev and Manhattan distances, with
+ * ties going to the smaller Chebyshev distance. Only points on the same plane as the queried tile are considered.
+ * The points of each plane are stored as an implicit k-d tree in a sorted {@code int} array, alternating between
+ * splitting on x and on y.
+ */
+public class PointIndex {
+    private static final int PLANES = 4;
+    private static final long NONE = -1L; // Largest unsigned value
+
+    private final int[][] trees = new int[PLANES][];
+    private final int size;
+
+    public PointIndex(Collection<Integer> packedPoints) {
+        final int[] counts = new int[PLANES];
+        for (int packedPoint : packedPoints) {
+            counts[WorldPointUtil.unpackWorldPlane(packedPoint)]++;
+        }
+        for (int plane = 0; plane < PLANES; plane++) {
+            trees[plane] = new int[counts[plane]];
+            counts[plane] = 0;
+        }
+        for (int packedPoint : packedPoints) {
+            final int plane = WorldPointUtil.unpackWorldPlane(packedPoint);
+            trees[plane][counts[plane]++] = packedPoint;
+        }
+        for (int[] tree : trees) {
+            build(tree, 0, tree.length, true);
+        }
+        size = packedPoints.size();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the point closest to the given tile on the same plane.
+     *
+     * @param packedPoint the tile to search from
+     * @return the closest point, or {@link WorldPointUtil#UNDEFINED} if no point is on the same plane
+     */
+    public int nearest(int packedPoint) {
+        final int[] tree = trees[WorldPointUtil.unpackWorldPlane(packedPoint)];
+        final long best = search(tree, 0, tree.length, true,
+            WorldPointUtil.unpackWorldX(packedPoint), WorldPointUtil.unpackWorldY(packedPoint), NONE);
+        return best == NONE ? WorldPointUtil.UNDEFINED : (int) best;
+    }
+
+    /**
+     * Returns the best of the current result and the points in {@code tree[from, to)}. Results are encoded as the
+     * heuristic in the upper 17 bits, the Chebyshev distance in the next 15 bits and the point in the lower 32 bits,
+     * so that comparing them as unsigned numbers orders them like the pathfinder does.
+     */
+    private static long search(int[] tree, int from, int to, boolean splitOnX, int x, int y, long best) {
+        if (from >= to) {
+            return best;
+        }
+
+        final int mid = (from + to) >>> 1;
+        final int point = tree[mid];
+        final int dx = Math.abs(x - WorldPointUtil.unpackWorldX(point));
+        final int dy = Math.abs(y - WorldPointUtil.unpackWorldY(point));
+        final long distance = Math.max(dx, dy);
+        final long candidate = ((distance + dx + dy) << 47) | (distance << 32) | (point & 0xFFFFFFFFL);
+        if (Long.compareUnsigned(candidate, best) < 0) {
+            best = candidate;
+        }
+
+        final int delta = splitOnX ? x - WorldPointUtil.unpackWorldX(point) : y - WorldPointUtil.unpackWorldY(point);
+        if (delta < 0) {
+            best = search(tree, from, mid, !splitOnX, x, y, best);
+        } else {
+            best = search(tree, mid + 1, to, !splitOnX, x, y, best);
+        }
+
+        // Every point on the other side is at least |delta| away in both metrics
+        if (2L * Math.abs(delta) <= (best >>> 47)) {
+            if (delta < 0) {
+                best = search(tree, mid + 1, to, !splitOnX, x, y, best);
+            } else {
+                best = search(tree, from, mid, !splitOnX, x, y, best);
+            }
+        }
+        return best;
+    }
+
+    /** Orders {@code tree[from, to)} so that every median splits its range on alternating axes */
+    private static void build(int[] tree, int from, int to, boolean splitOnX) {
+        if (to - from <= 1) {
+            return;
+        }
+
+        final long[] keys = new long[to - from];
+        for (int i = from; i < to; i++) {
+            final long coordinate = splitOnX ? WorldPointUtil.unpackWorldX(tree[i]) : WorldPointUtil.unpackWorldY(tree[i]);
+            keys[i - from] = (coordinate << 32) | (tree[i] & 0xFFFFFFFFL);
+        }
+        Arrays.sort(keys);
+        for (int i = from; i < to; i++) {
+            tree[i] = (int) keys[i - from];
+        }
+
+        final int mid = (from + to) >>> 1;
+        build(tree, from, mid, !splitOnX);
+        build(tree, mid + 1, to, !splitOnX);
+    }
+}
@@ -0,0 +1,270 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+import lombok.extern.slf4j.Slf4j;
+import shortestpath.PrimitiveIntIntHashMap;
+import shortestpath.PrimitiveIntList;
+import shortestpath.WorldPointUtil;
+
+/**
+ * Answers "can this tile be reached at all" before a search, by combining the {@link WalkableComponents} of the
+ * collision map with a graph of the usable transports between them.
+ * <p>
+ * The components are computed once on the background threads, after the first search that runs into its cutoff or runs
+ * out of tiles without reaching its targets, since only such searches gain from knowing that their targets are
+ * unreachable. The graph is rebuilt whenever the usable transports change, which is cheap since it only maps every
+ * transport to the components at both ends. Reachability is an over-approximation: a tile reported as unreachable can
+ * never be reached, while a reachable tile may still turn out to be unreachable because of one-way moves or
+ * wilderness restrictions.
+ * <p>
+ * Lookups only read the components and the graph, so the index and its {@link ReachableTiles} can be queried from the
+ * client thread and the pathfinder threads at the same time.
+ */
+@Slf4j
+public class ReachabilityIndex {
+    private final PathfinderConfig config;
+    private volatile WalkableComponents components;
+    private volatile Graph graph;
+    private final BackgroundTasks tasks;
+    private int[] transports = new int[0];
+    private int[] teleportDestinations = new int[0];
+
+    public ReachabilityIndex(PathfinderConfig config) {
+        this.config = config;
+        tasks = new BackgroundTasks(config.getBackground(), this, 1);
+    }
+
+    /** Creates an index over components that are already computed */
+    ReachabilityIndex(WalkableComponents components) {
+        this.config = null;
+        tasks = null;
+        this.components = components;
+        graph = new Graph(components, transports, teleportDestinations);
+    }
+
+    /**
+     * Returns the tiles that can be reached from a start tile, or {@code null} if the components are not computed
+     * yet.
+     *
+     * @param start the start of a search
+     * @return the reachable tiles, or {@code null} if reachability is unknown
+     */
+    public ReachableTiles fromStart(int start) {
+        final Graph graph = this.graph;
+        if (graph == null) {
+            return null;
+        }
+
+        final PrimitiveIntList sources = new PrimitiveIntList();
+        graph.getNodes(start, sources);
+        if (sources.isEmpty()) {
+            return null; // Starting from a tile without collision data, e.g. inside an instance
+        }
+        for (int i = 0; i < graph.teleportDestinations.length; i++) {
+            graph.getNodes(graph.teleportDestinations[i], sources);
+        }
+        return new ReachableTiles(graph, graph.reachableFrom(sources));
+    }
+
+    /**
+     * Updates the transports of the graph.
+     *
+     * @param transports usable transports with an origin as (origin, destination, cost) triples
+     * @param teleportDestinations destinations of the usable teleports without an origin
+     */
+    public synchronized void setTransports(int[] transports, int[] teleportDestinations) {
+        if (Arrays.equals(transports, this.transports) && Arrays.equals(teleportDestinations, this.teleportDestinations)) {
+            return;
+        }
+
+        this.transports = transports;
+        this.teleportDestinations = teleportDestinations;
+        if (components != null) {
+            graph = new Graph(components, transports, teleportDestinations);
+        }
+    }
+
+    public synchronized void clear() {
+        if (tasks != null) {
+            tasks.cancel();
+        }
+    }
+
+    /** Schedules the computation of the components, unless they are computed or being computed already */
+    public synchronized void scheduleComponents() {
+        if (components == null && tasks != null) {
+            tasks.schedule(WalkableComponents.class, this::computeComponents, computed -> {
+                components = computed;
+                graph = new Graph(computed, transports, teleportDestinations);
+            });
+        }
+    }
+
+    private WalkableComponents computeComponents() {
+        long startNanos = System.nanoTime();
+        WalkableComponents computed = WalkableComponents.compute(config.getMap());
+        if (computed != null) {
+            log.debug("Computed {} walkable components in {} ms", computed.size(), (System.nanoTime() - startNanos) / 1_000_000);
+        }
+        return computed;
+    }
+
+    /**
+     * Components joined by transports. Transport ends without collision data, like the house landing tile, get a
+     * node of their own so that the transports leaving from them are kept.
+     */
+    private static class Graph {
+        private final WalkableComponents components;
+        private final PrimitiveIntIntHashMap extraNodes = new PrimitiveIntIntHashMap(64);
+        private final int[] teleportDestinations;
+        private int nodeCount;
+        // Edges in compressed sparse row form; the targets of node n are edgeTargets[edgeStarts[n], edgeStarts[n + 1])
+        private final int[] edgeStarts;
+        private final int[] edgeTargets;
+
+        Graph(WalkableComponents components, int[] transports, int[] teleportDestinations) {
+            this.components = components;
+            this.teleportDestinations = teleportDestinations;
+            nodeCount = components.size();
+
+            final PrimitiveIntList from = new PrimitiveIntList();
+            final PrimitiveIntList to = new PrimitiveIntList();
+            final PrimitiveIntList origins = new PrimitiveIntList();
+            final PrimitiveIntList destinations = new PrimitiveIntList();
+            for (int i = 0; i < transports.length; i += 3) {
+                origins.clear();
+                destinations.clear();
+                getOrAddNodes(transports[i], origins);
+                getOrAddNodes(transports[i + 1], destinations);
+                for (int o = 0; o < origins.size(); o++) {
+                    for (int d = 0; d < destinations.size(); d++) {
+                        from.add(origins.get(o));
+                        to.add(destinations.get(d));
+                    }
+                }
+            }
+            for (int teleportDestination : teleportDestinations) {
+                destinations.clear();
+                getOrAddNodes(teleportDestination, destinations);
+            }
+
+            edgeStarts = new int[nodeCount + 1];
+            edgeTargets = new int[from.size()];
+            for (int i = 0; i < from.size(); i++) {
+                edgeStarts[from.get(i) + 1]++;
+            }
+            for (int n = 0; n < nodeCount; n++) {
+                edgeStarts[n + 1] += edgeStarts[n];
+            }
+            final int[] next = Arrays.copyOf(edgeStarts, nodeCount);
+            for (int i = 0; i < from.size(); i++) {
+                edgeTargets[next[from.get(i)]++] = to.get(i);
+            }
+        }
+
+        void getNodes(int packedPoint, PrimitiveIntList out) {
+            final int size = out.size();
+            components.getComponents(packedPoint, out);
+            if (out.size() == size) {
+                final int node = extraNodes.getOrDefault(packedPoint, -1);
+                if (node >= 0) {
+                    out.add(node);
+                }
+            }
+        }
+
+        private void getOrAddNodes(int packedPoint, PrimitiveIntList out) {
+            getNodes(packedPoint, out);
+            if (out.isEmpty()) {
+                extraNodes.put(packedPoint, nodeCount);
+                out.add(nodeCount++);
+            }
+        }
+
+        boolean[] reachableFrom(PrimitiveIntList sources) {
+            final boolean[] reached = new boolean[nodeCount];
+            final int[] queue = new int[nodeCount];
+            int head = 0;
+            int tail = 0;
+            for (int i = 0; i < sources.size(); i++) {
+                if (!reached[sources.get(i)]) {
+                    reached[sources.get(i)] = true;
+                    queue[tail++] = sources.get(i);
+                }
+            }
+            while (head < tail) {
+                final int node = queue[head++];
+                for (int e = edgeStarts[node]; e < edgeStarts[node + 1]; e++) {
+                    if (!reached[edgeTargets[e]]) {
+                        reached[edgeTargets[e]] = true;
+                        queue[tail++] = edgeTargets[e];
+                    }
+                }
+            }
+            return reached;
+        }
+    }
+
+    /** The tiles that can be reached from a start tile */
+    public static class ReachableTiles {
+        private final Graph graph;
+        private final boolean[] reached;
+
+        private ReachableTiles(Graph graph, boolean[] reached) {
+            this.graph = graph;
+            this.reached = reached;
+        }
+
+        /** Returns whether anything is known about a tile; tiles without collision data are unknown */
+        public boolean isKnown(int packedPoint) {
+            final PrimitiveIntList nodes = new PrimitiveIntList(8);
+            graph.getNodes(packedPoint, nodes);
+            return !nodes.isEmpty();
+        }
+
+        public boolean isReachable(int packedPoint) {
+            final PrimitiveIntList nodes = new PrimitiveIntList(8);
+            graph.getNodes(packedPoint, nodes);
+            for (int i = 0; i < nodes.size(); i++) {
+                if (reached[nodes.get(i)]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Finds the reachable unblocked tile closest to a tile on the same plane, preferring the tile that is
+         * closest by the pathfinder's heuristic within the nearest ring of tiles around it.
+         *
+         * @param packedPoint the tile to search around
+         * @param maxDistance the largest Chebyshev distance to search
+         * @return the closest reachable tile, or {@link WorldPointUtil#UNDEFINED} if there is none within range
+         */
+        public int findNearestReachable(int packedPoint, int maxDistance) {
+            final int x = WorldPointUtil.unpackWorldX(packedPoint);
+            final int y = WorldPointUtil.unpackWorldY(packedPoint);
+            final int z = WorldPointUtil.unpackWorldPlane(packedPoint);
+            for (int distance = 0; distance <= maxDistance; distance++) {
+                int best = WorldPointUtil.UNDEFINED;
+                int bestManhattan = Integer.MAX_VALUE;
+                for (int dy = -distance; dy <= distance; dy++) {
+                    // Only the outline of the square ring is at this distance
+                    final int step = dy == -distance || dy == distance ? 1 : 2 * distance;
+                    for (int dx = -distance; dx <= distance; dx += Math.max(step, 1)) {
+                        final int component = graph.components.getComponent(x + dx, y + dy, z);
+                        final int manhattan = Math.abs(dx) + Math.abs(dy);
+                        if (component >= 0 && reached[component] && manhattan < bestManhattan) {
+                            best = WorldPointUtil.packWorldPoint(x + dx, y + dy, z);
+                            bestManhattan = manhattan;
+                        }
+                    }
+                }
+                if (best != WorldPointUtil.UNDEFINED) {
+                    return best;
+                }
+            }
+            return WorldPointUtil.UNDEFINED;
+        }
+    }
+}
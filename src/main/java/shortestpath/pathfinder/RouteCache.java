@@ -0,0 +1,231 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+import shortestpath.CompactPath;
+import shortestpath.PrimitiveIntList;
+
+/**
+ * The finished routes of recent searches, keyed by their start, their targets and the
+ * {@link PathfinderConfig#getFingerprint() fingerprint} of the config they were found with.
+ * <p>
+ * The least recently used routes are dropped once the routes take more than the memory cap. A search whose start
+ * lies on a cached route to the same targets reuses the rest of that route, if the start could not have taken a
+ * teleport that the original start could not, and the route did not pick up teleports from the bank on the way.
+ * Routes are stored as {@link CompactPath compact paths}, which take a few ints per straight walk instead of one per
+ * tile.
+ */
+public class RouteCache {
+    /** The memory cap of the routes */
+    public static final long DEFAULT_MAX_BYTES = 512 * 1024;
+    /** The estimated memory of an entry apart from its path and targets */
+    private static final int ENTRY_BYTES = 128;
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Route> routes = new LinkedHashMap<>(16, 0.75f, true);
+    @Getter
+    private long memoryBytes;
+    @Getter
+    private volatile long hits;
+    @Getter
+    private volatile long suffixHits;
+    @Getter
+    private volatile long misses;
+    @Getter
+    private volatile long evictions;
+    /** The exact hits on routes that were put by a {@link RouteSpeculator speculative} search */
+    @Getter
+    private volatile long speculativeHits;
+
+    public RouteCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    public RouteCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the cached route from a start to targets, or the rest of a cached route to the targets that passes
+     * through the start.
+     *
+     * @param start the start of the search
+     * @param targets the targets of the search
+     * @param fingerprint the fingerprint of the config of the search
+     * @return the route, or {@code null} if none is cached
+     */
+    public synchronized Route get(int start, Set<Integer> targets, long fingerprint) {
+        final Key key = new Key(start, targets, fingerprint);
+        final Route route = routes.get(key);
+        if (route != null) {
+            hits++;
+            if (route.speculative) {
+                speculativeHits++;
+            }
+            return route;
+        }
+
+        final int startWildernessLevel = WildernessChecker.getWildernessLevel(start);
+        for (Map.Entry<Key, Route> entry : routes.entrySet()) {
+            final Route cached = entry.getValue();
+            if (!cached.suffixReusable || !entry.getKey().hasTargets(key)) {
+                continue;
+            }
+            final int index = cached.path.indexOf(start);
+            // Fewer teleports can be taken at a higher wilderness level, and the route never took those from its start
+            if (index > 0 && startWildernessLevel >= WildernessChecker.getWildernessLevel(cached.path.get(0))) {
+                final Route suffix = cached.suffix(index);
+                routes.get(entry.getKey()); // Refreshes the entry that is used
+                suffixHits++;
+                return suffix;
+            }
+        }
+
+        misses++;
+        return null;
+    }
+
+    /** Returns whether the route from a start to targets is cached, without counting a hit or a miss */
+    public synchronized boolean contains(int start, Set<Integer> targets, long fingerprint) {
+        return routes.containsKey(new Key(start, targets, fingerprint));
+    }
+
+    /**
+     * Adds the route that a search found to one of its targets.
+     *
+     * @param suffixReusable whether searches from later tiles of the route may reuse the rest of it
+     */
+    public void put(int start, Set<Integer> targets, long fingerprint, Node last, boolean suffixReusable) {
+        put(start, targets, fingerprint, last, suffixReusable, false);
+    }
+
+    /**
+     * Adds the route that a search found to one of its targets.
+     *
+     * @param suffixReusable whether searches from later tiles of the route may reuse the rest of it
+     * @param speculative whether the route was searched before it was asked for
+     */
+    public synchronized void put(int start, Set<Integer> targets, long fingerprint, Node last,
+        boolean suffixReusable, boolean speculative) {
+        final Key key = new Key(start, targets, fingerprint);
+        final Route route = new Route(last, suffixReusable, speculative);
+        final Route previous = routes.put(key, route);
+        if (previous != null) {
+            memoryBytes -= getMemoryBytes(key, previous);
+        }
+        memoryBytes += getMemoryBytes(key, route);
+
+        final Iterator<Map.Entry<Key, Route>> eldest = routes.entrySet().iterator();
+        while (memoryBytes > maxBytes && eldest.hasNext()) {
+            final Map.Entry<Key, Route> entry = eldest.next();
+            memoryBytes -= getMemoryBytes(entry.getKey(), entry.getValue());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized int size() {
+        return routes.size();
+    }
+
+    public synchronized void clear() {
+        routes.clear();
+        memoryBytes = 0;
+    }
+
+    private static long getMemoryBytes(Key key, Route route) {
+        return ENTRY_BYTES + 4L * key.targets.length + route.path.getMemoryBytes();
+    }
+
+    /** A route with the cost at every tile of its path. Routes never change after they are cached. */
+    public static class Route {
+        private final CompactPath path;
+        private final boolean suffixReusable;
+        private final boolean speculative;
+
+        private Route(Node last, boolean suffixReusable, boolean speculative) {
+            final PrimitiveIntList tiles = last.getPath();
+            final int[] costs = new int[tiles.size()];
+            int i = costs.length;
+            for (Node node = last; node != null; node = node.previous) {
+                costs[--i] = node.cost;
+            }
+            this.path = CompactPath.encode(tiles, costs);
+            this.suffixReusable = suffixReusable;
+            this.speculative = speculative;
+        }
+
+        private Route(CompactPath path) {
+            this.path = path;
+            this.suffixReusable = false;
+            this.speculative = false;
+        }
+
+        /** Returns the tiles of the route, decoded into a new list */
+        public PrimitiveIntList getPath() {
+            return path.toList();
+        }
+
+        /** Returns the cost of the route in ticks */
+        public int getCost() {
+            return path.getCost(path.size() - 1) - path.getCost(0);
+        }
+
+        /** Returns the path from the start with the costs on it, as the nodes a search would have found */
+        public Node toNode() {
+            final PrimitiveIntList tiles = path.toList();
+            final int[] costs = path.toCosts();
+            Node node = null;
+            for (int i = 0; i < tiles.size(); i++) {
+                node = new Node(tiles.get(i), node, costs[i] - costs[0]);
+            }
+            return node;
+        }
+
+        private Route suffix(int index) {
+            final PrimitiveIntList tiles = path.toList();
+            final PrimitiveIntList suffixPath = new PrimitiveIntList(tiles.size() - index);
+            for (int i = index; i < tiles.size(); i++) {
+                suffixPath.add(tiles.get(i));
+            }
+            return new Route(CompactPath.encode(suffixPath, Arrays.copyOfRange(path.toCosts(), index, tiles.size())));
+        }
+    }
+
+    private static class Key {
+        private final int start;
+        /** The sorted targets */
+        private final int[] targets;
+        private final long fingerprint;
+        private final int hash;
+
+        Key(int start, Set<Integer> targets, long fingerprint) {
+            this.start = start;
+            this.targets = targets.stream().mapToInt(Integer::intValue).sorted().toArray();
+            this.fingerprint = fingerprint;
+            this.hash = 31 * (31 * start + Arrays.hashCode(this.targets)) + Long.hashCode(fingerprint);
+        }
+
+        boolean hasTargets(Key other) {
+            return fingerprint == other.fingerprint && Arrays.equals(targets, other.targets);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return start == other.start && hasTargets(other);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package shortestpath.pathfinder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+import shortestpath.ShortestPathPlugin;
+import shortestpath.WorldPointUtil;
+
+/**
+ * Searches the routes that likely follow a search while the pathfinding thread is idle, so that the
+ * {@link RouteCache} answers them at once when they are asked for. From the target of a search it speculates the
+ * routes to the nearest bank, back to the start of the search, and to the targets that were used recently.
+ * <p>
+ * The speculation runs after the search on the pathfinding thread at the lowest priority. The next search preempts
+ * it: the speculative search that is running is cancelled and the rest are dropped.
+ * <p>
+ * Speculation stops once a search has visited the bank on the way, since the config then keeps the teleports of the
+ * bank items until the next refresh and the routes found with them would be cached under the fingerprint of a config
+ * without them.
+ */
+public class RouteSpeculator {
+    /** The most routes that are speculated after a search */
+    static final int MAX_ROUTES = 4;
+    /** The number of recently used targets that are remembered */
+    static final int MAX_RECENT_TARGETS = 4;
+
+    private final ShortestPathPlugin plugin;
+    private final PathfinderConfig config;
+    /** The recently used targets, the most recent last */
+    private final Set<Integer> recentTargets = new LinkedHashSet<>();
+    /** Incremented by every preemption, so that queued speculation knows to stop */
+    private final AtomicInteger generation = new AtomicInteger();
+    private volatile Pathfinder current;
+
+    /** The routes that were speculated and cached */
+    @Getter
+    private volatile long speculated;
+    /** The speculative searches that were cancelled by a search that was asked for */
+    @Getter
+    private volatile long preempted;
+
+    public RouteSpeculator(ShortestPathPlugin plugin, PathfinderConfig config) {
+        this.plugin = plugin;
+        this.config = config;
+    }
+
+    /**
+     * Returns the task that speculates the routes that follow a search, to run after the search on the pathfinding
+     * thread. Only searches for a single target are followed up; the target is remembered as a recent target.
+     *
+     * @param start the start of the search
+     * @param targets the targets of the search
+     * @return the task, which does nothing if it is preempted before it runs
+     */
+    public synchronized Runnable after(int start, Set<Integer> targets) {
+        final List<int[]> routes = new ArrayList<>(MAX_ROUTES);
+        if (targets.size() == 1) {
+            final int target = targets.iterator().next();
+            addRoute(routes, target, config.getNearestDestination("bank", target));
+            addRoute(routes, target, start);
+            final List<Integer> recent = new ArrayList<>(recentTargets);
+            Collections.reverse(recent);
+            for (int recentTarget : recent) {
+                addRoute(routes, target, recentTarget);
+            }
+            remember(target);
+        }
+
+        final int taskGeneration = generation.get();
+        return () -> speculate(routes, taskGeneration);
+    }
+
+    /** Cancels the running speculative search and drops the queued ones */
+    public void preempt() {
+        generation.incrementAndGet();
+        final Pathfinder search = current;
+        if (search != null) {
+            search.cancel();
+            preempted++;
+        }
+    }
+
+    private void speculate(List<int[]> routes, int taskGeneration) {
+        final Thread thread = Thread.currentThread();
+        final int priority = thread.getPriority();
+        thread.setPriority(Thread.MIN_PRIORITY);
+        try {
+            for (int[] route : routes) {
+                final Set<Integer> targets = Collections.singleton(route[1]);
+                if (generation.get() != taskGeneration || config.isBankVisitedSinceRefresh()) {
+                    return;
+                }
+                if (config.getRoutes().contains(route[0], targets, config.getFingerprint())) {
+                    continue;
+                }
+
+                final Pathfinder search = new Pathfinder(plugin, config, route[0], targets);
+                search.setSpeculative(true);
+                current = search;
+                // Checked again after publishing the search, so that a preemption either sees it or stops it here
+                if (generation.get() != taskGeneration) {
+                    return;
+                }
+                search.run();
+                if (search.isTargetReached()) {
+                    speculated++;
+                }
+            }
+        } finally {
+            current = null;
+            thread.setPriority(priority);
+        }
+    }
+
+    private void remember(int target) {
+        recentTargets.remove(target);
+        recentTargets.add(target);
+        final Iterator<Integer> oldest = recentTargets.iterator();
+        while (recentTargets.size() > MAX_RECENT_TARGETS) {
+            oldest.next();
+            oldest.remove();
+        }
+    }
+
+    private static void addRoute(List<int[]> routes, int start, int target) {
+        if (routes.size() >= MAX_ROUTES || target == WorldPointUtil.UNDEFINED || target == start) {
+            return;
+        }
+        for (int[] route : routes) {
+            if (route[1] == target) {
+                return;
+            }
+        }
+        routes.add(new int[]{start, target});
+    }
+}
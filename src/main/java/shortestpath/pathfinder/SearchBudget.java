@@ -0,0 +1,81 @@
+package shortestpath.pathfinder;
+
+import lombok.Getter;
+import shortestpath.CalculationCutoff;
+
+/**
+ * Decides when a search that stopped making progress towards its targets gives up.
+ * <p>
+ * Every time the search gets closer to a target the budget is refilled. A time budget reads {@link System#nanoTime()}
+ * only once every {@link #CLOCK_CHECK_INTERVAL} expansions, which keeps the clock out of the hot loop. A node budget
+ * counts expansions instead and does not depend on the speed of the machine, so the same search always stops at the
+ * same node.
+ */
+public class SearchBudget {
+    /** The limit that stopped a search */
+    public enum Limit {
+        NONE,
+        TIME,
+        NODES,
+    }
+
+    /** How many nodes are expanded between reads of the clock */
+    static final int CLOCK_CHECK_INTERVAL = 256;
+
+    private final boolean timeLimited;
+    private final boolean nodeLimited;
+    private final long durationNanos;
+    private final long nodeLimit;
+
+    @Getter
+    private long expansions;
+    private long nodeDeadline;
+    private long deadlineNanos;
+    /** The limit that stopped the search, or {@link Limit#NONE} if the search was not stopped by the budget */
+    @Getter
+    private Limit exhaustedLimit = Limit.NONE;
+
+    /**
+     * @param cutoff which limits apply
+     * @param durationNanos the time without progress before the search stops
+     * @param nodeLimit the number of expansions without progress before the search stops
+     */
+    public SearchBudget(CalculationCutoff cutoff, long durationNanos, long nodeLimit) {
+        timeLimited = cutoff != CalculationCutoff.NODES;
+        nodeLimited = cutoff != CalculationCutoff.TIME;
+        this.durationNanos = durationNanos;
+        this.nodeLimit = nodeLimit;
+    }
+
+    public void start() {
+        expansions = 0;
+        exhaustedLimit = Limit.NONE;
+        refill();
+    }
+
+    /** Refills the budget after the search made progress */
+    public void refill() {
+        nodeDeadline = expansions + nodeLimit;
+        if (timeLimited) {
+            deadlineNanos = System.nanoTime() + durationNanos;
+        }
+    }
+
+    /**
+     * Counts an expansion and checks the limits.
+     *
+     * @return whether the search should stop
+     */
+    public boolean expand() {
+        ++expansions;
+        if (nodeLimited && expansions > nodeDeadline) {
+            exhaustedLimit = Limit.NODES;
+            return true;
+        }
+        if (timeLimited && (expansions % CLOCK_CHECK_INTERVAL) == 0 && System.nanoTime() - deadlineNanos > 0) {
+            exhaustedLimit = Limit.TIME;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,138 @@
+package shortestpath.pathfinder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Races searches with different strategies for the same route, each on a background thread. The first search that
+ * reaches a target wins and the others are {@link Pathfinder#cancel() cancelled}. Every strategy finds the cheapest
+ * route, so only how fast they find it differs; the wins of each strategy are counted to tell which one suits the
+ * routes that are actually searched.
+ */
+public class SearchRace {
+    /** How long the race waits for a search to finish before it checks whether it was cancelled */
+    private static final long POLL_MILLIS = 10;
+
+    public enum Strategy {
+        /** Expands tiles in order of cost, without a heuristic */
+        WALKING,
+        /** Expands tiles in order of cost plus the landmark bound on the remaining cost */
+        LANDMARKS,
+        /** Jumps over the tiles of straight and diagonal walks */
+        JUMP_POINTS,
+    }
+
+    private static final Strategy[] STRATEGIES = Strategy.values();
+
+    private final AtomicLongArray wins = new AtomicLongArray(STRATEGIES.length);
+    private final AtomicLong races = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final BackgroundTasks tasks;
+
+    public SearchRace(ExecutorService background) {
+        tasks = new BackgroundTasks(background, this, STRATEGIES.length);
+    }
+
+    /**
+     * Runs the searches until one of them reaches a target, or all of them are done. The searches have to run on
+     * config that none of them changes.
+     *
+     * @param searches the searches, one per strategy
+     * @param cancelled whether the race is cancelled
+     * @return the index of the winning search, the index of the first search to finish if none reached a target, or
+     *         -1 if the race was cancelled
+     */
+    int run(Pathfinder[] searches, BooleanSupplier cancelled) {
+        final CompletionService<Pathfinder> completion = new ExecutorCompletionService<>(tasks);
+        final List<Future<Pathfinder>> futures = new ArrayList<>(searches.length);
+        for (Pathfinder search : searches) {
+            futures.add(completion.submit(search, search));
+        }
+
+        int winner = -1;
+        int firstDone = -1;
+        int finished = 0;
+        try {
+            while (finished < searches.length && winner < 0) {
+                if (cancelled.getAsBoolean()) {
+                    cancelAll(searches, futures);
+                    return -1;
+                }
+                Future<Pathfinder> future = completion.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (future == null) {
+                    continue;
+                }
+                finished++;
+                int index = futures.indexOf(future);
+                Pathfinder search = searches[index];
+                if (!search.isDone()) {
+                    continue;
+                }
+                if (search.isTargetReached()) {
+                    winner = index;
+                } else if (firstDone < 0) {
+                    firstDone = index;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelAll(searches, futures);
+            return -1;
+        }
+
+        cancelAll(searches, futures);
+        if (winner >= 0) {
+            races.incrementAndGet();
+            wins.incrementAndGet(searches[winner].getStrategy().ordinal());
+            return winner;
+        }
+        if (firstDone >= 0) {
+            // None reached a target, so the first one to give up on them is taken, but it did not win the race
+            fallbacks.incrementAndGet();
+        }
+        return firstDone;
+    }
+
+    /** Returns the number of races that a strategy won by reaching a target first */
+    public long getWins(Strategy strategy) {
+        return wins.get(strategy.ordinal());
+    }
+
+    /** Returns the share of the races that a strategy won, or 0 if there were none */
+    public double getWinRate(Strategy strategy) {
+        long total = races.get();
+        return total == 0 ? 0 : (double) getWins(strategy) / total;
+    }
+
+    /** Returns the number of races that were won, in which a search reached a target */
+    public long getRaces() {
+        return races.get();
+    }
+
+    /** Returns the number of races in which no search reached a target, which are not counted as won */
+    public long getFallbacks() {
+        return fallbacks.get();
+    }
+
+    /** Cancels the running races */
+    public synchronized void clear() {
+        tasks.cancel();
+    }
+
+    private static void cancelAll(Pathfinder[] searches, List<Future<Pathfinder>> futures) {
+        for (Pathfinder search : searches) {
+            search.cancel();
+        }
+        for (Future<Pathfinder> future : futures) {
+            future.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+
+import shortestpath.WorldPointUtil;
+
+import static net.runelite.api.Constants.REGION_SIZE;
+
+/**
+ * The lowest cost a search has reached each tile with, stored region by region like {@link VisitedTiles}.
+ */
+class TileCosts {
+    private final SplitFlagMap.RegionExtent regionExtents;
+    private final int widthInclusive;
+    private final byte[] regionPlanes;
+    private final int[][] regions;
+
+    TileCosts(CollisionMap map) {
+        regionExtents = SplitFlagMap.getRegionExtents();
+        widthInclusive = regionExtents.getWidth() + 1;
+        regionPlanes = map.getPlanes();
+        regions = new int[regionPlanes.length][];
+    }
+
+    /**
+     * Returns the lowest cost a tile was reached with, {@code Integer.MAX_VALUE} if it was not reached, or
+     * {@code -1} for tiles outside of the map so that they are never improved on.
+     */
+    int get(int packedPoint) {
+        final int regionIndex = getRegionIndex(packedPoint);
+        if (regionIndex < 0) {
+            return -1;
+        }
+        final int[] region = regions[regionIndex];
+        return region == null ? Integer.MAX_VALUE : region[getTileIndex(packedPoint)];
+    }
+
+    void set(int packedPoint, int cost) {
+        final int regionIndex = getRegionIndex(packedPoint);
+        if (regionIndex < 0) {
+            return;
+        }
+
+        int[] region = regions[regionIndex];
+        if (region == null) {
+            region = new int[regionPlanes[regionIndex] * REGION_SIZE * REGION_SIZE];
+            Arrays.fill(region, Integer.MAX_VALUE);
+            regions[regionIndex] = region;
+        }
+        region[getTileIndex(packedPoint)] = cost;
+    }
+
+    /** Returns the index of a tile's region, or -1 if the tile is outside of the collision map */
+    private int getRegionIndex(int packedPoint) {
+        final int regionX = WorldPointUtil.unpackWorldX(packedPoint) / REGION_SIZE - regionExtents.getMinX();
+        final int regionY = WorldPointUtil.unpackWorldY(packedPoint) / REGION_SIZE - regionExtents.getMinY();
+        if (regionX < 0 || regionX >= widthInclusive || regionY < 0) {
+            return -1;
+        }
+        final int regionIndex = regionX + regionY * widthInclusive;
+        return regionIndex < regions.length
+            && WorldPointUtil.unpackWorldPlane(packedPoint) < regionPlanes[regionIndex] ? regionIndex : -1;
+    }
+
+    private static int getTileIndex(int packedPoint) {
+        final int x = WorldPointUtil.unpackWorldX(packedPoint) % REGION_SIZE;
+        final int y = WorldPointUtil.unpackWorldY(packedPoint) % REGION_SIZE;
+        return (WorldPointUtil.unpackWorldPlane(packedPoint) * REGION_SIZE + y) * REGION_SIZE + x;
+    }
+}
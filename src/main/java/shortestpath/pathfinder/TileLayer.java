@@ -0,0 +1,218 @@
+package shortestpath.pathfinder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import net.runelite.api.coords.WorldArea;
+import shortestpath.WorldPointUtil;
+
+import static net.runelite.api.Constants.REGION_SIZE;
+
+/**
+ * A single bit of information per tile, such as "is in the wilderness" or "is a bank", stored region by region
+ * like {@link SplitFlagMap} so that the pathfinder can query it with a few array lookups.
+ * <p>
+ * Layers are compiled once by a {@link Builder} from areas and individual points and are immutable afterwards.
+ * Every plane of a region is a row-major array of 64 {@code long}s, one bit per tile; planes without any set tile
+ * are not allocated and planes where every tile is set share a single array.
+ */
+public class TileLayer {
+    public static final TileLayer EMPTY = new TileLayer(0, 0, 0, 0, new long[0][][]);
+
+    private static final int PLANES = 4;
+    private static final long[] FULL_PLANE = filledPlane();
+
+    private final int minRegionX;
+    private final int minRegionY;
+    private final int width;
+    private final int height;
+    private final long[][][] regions;
+
+    private TileLayer(int minRegionX, int minRegionY, int width, int height, long[][][] regions) {
+        this.minRegionX = minRegionX;
+        this.minRegionY = minRegionY;
+        this.width = width;
+        this.height = height;
+        this.regions = regions;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean get(int packedPoint) {
+        return get(WorldPointUtil.unpackWorldX(packedPoint),
+            WorldPointUtil.unpackWorldY(packedPoint),
+            WorldPointUtil.unpackWorldPlane(packedPoint));
+    }
+
+    public boolean get(int x, int y, int plane) {
+        final int regionX = x / REGION_SIZE - minRegionX;
+        final int regionY = y / REGION_SIZE - minRegionY;
+        if (regionX < 0 || regionX >= width || regionY < 0 || regionY >= height) {
+            return false;
+        }
+
+        final long[][] region = regions[regionX + regionY * width];
+        if (region == null || region[plane] == null) {
+            return false;
+        }
+        return (region[plane][y % REGION_SIZE] & (1L << (x % REGION_SIZE))) != 0;
+    }
+
+    private static long[] filledPlane() {
+        long[] plane = new long[REGION_SIZE];
+        Arrays.fill(plane, -1L);
+        return plane;
+    }
+
+    /**
+     * Collects the rules of a layer. Rules are applied in the order they were added, so an area that is removed
+     * after it was added (like the Ferox Enclave inside the wilderness) ends up unset.
+     */
+    public static class Builder {
+        private static final int ALL_PLANES = -1;
+
+        // Each rule is {set ? 1 : 0, minX, minY, maxX, maxY, plane}
+        private final List<int[]> rules = new ArrayList<>();
+
+        /** Sets every tile of the area on every plane; the plane of the area itself is ignored */
+        public Builder add(WorldArea area) {
+            return addRule(true, area, ALL_PLANES);
+        }
+
+        /** Unsets every tile of the area on every plane; the plane of the area itself is ignored */
+        public Builder remove(WorldArea area) {
+            return addRule(false, area, ALL_PLANES);
+        }
+
+        public Builder add(int packedPoint) {
+            final int x = WorldPointUtil.unpackWorldX(packedPoint);
+            final int y = WorldPointUtil.unpackWorldY(packedPoint);
+            rules.add(new int[]{1, x, y, x, y, WorldPointUtil.unpackWorldPlane(packedPoint)});
+            return this;
+        }
+
+        public Builder addAll(Collection<Integer> packedPoints) {
+            for (int packedPoint : packedPoints) {
+                add(packedPoint);
+            }
+            return this;
+        }
+
+        private Builder addRule(boolean set, WorldArea area, int plane) {
+            rules.add(new int[]{set ? 1 : 0, area.getX(), area.getY(),
+                area.getX() + area.getWidth() - 1, area.getY() + area.getHeight() - 1, plane});
+            return this;
+        }
+
+        public TileLayer build() {
+            int minRegionX = Integer.MAX_VALUE;
+            int minRegionY = Integer.MAX_VALUE;
+            int maxRegionX = Integer.MIN_VALUE;
+            int maxRegionY = Integer.MIN_VALUE;
+            for (int[] rule : rules) {
+                if (rule[0] == 1) {
+                    minRegionX = Math.min(minRegionX, rule[1] / REGION_SIZE);
+                    minRegionY = Math.min(minRegionY, rule[2] / REGION_SIZE);
+                    maxRegionX = Math.max(maxRegionX, rule[3] / REGION_SIZE);
+                    maxRegionY = Math.max(maxRegionY, rule[4] / REGION_SIZE);
+                }
+            }
+            if (minRegionX == Integer.MAX_VALUE) {
+                return EMPTY;
+            }
+
+            final int width = maxRegionX - minRegionX + 1;
+            final int height = maxRegionY - minRegionY + 1;
+            final long[][][] regions = new long[width * height][][];
+            for (int[] rule : rules) {
+                apply(rule, regions, minRegionX, minRegionY, width, height);
+            }
+            compact(regions);
+            return new TileLayer(minRegionX, minRegionY, width, height, regions);
+        }
+
+        private static void apply(int[] rule, long[][][] regions, int minRegionX, int minRegionY, int width, int height) {
+            final boolean set = rule[0] == 1;
+            final int fromPlane = rule[5] == ALL_PLANES ? 0 : rule[5];
+            final int toPlane = rule[5] == ALL_PLANES ? PLANES - 1 : rule[5];
+            final int fromRegionX = Math.max(rule[1] / REGION_SIZE, minRegionX);
+            final int fromRegionY = Math.max(rule[2] / REGION_SIZE, minRegionY);
+            final int toRegionX = Math.min(rule[3] / REGION_SIZE, minRegionX + width - 1);
+            final int toRegionY = Math.min(rule[4] / REGION_SIZE, minRegionY + height - 1);
+
+            for (int regionY = fromRegionY; regionY <= toRegionY; regionY++) {
+                final int baseY = regionY * REGION_SIZE;
+                final int fromRow = Math.max(rule[2] - baseY, 0);
+                final int toRow = Math.min(rule[4] - baseY, REGION_SIZE - 1);
+                for (int regionX = fromRegionX; regionX <= toRegionX; regionX++) {
+                    final int baseX = regionX * REGION_SIZE;
+                    final int fromColumn = Math.max(rule[1] - baseX, 0);
+                    final int toColumn = Math.min(rule[3] - baseX, REGION_SIZE - 1);
+                    // Bits fromColumn..toColumn inclusive
+                    final long mask = (-1L >>> (REGION_SIZE - 1 - toColumn)) & (-1L << fromColumn);
+
+                    final int index = (regionX - minRegionX) + (regionY - minRegionY) * width;
+                    if (regions[index] == null) {
+                        if (!set) {
+                            continue;
+                        }
+                        regions[index] = new long[PLANES][];
+                    }
+                    for (int plane = fromPlane; plane <= toPlane; plane++) {
+                        long[] rows = regions[index][plane];
+                        if (rows == null) {
+                            if (!set) {
+                                continue;
+                            }
+                            rows = regions[index][plane] = new long[REGION_SIZE];
+                        }
+                        for (int row = fromRow; row <= toRow; row++) {
+                            rows[row] = set ? rows[row] | mask : rows[row] & ~mask;
+                        }
+                    }
+                }
+            }
+        }
+
+        /** Drops planes without set tiles and shares a single array between planes where every tile is set */
+        private static void compact(long[][][] regions) {
+            for (int index = 0; index < regions.length; index++) {
+                final long[][] region = regions[index];
+                if (region == null) {
+                    continue;
+                }
+
+                boolean anySet = false;
+                for (int plane = 0; plane < PLANES; plane++) {
+                    final long[] rows = region[plane];
+                    if (rows == null) {
+                        continue;
+                    }
+                    if (Arrays.equals(rows, FULL_PLANE)) {
+                        region[plane] = FULL_PLANE;
+                    } else if (isEmpty(rows)) {
+                        region[plane] = null;
+                        continue;
+                    }
+                    anySet = true;
+                }
+                if (!anySet) {
+                    regions[index] = null;
+                }
+            }
+        }
+
+        private static boolean isEmpty(long[] rows) {
+            for (long row : rows) {
+                if (row != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
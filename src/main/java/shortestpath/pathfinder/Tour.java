@@ -0,0 +1,31 @@
+package shortestpath.pathfinder;
+
+import lombok.Getter;
+import shortestpath.PrimitiveIntList;
+
+/**
+ * A route from a start that visits every one of a set of stops, as planned by the {@link TourPlanner}.
+ */
+public class Tour {
+    @Getter
+    private final int start;
+    private final int[] stops;
+    /** The cost of the tour in ticks, or -1 if some stop cannot be reached */
+    @Getter
+    private final int cost;
+    /** The legs of the tour joined into one path, or {@code null} if the paths were not asked for or not found */
+    @Getter
+    private final PrimitiveIntList path;
+
+    Tour(int start, int[] stops, int cost, PrimitiveIntList path) {
+        this.start = start;
+        this.stops = stops;
+        this.cost = cost;
+        this.path = path;
+    }
+
+    /** Returns the stops in the order they are visited */
+    public int[] getStops() {
+        return stops.clone();
+    }
+}
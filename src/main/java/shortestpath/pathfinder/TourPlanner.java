@@ -0,0 +1,262 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+import shortestpath.PrimitiveIntList;
+
+/**
+ * Orders a set of stops so that visiting all of them from a start costs as few ticks as possible.
+ * <p>
+ * The costs are those of a {@link DistanceMatrix}, and need not be symmetric since transports are often one-way.
+ * The tour ends at its last stop. Up to {@link #HELD_KARP_MAX_STOPS} stops the order is exact; beyond that it starts
+ * from the nearest neighbour order and is improved with 2-opt and Or-opt moves until no move helps.
+ */
+public class TourPlanner {
+    /** Held-Karp needs 2^n * n states, which is about 50 000 for 12 stops */
+    static final int HELD_KARP_MAX_STOPS = 12;
+    /** The cost of a leg that is not reached, high enough to be avoided but low enough to add up without overflow */
+    static final int UNREACHED = 1 << 20;
+    /** The longest run of stops that an Or-opt move shifts */
+    private static final int OR_OPT_MAX_LENGTH = 3;
+
+    private TourPlanner() {
+    }
+
+    /**
+     * Plans the tour from a matrix whose first origin is the start and whose other origins are its targets, in the
+     * same order.
+     */
+    public static Tour plan(DistanceMatrix matrix) {
+        final int[] origins = matrix.getOrigins();
+        final int[] stops = matrix.getTargets();
+        final int[][] costs = getCosts(matrix);
+        final int[] order = order(costs);
+
+        final int[] orderedStops = new int[stops.length];
+        int cost = 0;
+        for (int i = 0; i < stops.length; i++) {
+            orderedStops[i] = stops[order[i + 1] - 1];
+            final int legCost = matrix.getCost(order[i], order[i + 1] - 1);
+            cost = legCost < 0 || cost < 0 ? -1 : cost + legCost;
+        }
+
+        PrimitiveIntList path = null;
+        if (cost >= 0 && matrix.hasPaths()) {
+            path = new PrimitiveIntList();
+            path.add(origins[0]);
+            for (int i = 0; i < stops.length; i++) {
+                final PrimitiveIntList leg = matrix.getPath(order[i], order[i + 1] - 1);
+                for (int j = 1; j < leg.size(); j++) {
+                    path.add(leg.get(j));
+                }
+            }
+        }
+        return new Tour(origins[0], orderedStops, cost, path);
+    }
+
+    /**
+     * Returns the cheapest order found to visit all nodes from node 0.
+     *
+     * @param costs the cost from every node to every other node, with {@link #UNREACHED} for legs that are not
+     *              reached; node 0 is the start
+     * @return the nodes in the order they are visited, starting with 0
+     */
+    public static int[] order(int[][] costs) {
+        if (costs.length - 1 <= HELD_KARP_MAX_STOPS) {
+            return heldKarp(costs);
+        }
+        final int[] tour = nearestNeighbour(costs);
+        improve(costs, tour);
+        return tour;
+    }
+
+    /** Returns the cost of visiting the nodes in order, without returning to the first one */
+    public static int getCost(int[][] costs, int[] tour) {
+        int cost = 0;
+        for (int i = 1; i < tour.length; i++) {
+            cost += costs[tour[i - 1]][tour[i]];
+        }
+        return cost;
+    }
+
+    /** Returns an optimal order by dynamic programming over the subsets of visited stops */
+    static int[] heldKarp(int[][] costs) {
+        final int stops = costs.length - 1;
+        final int subsets = 1 << stops;
+        // best[subset * stops + last] is the cheapest cost of visiting the subset from the start, ending at last
+        final int[] best = new int[subsets * stops];
+        final byte[] previous = new byte[subsets * stops];
+        Arrays.fill(best, Integer.MAX_VALUE);
+        for (int last = 0; last < stops; last++) {
+            best[(1 << last) * stops + last] = costs[0][last + 1];
+            previous[(1 << last) * stops + last] = -1;
+        }
+
+        for (int subset = 1; subset < subsets; subset++) {
+            for (int last = 0; last < stops; last++) {
+                final int cost = best[subset * stops + last];
+                if (cost == Integer.MAX_VALUE) {
+                    continue;
+                }
+                for (int next = 0; next < stops; next++) {
+                    if ((subset & (1 << next)) != 0) {
+                        continue;
+                    }
+                    final int state = (subset | (1 << next)) * stops + next;
+                    final int nextCost = cost + costs[last + 1][next + 1];
+                    if (nextCost < best[state]) {
+                        best[state] = nextCost;
+                        previous[state] = (byte) last;
+                    }
+                }
+            }
+        }
+
+        final int all = subsets - 1;
+        int last = 0;
+        for (int i = 1; i < stops; i++) {
+            if (best[all * stops + i] < best[all * stops + last]) {
+                last = i;
+            }
+        }
+
+        final int[] tour = new int[stops + 1];
+        int subset = all;
+        for (int i = stops; i > 0; i--) {
+            tour[i] = last + 1;
+            final int before = previous[subset * stops + last];
+            subset &= ~(1 << last);
+            last = before;
+        }
+        return tour;
+    }
+
+    /** Returns the order that always moves on to the cheapest stop not visited yet */
+    static int[] nearestNeighbour(int[][] costs) {
+        final int[] tour = new int[costs.length];
+        final boolean[] visited = new boolean[costs.length];
+        visited[0] = true;
+        for (int i = 1; i < tour.length; i++) {
+            int nearest = -1;
+            for (int node = 1; node < costs.length; node++) {
+                if (!visited[node] && (nearest < 0 || costs[tour[i - 1]][node] < costs[tour[i - 1]][nearest])) {
+                    nearest = node;
+                }
+            }
+            tour[i] = nearest;
+            visited[nearest] = true;
+        }
+        return tour;
+    }
+
+    /** Applies improving 2-opt and Or-opt moves to a tour until none is left */
+    static void improve(int[][] costs, int[] tour) {
+        boolean improved = true;
+        while (improved) {
+            improved = twoOpt(costs, tour) | orOpt(costs, tour);
+        }
+    }
+
+    /**
+     * Reverses runs of the tour wherever that makes it cheaper. The costs of the reversed legs are kept as prefix
+     * sums in both directions, since reversing a run changes its cost when the costs are not symmetric.
+     */
+    private static boolean twoOpt(int[][] costs, int[] tour) {
+        final int n = tour.length;
+        final int[] forward = new int[n];
+        final int[] backward = new int[n];
+        boolean improved = false;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 1; i < n; i++) {
+                forward[i] = forward[i - 1] + costs[tour[i - 1]][tour[i]];
+                backward[i] = backward[i - 1] + costs[tour[i]][tour[i - 1]];
+            }
+            search:
+            for (int i = 1; i < n - 1; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    final int after = j + 1 < n ? tour[j + 1] : -1;
+                    final int before = costs[tour[i - 1]][tour[i]] + forward[j] - forward[i]
+                        + (after < 0 ? 0 : costs[tour[j]][after]);
+                    final int reversed = costs[tour[i - 1]][tour[j]] + backward[j] - backward[i]
+                        + (after < 0 ? 0 : costs[tour[i]][after]);
+                    if (reversed < before) {
+                        reverse(tour, i, j);
+                        improved = changed = true;
+                        break search;
+                    }
+                }
+            }
+        }
+        return improved;
+    }
+
+    /** Moves short runs of the tour to other places in it wherever that makes it cheaper */
+    private static boolean orOpt(int[][] costs, int[] tour) {
+        final int n = tour.length;
+        boolean improved = false;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            search:
+            for (int length = 1; length <= OR_OPT_MAX_LENGTH; length++) {
+                for (int i = 1; i + length <= n; i++) {
+                    final int first = tour[i];
+                    final int last = tour[i + length - 1];
+                    final int before = tour[i - 1];
+                    final int after = i + length < n ? tour[i + length] : -1;
+                    final int removed = costs[before][first] + (after < 0 ? 0 : costs[last][after]
+                        - costs[before][after]);
+
+                    // Insert the run between tour[j] and tour[j + 1], where j is outside of it
+                    for (int j = 0; j < n; j++) {
+                        if (j >= i - 1 && j < i + length) {
+                            continue;
+                        }
+                        final int next = j + 1 < n ? tour[j + 1] : -1;
+                        final int added = costs[tour[j]][first] + (next < 0 ? 0 : costs[last][next]
+                            - costs[tour[j]][next]);
+                        if (added < removed) {
+                            move(tour, i, length, j);
+                            improved = changed = true;
+                            break search;
+                        }
+                    }
+                }
+            }
+        }
+        return improved;
+    }
+
+    private static void reverse(int[] tour, int from, int to) {
+        for (int i = from, j = to; i < j; i++, j--) {
+            final int node = tour[i];
+            tour[i] = tour[j];
+            tour[j] = node;
+        }
+    }
+
+    /** Moves the run of a length at an index so that it follows the node now at another index */
+    private static void move(int[] tour, int from, int length, int after) {
+        final int[] run = Arrays.copyOfRange(tour, from, from + length);
+        if (after < from) {
+            System.arraycopy(tour, after + 1, tour, after + 1 + length, from - after - 1);
+            System.arraycopy(run, 0, tour, after + 1, length);
+        } else {
+            System.arraycopy(tour, from + length, tour, from, after - from - length + 1);
+            System.arraycopy(run, 0, tour, after - length + 1, length);
+        }
+    }
+
+    private static int[][] getCosts(DistanceMatrix matrix) {
+        final int stops = matrix.getTargets().length;
+        final int[][] costs = new int[stops + 1][stops + 1];
+        for (int origin = 0; origin <= stops; origin++) {
+            for (int stop = 0; stop < stops; stop++) {
+                final int cost = matrix.getCost(origin, stop);
+                costs[origin][stop + 1] = origin == stop + 1 ? 0 : cost < 0 ? UNREACHED : cost;
+            }
+        }
+        return costs;
+    }
+}
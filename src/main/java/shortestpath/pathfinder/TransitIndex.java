@@ -0,0 +1,81 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the {@link TransitTable} of the usable transports.
+ * <p>
+ * The table is computed on the background threads the first time it is asked for, and again whenever the usable
+ * transports, teleports or the wilderness setting change. Until it is ready, callers fall back to a regular search.
+ */
+@Slf4j
+public class TransitIndex {
+    private final PathfinderConfig config;
+    private TransitTable table;
+    private final BackgroundTasks tasks;
+    /** Usable transports with an origin as sorted (origin, destination, cost) triples */
+    private int[] transports = new int[0];
+    private int[] teleportDestinations = new int[0];
+    private boolean avoidWilderness;
+
+    public TransitIndex(PathfinderConfig config) {
+        this.config = config;
+        tasks = new BackgroundTasks(config.getBackground(), this, 1);
+    }
+
+    /**
+     * Returns the transit table, or {@code null} if it is not computed yet, in which case its computation is
+     * scheduled.
+     */
+    public synchronized TransitTable get() {
+        if (table == null) {
+            final int[] tableTransports = transports;
+            final int[] tableTeleportDestinations = teleportDestinations;
+            final boolean tableAvoidWilderness = avoidWilderness;
+            tasks.schedule(TransitTable.class, () -> compute(tableTransports, tableTeleportDestinations,
+                tableAvoidWilderness), computed -> table = computed);
+        }
+        return table;
+    }
+
+    /**
+     * Updates the inputs of the table, and drops the table if the inputs changed.
+     *
+     * @param transports usable transports with an origin as sorted (origin, destination, cost) triples
+     * @param teleportDestinations the sorted destinations of the usable teleports without an origin
+     * @param avoidWilderness whether walking into the wilderness is avoided
+     */
+    public synchronized void setTransports(int[] transports, int[] teleportDestinations, boolean avoidWilderness) {
+        if (avoidWilderness == this.avoidWilderness && Arrays.equals(transports, this.transports)
+            && Arrays.equals(teleportDestinations, this.teleportDestinations)) {
+            return;
+        }
+
+        this.transports = transports;
+        this.teleportDestinations = teleportDestinations;
+        this.avoidWilderness = avoidWilderness;
+        invalidate();
+    }
+
+    public synchronized void clear() {
+        table = null;
+        tasks.cancel();
+    }
+
+    private void invalidate() {
+        table = null;
+        tasks.invalidate();
+    }
+
+    private TransitTable compute(int[] transports, int[] teleportDestinations, boolean avoidWilderness) {
+        long startNanos = System.nanoTime();
+        TransitTable computed = TransitTable.compute(config.getMap(), transports, teleportDestinations,
+            avoidWilderness);
+        if (computed != null) {
+            log.debug("Computed transit table of {} nodes in {} ms using {} KiB", computed.size(),
+                (System.nanoTime() - startNanos) / 1_000_000, computed.getMemoryBytes() / 1024);
+        }
+        return computed;
+    }
+}
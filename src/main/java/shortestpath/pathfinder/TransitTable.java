@@ -0,0 +1,524 @@
+package shortestpath.pathfinder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import shortestpath.PrimitiveIntHashMap;
+import shortestpath.PrimitiveIntList;
+import shortestpath.WorldPointUtil;
+
+/**
+ * The lowest number of ticks between every pair of transit nodes, so that long routes are answered by a search
+ * around the start, a search around the target and table lookups, instead of a search over the whole map
+ * (transit-node routing).
+ * <p>
+ * Transports that cover more than {@link #LOCAL_TRANSPORT_DISTANCE} tiles and teleports without an origin form the
+ * transit network, and their destinations are the transit nodes. Doors, stairs and other short transports are
+ * taken by the local searches like walking. The table is built from a local search around every transit node, which
+ * finds the transit transports within {@link #LOCAL_RADIUS} ticks of walking, followed by a search over the resulting
+ * graph of transit nodes from each of them.
+ * <p>
+ * Walks between transports that are longer than the local radius are not part of the table, so a route through the
+ * table can be longer than the shortest route. Targets within the local radius of the start are left to a regular
+ * search.
+ */
+public class TransitTable {
+    /** Transports that cover at most this many tiles are part of the local searches */
+    static final int LOCAL_TRANSPORT_DISTANCE = 64;
+    /** How many ticks the local searches walk */
+    static final int LOCAL_RADIUS = 128;
+    private static final char UNREACHED = Character.MAX_VALUE;
+    private static final int MAX_COST = UNREACHED - 1;
+    private static final OrdinalDirection[] ORDINAL_VALUES = OrdinalDirection.values();
+    private static final OrdinalDirection[] CARDINAL_VALUES = {
+        OrdinalDirection.WEST, OrdinalDirection.EAST, OrdinalDirection.SOUTH, OrdinalDirection.NORTH};
+
+    private final boolean avoidWilderness;
+    /** The transit nodes as sorted packed tiles */
+    private final int[] nodes;
+    /** The cost from every transit node to every transit node, indexed by from * nodes + to */
+    private final char[] costs;
+    // The transit graph: edges of node i are edgeStart[i] until edgeStart[i + 1], each walking from the node to a
+    // transport origin and taking the transport to another node
+    private final int[] edgeStart;
+    private int[] edgeTarget;
+    private int[] edgeOrigin;
+    private int[] edgeCost;
+    /** Transit transports by origin as (destination node, cost) pairs */
+    private final PrimitiveIntHashMap<PrimitiveIntList> transitByOrigin;
+    // Short transports by origin and by destination as (tile, cost) pairs, and their origins for blocked tile lookups
+    private final PrimitiveIntHashMap<PrimitiveIntList> localByOrigin;
+    private final PrimitiveIntHashMap<PrimitiveIntList> localByDestination;
+    private final TileLayer localOrigins;
+
+    private TransitTable(boolean avoidWilderness, int[] nodes,
+        PrimitiveIntHashMap<PrimitiveIntList> transitByOrigin, PrimitiveIntHashMap<PrimitiveIntList> localByOrigin,
+        PrimitiveIntHashMap<PrimitiveIntList> localByDestination, TileLayer localOrigins) {
+        this.avoidWilderness = avoidWilderness;
+        this.nodes = nodes;
+        this.transitByOrigin = transitByOrigin;
+        this.localByOrigin = localByOrigin;
+        this.localByDestination = localByDestination;
+        this.localOrigins = localOrigins;
+        costs = new char[nodes.length * nodes.length];
+        edgeStart = new int[nodes.length + 1];
+    }
+
+    /** Returns the number of transit nodes */
+    public int size() {
+        return nodes.length;
+    }
+
+    /** Returns the size of the cost table and the transit graph in bytes */
+    public long getMemoryBytes() {
+        return (long) costs.length * Character.BYTES + (long) edgeStart.length * Integer.BYTES
+            + 3L * edgeTarget.length * Integer.BYTES;
+    }
+
+    /**
+     * Returns the number of ticks from one transit node to another.
+     *
+     * @return the cost, or {@code -1} if either tile is not a transit node or the other node cannot be reached
+     */
+    public int getCost(int fromPackedPoint, int toPackedPoint) {
+        final int from = Arrays.binarySearch(nodes, fromPackedPoint);
+        final int to = Arrays.binarySearch(nodes, toPackedPoint);
+        if (from < 0 || to < 0 || costs[from * nodes.length + to] == UNREACHED) {
+            return -1;
+        }
+        return costs[from * nodes.length + to];
+    }
+
+    /**
+     * Finds a route through the transit network.
+     *
+     * @param map the collision map of the calling thread
+     * @param start the tile the route starts from
+     * @param targets the tiles the route can end at
+     * @param startTransports transports that can be taken from the start, such as teleports, as (destination, cost)
+     *                        pairs
+     * @return the tiles of the route, or {@code null} if a target is within the local radius of the start, or no
+     * target can be reached through the transit network
+     */
+    public PrimitiveIntList route(CollisionMap map, int start, Set<Integer> targets, int[] startTransports) {
+        final LocalSearch forward = new LocalSearch(map, true);
+        forward.seed(start);
+        if (forward.run(targets)) {
+            return null; // Near enough for a regular search
+        }
+
+        // The cheapest way to arrive at each node with the first transit transport
+        final int[] accessCosts = new int[nodes.length];
+        final int[] accessOrigins = new int[nodes.length];
+        Arrays.fill(accessCosts, Integer.MAX_VALUE);
+        for (int i = 0; i < forward.reached.size(); i++) {
+            final int tile = forward.reached.get(i);
+            final PrimitiveIntList transports = transitByOrigin.get(tile);
+            if (transports != null) {
+                final int walk = forward.getCost(tile);
+                for (int j = 0; j < transports.size(); j += 2) {
+                    final int node = transports.get(j);
+                    if (walk + transports.get(j + 1) < accessCosts[node]) {
+                        accessCosts[node] = walk + transports.get(j + 1);
+                        accessOrigins[node] = tile;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < startTransports.length; i += 2) {
+            final int node = Arrays.binarySearch(nodes, startTransports[i]);
+            if (node >= 0 && startTransports[i + 1] < accessCosts[node]) {
+                accessCosts[node] = startTransports[i + 1];
+                accessOrigins[node] = start;
+            }
+        }
+
+        final LocalSearch backward = new LocalSearch(map, false);
+        for (int target : targets) {
+            backward.seed(target);
+        }
+        backward.run(Collections.emptySet());
+        final PrimitiveIntList egress = new PrimitiveIntList();
+        for (int i = 0; i < backward.reached.size(); i++) {
+            final int node = Arrays.binarySearch(nodes, backward.reached.get(i));
+            if (node >= 0) {
+                egress.add(node);
+                egress.add(backward.getCost(backward.reached.get(i)));
+            }
+        }
+
+        int bestCost = Integer.MAX_VALUE;
+        int bestAccess = -1;
+        int bestEgress = -1;
+        for (int access = 0; access < nodes.length; access++) {
+            if (accessCosts[access] == Integer.MAX_VALUE) {
+                continue;
+            }
+            final int row = access * nodes.length;
+            for (int i = 0; i < egress.size(); i += 2) {
+                final int transit = costs[row + egress.get(i)];
+                if (transit != UNREACHED && accessCosts[access] + transit + egress.get(i + 1) < bestCost) {
+                    bestCost = accessCosts[access] + transit + egress.get(i + 1);
+                    bestAccess = access;
+                    bestEgress = egress.get(i);
+                }
+            }
+        }
+        if (bestAccess < 0) {
+            return null;
+        }
+
+        final PrimitiveIntList path = forward.getPath(accessOrigins[bestAccess]);
+        path.add(nodes[bestAccess]);
+        if (!appendTransitPath(map, path, bestAccess, bestEgress)) {
+            return null;
+        }
+        backward.appendPathFrom(path, nodes[bestEgress]);
+        return path;
+    }
+
+    /**
+     * Builds the table. This takes a while and is meant to run in the background; it returns {@code null} if the
+     * thread is interrupted.
+     *
+     * @param map the collision map, which must not be shared with another thread
+     * @param transports usable transports with an origin as (origin, destination, cost) triples
+     * @param teleportDestinations the destinations of the usable teleports without an origin
+     * @param avoidWilderness whether walking or travelling into the wilderness from outside of it is avoided
+     */
+    public static TransitTable compute(CollisionMap map, int[] transports, int[] teleportDestinations,
+        boolean avoidWilderness) {
+        final PrimitiveIntList nodeList = new PrimitiveIntList();
+        final PrimitiveIntHashMap<PrimitiveIntList> localByOrigin = new PrimitiveIntHashMap<>(transports.length / 3);
+        final PrimitiveIntHashMap<PrimitiveIntList> localByDestination = new PrimitiveIntHashMap<>(transports.length / 3);
+        final TileLayer.Builder localOriginsBuilder = TileLayer.builder();
+        for (int i = 0; i < transports.length; i += 3) {
+            if (isTransit(transports[i], transports[i + 1])) {
+                nodeList.add(transports[i + 1]);
+            } else {
+                add(localByOrigin, transports[i], transports[i + 1], transports[i + 2]);
+                add(localByDestination, transports[i + 1], transports[i], transports[i + 2]);
+                localOriginsBuilder.add(transports[i]);
+            }
+        }
+        for (int destination : teleportDestinations) {
+            nodeList.add(destination);
+        }
+        final int[] nodes = new int[nodeList.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = nodeList.get(i);
+        }
+        Arrays.sort(nodes);
+        final int[] uniqueNodes = Arrays.stream(nodes).distinct().toArray();
+
+        final PrimitiveIntHashMap<PrimitiveIntList> transitByOrigin = new PrimitiveIntHashMap<>(uniqueNodes.length);
+        for (int i = 0; i < transports.length; i += 3) {
+            if (isTransit(transports[i], transports[i + 1])) {
+                add(transitByOrigin, transports[i], Arrays.binarySearch(uniqueNodes, transports[i + 1]), transports[i + 2]);
+            }
+        }
+
+        // Walk from every node to the transit transports near it
+        final TransitTable result = new TransitTable(avoidWilderness, uniqueNodes, transitByOrigin,
+            localByOrigin, localByDestination, localOriginsBuilder.build());
+        final PrimitiveIntList[] walks = new PrimitiveIntList[uniqueNodes.length];
+        int edges = 0;
+        for (int node = 0; node < uniqueNodes.length; node++) {
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            final LocalSearch search = result.new LocalSearch(map, true);
+            search.seed(uniqueNodes[node]);
+            search.run(Collections.emptySet());
+            walks[node] = new PrimitiveIntList();
+            for (int i = 0; i < search.reached.size(); i++) {
+                final int tile = search.reached.get(i);
+                final PrimitiveIntList transits = transitByOrigin.get(tile);
+                if (transits != null) {
+                    for (int j = 0; j < transits.size(); j += 2) {
+                        walks[node].add(transits.get(j));
+                        walks[node].add(tile);
+                        walks[node].add(search.getCost(tile) + transits.get(j + 1));
+                    }
+                    edges += transits.size() / 2;
+                }
+            }
+        }
+
+        result.edgeTarget = new int[edges];
+        result.edgeOrigin = new int[edges];
+        result.edgeCost = new int[edges];
+        int edge = 0;
+        for (int node = 0; node < uniqueNodes.length; node++) {
+            result.edgeStart[node] = edge;
+            for (int i = 0; i < walks[node].size(); i += 3, edge++) {
+                result.edgeTarget[edge] = walks[node].get(i);
+                result.edgeOrigin[edge] = walks[node].get(i + 1);
+                result.edgeCost[edge] = walks[node].get(i + 2);
+            }
+        }
+        result.edgeStart[uniqueNodes.length] = edge;
+
+        final int[] nodeCosts = new int[uniqueNodes.length];
+        for (int node = 0; node < uniqueNodes.length; node++) {
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            result.searchTransitGraph(node, nodeCosts, null);
+            for (int other = 0; other < uniqueNodes.length; other++) {
+                result.costs[node * uniqueNodes.length + other] = nodeCosts[other] > MAX_COST
+                    ? UNREACHED : (char) nodeCosts[other];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs a search over the transit graph from a node with a bucket per cost.
+     *
+     * @param nodeCosts receives the cost of every node, {@code Integer.MAX_VALUE} for nodes that were not reached
+     * @param previousEdges receives the edge every node was reached by, or is {@code null}
+     */
+    private void searchTransitGraph(int from, int[] nodeCosts, int[] previousEdges) {
+        Arrays.fill(nodeCosts, Integer.MAX_VALUE);
+        final List<PrimitiveIntList> buckets = new ArrayList<>();
+        nodeCosts[from] = 0;
+        addToBucket(buckets, 0, from);
+        for (int cost = 0; cost < buckets.size(); cost++) {
+            final PrimitiveIntList bucket = buckets.get(cost);
+            if (bucket == null) {
+                continue;
+            }
+            for (int i = 0; i < bucket.size(); i++) {
+                final int node = bucket.get(i);
+                if (nodeCosts[node] != cost) {
+                    continue; // Reached again with a lower cost after it was queued
+                }
+                for (int edge = edgeStart[node]; edge < edgeStart[node + 1]; edge++) {
+                    final int next = edgeTarget[edge];
+                    final int nextCost = cost + edgeCost[edge];
+                    if (nextCost < nodeCosts[next] && nextCost <= MAX_COST) {
+                        nodeCosts[next] = nextCost;
+                        if (previousEdges != null) {
+                            previousEdges[next] = edge;
+                        }
+                        addToBucket(buckets, nextCost, next);
+                    }
+                }
+            }
+            buckets.set(cost, null);
+        }
+    }
+
+    /** Appends the tiles between two nodes, without the first node, following the transit graph */
+    private boolean appendTransitPath(CollisionMap map, PrimitiveIntList path, int from, int to) {
+        if (from == to) {
+            return true;
+        }
+
+        final int[] nodeCosts = new int[nodes.length];
+        final int[] previousEdges = new int[nodes.length];
+        searchTransitGraph(from, nodeCosts, previousEdges);
+        if (nodeCosts[to] == Integer.MAX_VALUE) {
+            return false;
+        }
+
+        final PrimitiveIntList edges = new PrimitiveIntList();
+        for (int node = to; node != from; ) {
+            final int edge = previousEdges[node];
+            edges.add(edge);
+            node = findEdgeSource(edge);
+        }
+        for (int i = edges.size() - 1; i >= 0; i--) {
+            final int edge = edges.get(i);
+            final LocalSearch walk = new LocalSearch(map, true);
+            walk.seed(nodes[findEdgeSource(edge)]);
+            walk.run(Collections.singleton(edgeOrigin[edge]));
+            final PrimitiveIntList leg = walk.getPath(edgeOrigin[edge]);
+            for (int j = 1; j < leg.size(); j++) {
+                path.add(leg.get(j));
+            }
+            path.add(nodes[edgeTarget[edge]]);
+        }
+        return true;
+    }
+
+    private int findEdgeSource(int edge) {
+        int low = 0;
+        int high = nodes.length - 1;
+        while (low < high) {
+            final int mid = (low + high + 1) >>> 1;
+            if (edgeStart[mid] <= edge) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * A search over walking and the short transports, from the start or towards the targets of a route, that stops
+     * at {@link #LOCAL_RADIUS} ticks.
+     */
+    private class LocalSearch {
+        private final CollisionMap map;
+        private final boolean forward;
+        private final TileCosts tileCosts;
+        /** The tile each tile was reached from, or the tile it leads to in a backward search */
+        private final TileCosts parents;
+        private final List<PrimitiveIntList> buckets = new ArrayList<>();
+        /** The reached tiles in the order they were reached */
+        private final PrimitiveIntList reached = new PrimitiveIntList();
+
+        LocalSearch(CollisionMap map, boolean forward) {
+            this.map = map;
+            this.forward = forward;
+            tileCosts = new TileCosts(map);
+            parents = new TileCosts(map);
+        }
+
+        /** Returns the cost a tile was reached with, or -1 if it was not reached */
+        int getCost(int packedPoint) {
+            final int cost = tileCosts.get(packedPoint);
+            return cost == Integer.MAX_VALUE ? -1 : cost;
+        }
+
+        void seed(int packedPoint) {
+            relax(packedPoint, WorldPointUtil.UNDEFINED, 0);
+        }
+
+        /**
+         * Runs the search from the seeded tiles.
+         *
+         * @param stopAt tiles to stop at once one of them is reached
+         * @return whether the search stopped at one of the tiles
+         */
+        boolean run(Set<Integer> stopAt) {
+            for (int cost = 0; cost < buckets.size(); cost++) {
+                final PrimitiveIntList bucket = buckets.get(cost);
+                if (bucket == null) {
+                    continue;
+                }
+
+                for (int i = 0; i < bucket.size(); i++) {
+                    final int packedPoint = bucket.get(i);
+                    if (tileCosts.get(packedPoint) != cost) {
+                        continue; // Reached again with a lower cost after it was queued
+                    }
+                    reached.add(packedPoint);
+                    if (!stopAt.isEmpty() && stopAt.contains(packedPoint)) {
+                        return true;
+                    }
+                    expand(packedPoint, cost);
+                }
+                buckets.set(cost, null);
+            }
+            return false;
+        }
+
+        private void expand(int packedPoint, int cost) {
+            final int x = WorldPointUtil.unpackWorldX(packedPoint);
+            final int y = WorldPointUtil.unpackWorldY(packedPoint);
+            final int z = WorldPointUtil.unpackWorldPlane(packedPoint);
+            final boolean[] traversable = forward ? map.getTraversable(x, y, z) : null;
+            for (OrdinalDirection direction : ORDINAL_VALUES) {
+                if (forward) {
+                    if (traversable[direction.ordinal()]) {
+                        step(packedPoint, WorldPointUtil.packWorldPoint(x + direction.x, y + direction.y, z), cost + 1);
+                    }
+                } else if (map.isTraversable(x - direction.x, y - direction.y, z, direction)) {
+                    step(packedPoint, WorldPointUtil.packWorldPoint(x - direction.x, y - direction.y, z), cost + 1);
+                }
+            }
+
+            // Transports starting from a blocked tile are entered from the tiles next to it
+            for (OrdinalDirection direction : CARDINAL_VALUES) {
+                if (forward) {
+                    final int next = WorldPointUtil.packWorldPoint(x + direction.x, y + direction.y, z);
+                    if (!traversable[direction.ordinal()] && (localOrigins.get(next) || transitByOrigin.get(next) != null)
+                        && map.isBlocked(x + direction.x, y + direction.y, z)) {
+                        step(packedPoint, next, cost + 1);
+                    }
+                } else if ((localOrigins.get(packedPoint) || transitByOrigin.get(packedPoint) != null)
+                    && map.isBlocked(x, y, z)) {
+                    step(packedPoint, WorldPointUtil.packWorldPoint(x - direction.x, y - direction.y, z), cost + 1);
+                }
+            }
+
+            final PrimitiveIntList transports = (forward ? localByOrigin : localByDestination).get(packedPoint);
+            if (transports != null) {
+                for (int j = 0; j < transports.size(); j += 2) {
+                    step(packedPoint, transports.get(j), cost + transports.get(j + 1));
+                }
+            }
+        }
+
+        private void step(int from, int to, int cost) {
+            if (avoidWilderness) {
+                final int outside = forward ? from : to;
+                final int inside = forward ? to : from;
+                if (!WildernessChecker.isInWilderness(outside) && WildernessChecker.isInWilderness(inside)) {
+                    return;
+                }
+            }
+            relax(to, from, cost);
+        }
+
+        private void relax(int packedPoint, int parent, int cost) {
+            if (cost > LOCAL_RADIUS || cost >= tileCosts.get(packedPoint)) {
+                return; // Too far away, outside of the map, or already reached with a lower cost
+            }
+            tileCosts.set(packedPoint, cost);
+            parents.set(packedPoint, parent);
+            addToBucket(buckets, cost, packedPoint);
+        }
+
+        /** Returns the tiles from the source of a forward search to a reached tile */
+        PrimitiveIntList getPath(int packedPoint) {
+            final PrimitiveIntList reversed = new PrimitiveIntList();
+            for (int tile = packedPoint; tile != WorldPointUtil.UNDEFINED; tile = parents.get(tile)) {
+                reversed.add(tile);
+            }
+            final PrimitiveIntList path = new PrimitiveIntList(reversed.size());
+            for (int i = reversed.size() - 1; i >= 0; i--) {
+                path.add(reversed.get(i));
+            }
+            return path;
+        }
+
+        /** Appends the tiles from a tile reached by a backward search to the target it leads to, without the tile */
+        void appendPathFrom(PrimitiveIntList path, int packedPoint) {
+            for (int tile = parents.get(packedPoint); tile != WorldPointUtil.UNDEFINED; tile = parents.get(tile)) {
+                path.add(tile);
+            }
+        }
+    }
+
+    private static void addToBucket(List<PrimitiveIntList> buckets, int cost, int value) {
+        while (buckets.size() <= cost) {
+            buckets.add(null);
+        }
+        if (buckets.get(cost) == null) {
+            buckets.set(cost, new PrimitiveIntList());
+        }
+        buckets.get(cost).add(value);
+    }
+
+    private static boolean isTransit(int origin, int destination) {
+        return WorldPointUtil.distanceBetween2D(origin, destination) > LOCAL_TRANSPORT_DISTANCE;
+    }
+
+    private static void add(PrimitiveIntHashMap<PrimitiveIntList> edges, int from, int to, int cost) {
+        PrimitiveIntList list = edges.get(from);
+        if (list == null) {
+            list = new PrimitiveIntList(2);
+            edges.put(from, list);
+        }
+        list.add(to);
+        list.add(cost);
+    }
+}
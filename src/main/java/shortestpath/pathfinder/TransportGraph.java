@@ -0,0 +1,37 @@
+package shortestpath.pathfinder;
+
+import shortestpath.PrimitiveIntHashMap;
+import shortestpath.PrimitiveIntList;
+
+/** Transports with an origin by origin and by destination as (tile, cost) pairs, for searches that run on their own */
+class TransportGraph {
+    final PrimitiveIntHashMap<PrimitiveIntList> byOrigin;
+    final PrimitiveIntHashMap<PrimitiveIntList> byDestination;
+    /** The transport origins, for transports that are entered from the tiles next to a blocked origin */
+    final TileLayer origins;
+
+    /**
+     * @param transports transports with an origin as (origin, destination, cost) triples
+     */
+    TransportGraph(int[] transports) {
+        byOrigin = new PrimitiveIntHashMap<>(transports.length / 3);
+        byDestination = new PrimitiveIntHashMap<>(transports.length / 3);
+        final TileLayer.Builder originsBuilder = TileLayer.builder();
+        for (int i = 0; i < transports.length; i += 3) {
+            add(byOrigin, transports[i], transports[i + 1], transports[i + 2]);
+            add(byDestination, transports[i + 1], transports[i], transports[i + 2]);
+            originsBuilder.add(transports[i]);
+        }
+        origins = originsBuilder.build();
+    }
+
+    private static void add(PrimitiveIntHashMap<PrimitiveIntList> edges, int from, int to, int cost) {
+        PrimitiveIntList list = edges.get(from);
+        if (list == null) {
+            list = new PrimitiveIntList(2);
+            edges.put(from, list);
+        }
+        list.add(to);
+        list.add(cost);
+    }
+}
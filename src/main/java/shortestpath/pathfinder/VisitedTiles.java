@@ -1,5 +1,7 @@
 package shortestpath.pathfinder;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import shortestpath.WorldPointUtil;
 import static net.runelite.api.Constants.REGION_SIZE;
 
@@ -62,6 +64,60 @@ public class VisitedTiles {
         return region.set(x % REGION_SIZE, y % REGION_SIZE, plane);
     }
 
+    /**
+     * Makes sure that the bitset of the region of a tile exists, so that {@link #claim} can set its tiles from other
+     * threads.
+     */
+    public void prepare(int x, int y) {
+        final int regionIndex = getRegionIndex(x / REGION_SIZE, y / REGION_SIZE);
+        if (regionIndex >= 0 && regionIndex < visitedRegions.length && visitedRegions[regionIndex] == null) {
+            visitedRegions[regionIndex] = new VisitedRegion(visitedRegionPlanes[regionIndex]);
+        }
+    }
+
+    /**
+     * Sets a tile like {@link #set(int, int, int)}, but atomically, so that threads expanding a search together
+     * each claim a different tile. The region of the tile has to be {@link #prepare prepared} before the threads
+     * start; tiles of other regions are reported as visited.
+     */
+    public boolean claim(int x, int y, int plane) {
+        final int regionIndex = getRegionIndex(x / REGION_SIZE, y / REGION_SIZE);
+        if (regionIndex < 0 || regionIndex >= visitedRegions.length || visitedRegions[regionIndex] == null) {
+            return false;
+        }
+        return visitedRegions[regionIndex].claim(x % REGION_SIZE, y % REGION_SIZE, plane);
+    }
+
+    /**
+     * Returns whether a tile is set. Unlike {@link #get(int)}, tiles outside of the regions and planes of the
+     * collision map are reported as not set.
+     */
+    public boolean contains(int packedPoint) {
+        final int x = WorldPointUtil.unpackWorldX(packedPoint);
+        final int y = WorldPointUtil.unpackWorldY(packedPoint);
+        final int plane = WorldPointUtil.unpackWorldPlane(packedPoint);
+        final int regionIndex = getRegionIndex(x / REGION_SIZE, y / REGION_SIZE);
+        if (x < 0 || y < 0 || regionIndex < 0 || regionIndex >= visitedRegions.length
+            || visitedRegions[regionIndex] == null || plane >= visitedRegions[regionIndex].planeCount) {
+            return false;
+        }
+        return visitedRegions[regionIndex].get(x % REGION_SIZE, y % REGION_SIZE, plane);
+    }
+
+    public int getRegionCount() {
+        return visitedRegions.length;
+    }
+
+    /**
+     * Returns the tile bitset of a region as one row of 64 tiles per y and plane, indexed by y + plane * 64, or
+     * {@code null} if no tile of the region is set. The array is the one the tiles are kept in and must not be
+     * changed.
+     */
+    public long[] getRegionRows(int regionIndex) {
+        final VisitedRegion region = visitedRegions[regionIndex];
+        return region == null ? null : region.planes;
+    }
+
     public void clear() {
         for (int i = 0; i < visitedRegions.length; ++i) {
             if (visitedRegions[i] != null) {
@@ -83,6 +139,8 @@ public class VisitedTiles {
     }
 
     private static class VisitedRegion {
+        private static final VarHandle ROWS = MethodHandles.arrayElementVarHandle(long[].class);
+
         // This assumes a row is at most 64 tiles and fits in a long
         private final long[] planes;
         private final byte planeCount;
@@ -105,6 +163,24 @@ public class VisitedTiles {
             return unique;
         }
 
+        // Sets a tile with compare-and-set, retrying while other threads change the row
+        public boolean claim(int x, int y, int plane) {
+            if (plane >= planeCount) {
+                return false;
+            }
+            final int index = y + plane * REGION_SIZE;
+            final long bit = 1L << x;
+            while (true) {
+                final long row = (long) ROWS.getVolatile(planes, index);
+                if ((row & bit) != 0) {
+                    return false;
+                }
+                if (ROWS.compareAndSet(planes, index, row, row | bit)) {
+                    return true;
+                }
+            }
+        }
+
         public boolean get(int x, int y, int plane) {
             if (plane >= planeCount) {
                 // This check is necessary since we check visited tiles before checking the collision map, e.g. the node
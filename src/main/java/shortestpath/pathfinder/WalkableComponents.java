@@ -0,0 +1,301 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+
+import shortestpath.PrimitiveIntList;
+import shortestpath.WorldPointUtil;
+
+import static net.runelite.api.Constants.REGION_SIZE;
+
+/**
+ * Labels every walkable tile of the collision map with the connected component it belongs to, so that two tiles can
+ * be told apart as "cannot walk between them" without searching.
+ * <p>
+ * Walking moves are treated as undirected, which makes the components a little larger than the set of tiles that can
+ * actually be walked between, but never smaller. Blocked tiles have no component of their own; a player can only
+ * stand on them after a transport, and can then walk to any unblocked neighbour, so they belong to the components of
+ * those neighbours.
+ * <p>
+ * Labels are computed per region and plane first and then joined across region borders. Most region planes hold a
+ * single component and store only its id; the others store a local label per tile and a table to the global ids.
+ */
+public class WalkableComponents {
+    private static final int TILES = REGION_SIZE * REGION_SIZE;
+    private static final int NO_COMPONENT = -1;
+    private static final int MIXED = -2;
+    private static final OrdinalDirection[] ORDINAL_VALUES = OrdinalDirection.values();
+
+    private final CollisionMap map;
+    private final SplitFlagMap.RegionExtent regionExtents;
+    private final int widthInclusive;
+    private final byte[] regionPlanes;
+    /** Component id of a region plane where every unblocked tile is in the same component, or NO_COMPONENT or MIXED */
+    private final int[] planeComponents;
+    /** Local labels of mixed region planes, 0 for blocked tiles and 1 and up for components */
+    private final char[][] planeLabels;
+    /** Global component ids of the local labels of mixed region planes, indexed by label - 1 */
+    private final int[][] planeLabelComponents;
+    private int size;
+
+    private WalkableComponents(CollisionMap map) {
+        this.map = map;
+        regionExtents = SplitFlagMap.getRegionExtents();
+        widthInclusive = regionExtents.getWidth() + 1;
+        regionPlanes = map.getPlanes();
+        planeComponents = new int[regionPlanes.length * 4];
+        planeLabels = new char[planeComponents.length][];
+        planeLabelComponents = new int[planeComponents.length][];
+    }
+
+    /** Returns the number of components */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the component of an unblocked tile.
+     *
+     * @return the component id, or {@code -1} if the tile is blocked or has no collision data
+     */
+    public int getComponent(int x, int y, int z) {
+        final int regionIndex = getRegionIndex(x / REGION_SIZE, y / REGION_SIZE);
+        if (regionIndex < 0 || regionIndex >= regionPlanes.length || z >= regionPlanes[regionIndex]
+            || map.isBlocked(x, y, z)) {
+            return NO_COMPONENT;
+        }
+
+        final int planeIndex = regionIndex * 4 + z;
+        final int component = planeComponents[planeIndex];
+        if (component != MIXED) {
+            return component;
+        }
+        final int label = planeLabels[planeIndex][getTileIndex(x, y)];
+        return label == 0 ? NO_COMPONENT : planeLabelComponents[planeIndex][label - 1];
+    }
+
+    /**
+     * Adds the components a player standing on a tile can walk into to a list; the tile's own component if it is
+     * unblocked, or those of its reachable neighbours if it is blocked.
+     *
+     * @param packedPoint the tile
+     * @param out the list to add the component ids to; nothing is added for tiles without collision data
+     */
+    public void getComponents(int packedPoint, PrimitiveIntList out) {
+        final int x = WorldPointUtil.unpackWorldX(packedPoint);
+        final int y = WorldPointUtil.unpackWorldY(packedPoint);
+        final int z = WorldPointUtil.unpackWorldPlane(packedPoint);
+        final int component = getComponent(x, y, z);
+        if (component != NO_COMPONENT) {
+            out.add(component);
+            return;
+        }
+
+        for (OrdinalDirection direction : ORDINAL_VALUES) {
+            if (map.isTraversable(x, y, z, direction)) {
+                final int neighbour = getComponent(x + direction.x, y + direction.y, z);
+                if (neighbour != NO_COMPONENT && !out.contains(neighbour)) {
+                    out.add(neighbour);
+                }
+            }
+        }
+    }
+
+    /**
+     * Labels the whole collision map. This takes a few seconds and is meant to run in the background; it returns
+     * {@code null} if the thread is interrupted.
+     *
+     * The map is kept to answer {@link #getComponent} and {@link #getComponents}, which only read its collision data
+     * and are safe to call from any thread once this returns.
+     *
+     * @param map the collision map, which must not be used by another thread while this runs
+     */
+    public static WalkableComponents compute(CollisionMap map) {
+        final WalkableComponents components = new WalkableComponents(map);
+        final int[] parents = new int[TILES];
+        final char[] labels = new char[TILES];
+
+        // Label every region plane on its own, numbering the labels of all region planes consecutively
+        final int[] labelOffsets = new int[components.planeComponents.length + 1];
+        final char[][] allLabels = new char[components.planeComponents.length][];
+        for (int regionIndex = 0; regionIndex < components.regionPlanes.length; regionIndex++) {
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            for (int z = 0; z < 4; z++) {
+                final int planeIndex = regionIndex * 4 + z;
+                final int count = z < components.regionPlanes[regionIndex]
+                    ? components.labelRegionPlane(regionIndex, z, parents, labels) : 0;
+                labelOffsets[planeIndex + 1] = labelOffsets[planeIndex] + count;
+                if (count > 1) {
+                    allLabels[planeIndex] = Arrays.copyOf(labels, TILES);
+                }
+            }
+        }
+
+        // Join the labels of neighbouring region planes along the region borders
+        final int[] globalParents = new int[labelOffsets[labelOffsets.length - 1]];
+        for (int i = 0; i < globalParents.length; i++) {
+            globalParents[i] = i;
+        }
+        for (int regionIndex = 0; regionIndex < components.regionPlanes.length; regionIndex++) {
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            for (int z = 0; z < components.regionPlanes[regionIndex]; z++) {
+                components.joinRegionBorder(regionIndex, z, labelOffsets, allLabels, globalParents);
+            }
+        }
+
+        // Number the joined components consecutively
+        final int[] componentIds = new int[globalParents.length];
+        Arrays.fill(componentIds, NO_COMPONENT);
+        for (int planeIndex = 0; planeIndex < components.planeComponents.length; planeIndex++) {
+            final int count = labelOffsets[planeIndex + 1] - labelOffsets[planeIndex];
+            if (count == 0) {
+                components.planeComponents[planeIndex] = NO_COMPONENT;
+                continue;
+            }
+
+            final int[] labelComponents = new int[count];
+            for (int label = 0; label < count; label++) {
+                final int root = find(globalParents, labelOffsets[planeIndex] + label);
+                if (componentIds[root] == NO_COMPONENT) {
+                    componentIds[root] = components.size++;
+                }
+                labelComponents[label] = componentIds[root];
+            }
+
+            if (count == 1) {
+                components.planeComponents[planeIndex] = labelComponents[0];
+            } else {
+                components.planeComponents[planeIndex] = MIXED;
+                components.planeLabels[planeIndex] = allLabels[planeIndex];
+                components.planeLabelComponents[planeIndex] = labelComponents;
+            }
+        }
+
+        return components;
+    }
+
+    /** Labels the unblocked tiles of a region plane and returns the number of labels; labels are 1 and up */
+    private int labelRegionPlane(int regionIndex, int z, int[] parents, char[] labels) {
+        final int baseX = getRegionX(regionIndex);
+        final int baseY = getRegionY(regionIndex);
+        for (int i = 0; i < TILES; i++) {
+            parents[i] = i;
+        }
+
+        for (int tile = 0; tile < TILES; tile++) {
+            final int x = baseX + tile % REGION_SIZE;
+            final int y = baseY + tile / REGION_SIZE;
+            if (map.isBlocked(x, y, z)) {
+                parents[tile] = -1;
+                continue;
+            }
+
+            for (OrdinalDirection direction : ORDINAL_VALUES) {
+                final int neighbourX = tile % REGION_SIZE + direction.x;
+                final int neighbourY = tile / REGION_SIZE + direction.y;
+                if (neighbourX < 0 || neighbourX >= REGION_SIZE || neighbourY < 0 || neighbourY >= REGION_SIZE
+                    || !map.isTraversable(x, y, z, direction) || map.isBlocked(x + direction.x, y + direction.y, z)) {
+                    continue;
+                }
+                union(parents, tile, neighbourY * REGION_SIZE + neighbourX);
+            }
+        }
+
+        // Blocked tiles were marked before any union could reach them, since unions only touch unblocked tiles
+        int count = 0;
+        Arrays.fill(labels, (char) 0);
+        for (int tile = 0; tile < TILES; tile++) {
+            if (parents[tile] == -1) {
+                continue;
+            }
+            final int root = find(parents, tile);
+            if (labels[root] == 0) {
+                labels[root] = (char) ++count;
+            }
+            labels[tile] = labels[root];
+        }
+        return count;
+    }
+
+    private void joinRegionBorder(int regionIndex, int z, int[] labelOffsets, char[][] allLabels, int[] globalParents) {
+        final int baseX = getRegionX(regionIndex);
+        final int baseY = getRegionY(regionIndex);
+        for (int tile = 0; tile < TILES; tile++) {
+            final int localX = tile % REGION_SIZE;
+            final int localY = tile / REGION_SIZE;
+            if (localX != 0 && localX != REGION_SIZE - 1 && localY != 0 && localY != REGION_SIZE - 1) {
+                continue;
+            }
+
+            final int x = baseX + localX;
+            final int y = baseY + localY;
+            final int label = getLocalLabel(x, y, z, labelOffsets, allLabels);
+            if (label < 0) {
+                continue;
+            }
+
+            for (OrdinalDirection direction : ORDINAL_VALUES) {
+                final int neighbourX = localX + direction.x;
+                final int neighbourY = localY + direction.y;
+                if (neighbourX >= 0 && neighbourX < REGION_SIZE && neighbourY >= 0 && neighbourY < REGION_SIZE) {
+                    continue;
+                }
+                if (!map.isTraversable(x, y, z, direction)) {
+                    continue;
+                }
+                final int neighbourLabel = getLocalLabel(x + direction.x, y + direction.y, z, labelOffsets, allLabels);
+                if (neighbourLabel >= 0) {
+                    union(globalParents, label, neighbourLabel);
+                }
+            }
+        }
+    }
+
+    /** Returns the consecutively numbered label of an unblocked tile during {@link #compute}, or -1 */
+    private int getLocalLabel(int x, int y, int z, int[] labelOffsets, char[][] allLabels) {
+        final int regionIndex = getRegionIndex(x / REGION_SIZE, y / REGION_SIZE);
+        if (regionIndex < 0 || regionIndex >= regionPlanes.length || z >= regionPlanes[regionIndex]
+            || map.isBlocked(x, y, z)) {
+            return -1;
+        }
+
+        final int planeIndex = regionIndex * 4 + z;
+        final char[] labels = allLabels[planeIndex];
+        return labelOffsets[planeIndex] + (labels == null ? 0 : labels[getTileIndex(x, y)] - 1);
+    }
+
+    private static int find(int[] parents, int i) {
+        while (parents[i] != i) {
+            parents[i] = parents[parents[i]];
+            i = parents[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parents, int a, int b) {
+        final int rootA = find(parents, a);
+        final int rootB = find(parents, b);
+        if (rootA != rootB) {
+            parents[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+
+    private int getRegionIndex(int regionX, int regionY) {
+        return (regionX - regionExtents.getMinX()) + (regionY - regionExtents.getMinY()) * widthInclusive;
+    }
+
+    private int getRegionX(int regionIndex) {
+        return (regionIndex % widthInclusive + regionExtents.getMinX()) * REGION_SIZE;
+    }
+
+    private int getRegionY(int regionIndex) {
+        return (regionIndex / widthInclusive + regionExtents.getMinY()) * REGION_SIZE;
+    }
+
+    private static int getTileIndex(int x, int y) {
+        return (y % REGION_SIZE) * REGION_SIZE + x % REGION_SIZE;
+    }
+}
@@ -3,7 +3,6 @@ package shortestpath.pathfinder;
 import java.util.Set;
 
 import net.runelite.api.coords.WorldArea;
-import shortestpath.WorldPointUtil;
 
 public class WildernessChecker {
 
@@ -26,18 +25,31 @@ public class WildernessChecker {
     private static final WorldArea WILDERNESS_UNDERGROUND_LEVEL_20 = new WorldArea(2944, 10075, 320, 442, 0);
     private static final WorldArea WILDERNESS_UNDERGROUND_LEVEL_30 = new WorldArea(2944, 10155, 320, 442, 0);
 
+    // The areas above compiled into tile layers, so that each check is a few array lookups; planes are ignored
+    private static final TileLayer WILDERNESS = TileLayer.builder()
+        .add(WILDERNESS_ABOVE_GROUND)
+        .remove(FEROX_ENCLAVE_1)
+        .remove(FEROX_ENCLAVE_2)
+        .remove(FEROX_ENCLAVE_3)
+        .remove(FEROX_ENCLAVE_4)
+        .remove(FEROX_ENCLAVE_5)
+        .remove(NOT_WILDERNESS_1)
+        .remove(NOT_WILDERNESS_2)
+        .remove(NOT_WILDERNESS_3)
+        .remove(NOT_WILDERNESS_4)
+        .add(WILDERNESS_UNDERGROUND)
+        .build();
+    private static final TileLayer LEVEL_20_WILDERNESS = TileLayer.builder()
+        .add(WILDERNESS_ABOVE_GROUND_LEVEL_20)
+        .add(WILDERNESS_UNDERGROUND_LEVEL_20)
+        .build();
+    private static final TileLayer LEVEL_30_WILDERNESS = TileLayer.builder()
+        .add(WILDERNESS_ABOVE_GROUND_LEVEL_30)
+        .add(WILDERNESS_UNDERGROUND_LEVEL_30)
+        .build();
+
     public static boolean isInWilderness(int packedPoint) {
-        return WorldPointUtil.distanceToArea2D(packedPoint, WILDERNESS_ABOVE_GROUND) == 0
-                && WorldPointUtil.distanceToArea2D(packedPoint, FEROX_ENCLAVE_1) != 0
-                && WorldPointUtil.distanceToArea2D(packedPoint, FEROX_ENCLAVE_2) != 0
-                && WorldPointUtil.distanceToArea2D(packedPoint, FEROX_ENCLAVE_3) != 0
-                && WorldPointUtil.distanceToArea2D(packedPoint, FEROX_ENCLAVE_4) != 0
-                && WorldPointUtil.distanceToArea2D(packedPoint, FEROX_ENCLAVE_5) != 0
-                && WorldPointUtil.distanceToArea2D(packedPoint, NOT_WILDERNESS_1) != 0
-                && WorldPointUtil.distanceToArea2D(packedPoint, NOT_WILDERNESS_2) != 0
-                && WorldPointUtil.distanceToArea2D(packedPoint, NOT_WILDERNESS_3) != 0
-                && WorldPointUtil.distanceToArea2D(packedPoint, NOT_WILDERNESS_4) != 0
-                || WorldPointUtil.distanceToArea2D(packedPoint, WILDERNESS_UNDERGROUND) == 0;
+        return WILDERNESS.get(packedPoint);
     }
 
     public static boolean isInWilderness(Set<Integer> packedPoints) {
@@ -50,12 +62,25 @@ public class WildernessChecker {
     }
 
     public static boolean isInLevel20Wilderness(int packedPoint) {
-        return WorldPointUtil.distanceToArea2D(packedPoint, WILDERNESS_ABOVE_GROUND_LEVEL_20) == 0
-                || WorldPointUtil.distanceToArea2D(packedPoint, WILDERNESS_UNDERGROUND_LEVEL_20) == 0;
+        return LEVEL_20_WILDERNESS.get(packedPoint);
     }
 
     public static boolean isInLevel30Wilderness(int packedPoint) {
-        return WorldPointUtil.distanceToArea2D(packedPoint, WILDERNESS_ABOVE_GROUND_LEVEL_30) == 0
-                || WorldPointUtil.distanceToArea2D(packedPoint, WILDERNESS_UNDERGROUND_LEVEL_30) == 0;
+        return LEVEL_30_WILDERNESS.get(packedPoint);
+    }
+
+    /**
+     * Returns the highest wilderness level that teleports may be used up to at a tile, as tracked by a search: 31
+     * above level 30, 30 above level 20, 20 elsewhere in the wilderness and 0 outside of it.
+     */
+    public static int getWildernessLevel(int packedPoint) {
+        if (isInLevel30Wilderness(packedPoint)) {
+            return 31;
+        } else if (isInLevel20Wilderness(packedPoint)) {
+            return 30;
+        } else if (isInWilderness(packedPoint)) {
+            return 20;
+        }
+        return 0;
     }
 }
@@ -0,0 +1,101 @@
+package shortestpath.transport;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+
+/**
+ * All loaded transports with a fixed index each, and the object and display info of the transports in a table of
+ * distinct strings. The table is built once and never changes, so a packed path only has to refer to its transports
+ * by index, and plugins that receive the table can keep it for every later packed path.
+ */
+public class TransportTable {
+    private final Transport[] transports;
+    private final Map<Transport, Integer> indices;
+    /**
+     * The table as plugin message data: the distinct strings, and per transport the indexes of its object info and
+     * display info in the strings, or -1 if it has none. The data is unmodifiable.
+     */
+    @Getter
+    private final Map<String, Object> messageData;
+
+    public TransportTable(Map<Integer, Set<Transport>> transportsByOrigin) {
+        final List<Transport> all = new ArrayList<>();
+        final Integer[] origins = transportsByOrigin.keySet().toArray(new Integer[0]);
+        Arrays.sort(origins);
+        for (Integer origin : origins) {
+            all.addAll(transportsByOrigin.get(origin));
+        }
+        this.transports = all.toArray(new Transport[0]);
+        this.indices = new IdentityHashMap<>(transports.length);
+
+        final List<String> strings = new ArrayList<>();
+        final Map<String, Integer> stringIndices = new HashMap<>();
+        final List<Integer> objectInfos = new ArrayList<>(transports.length);
+        final List<Integer> displayInfos = new ArrayList<>(transports.length);
+        for (int i = 0; i < transports.length; i++) {
+            indices.put(transports[i], i);
+            objectInfos.add(indexOfString(transports[i].getObjectInfo(), strings, stringIndices));
+            displayInfos.add(indexOfString(transports[i].getDisplayInfo(), strings, stringIndices));
+        }
+
+        final Map<String, Object> data = new HashMap<>();
+        data.put("strings", Collections.unmodifiableList(strings));
+        data.put("objectInfo", Collections.unmodifiableList(objectInfos));
+        data.put("displayInfo", Collections.unmodifiableList(displayInfos));
+        this.messageData = Collections.unmodifiableMap(data);
+    }
+
+    public int size() {
+        return transports.length;
+    }
+
+    public Transport get(int index) {
+        return transports[index];
+    }
+
+    /** Returns the index of a transport, or -1 if the transport was not loaded into the table */
+    public int indexOf(Transport transport) {
+        final Integer index = indices.get(transport);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the lowest index of the transports that go to a destination.
+     *
+     * @param transports the transports to look in, or {@code null} if there are none
+     * @param destination the packed destination
+     * @return the index, or -1 if none of the transports in the table go to the destination
+     */
+    public int indexOf(Set<Transport> transports, int destination) {
+        int lowest = -1;
+        if (transports == null) {
+            return lowest;
+        }
+        for (Transport transport : transports) {
+            if (transport.getDestination() == destination) {
+                final int index = indexOf(transport);
+                if (index >= 0 && (lowest < 0 || index < lowest)) {
+                    lowest = index;
+                }
+            }
+        }
+        return lowest;
+    }
+
+    private static int indexOfString(String value, List<String> strings, Map<String, Integer> stringIndices) {
+        if (value == null) {
+            return -1;
+        }
+        return stringIndices.computeIfAbsent(value, k -> {
+            strings.add(k);
+            return strings.size() - 1;
+        });
+    }
+}
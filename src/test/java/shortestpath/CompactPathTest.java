@@ -0,0 +1,105 @@
+package shortestpath;
+
+import java.util.PrimitiveIterator;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompactPathTest {
+    private static PrimitiveIntList path(int... xyz) {
+        PrimitiveIntList path = new PrimitiveIntList();
+        for (int i = 0; i < xyz.length; i += 3) {
+            path.add(WorldPointUtil.packWorldPoint(xyz[i], xyz[i + 1], xyz[i + 2]));
+        }
+        return path;
+    }
+
+    /** Walks a number of tiles in a direction from the last tile of a path */
+    private static void walk(PrimitiveIntList path, int dx, int dy, int tiles) {
+        for (int i = 0; i < tiles; i++) {
+            path.add(WorldPointUtil.dxdy(path.get(path.size() - 1), dx, dy));
+        }
+    }
+
+    private static void assertDecodes(PrimitiveIntList expected, CompactPath compact) {
+        Assert.assertEquals(expected.size(), compact.size());
+        PrimitiveIntList decoded = compact.toList();
+        PrimitiveIterator.OfInt iterator = compact.iterator();
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i), decoded.get(i));
+            Assert.assertEquals(expected.get(i), compact.get(i));
+            Assert.assertEquals(expected.get(i), iterator.nextInt());
+        }
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testEmptyPath() {
+        CompactPath compact = CompactPath.encode(new PrimitiveIntList());
+        Assert.assertTrue(compact.isEmpty());
+        Assert.assertFalse(compact.iterator().hasNext());
+        Assert.assertEquals(0, CompactPath.fromArray(compact.toArray()).size());
+    }
+
+    @Test
+    public void testStraightWalksTakeOneTokenEach() {
+        PrimitiveIntList path = path(3200, 3200, 0);
+        walk(path, 1, 0, 100);
+        walk(path, 1, 1, 50);
+        walk(path, 0, -1, 30);
+
+        CompactPath compact = CompactPath.encode(path);
+        assertDecodes(path, compact);
+        // The size, the start and a token per walk
+        Assert.assertEquals(5, compact.toArray().length);
+        Assert.assertEquals(180, compact.getCost(180));
+    }
+
+    @Test
+    public void testJumpsKeepTheirCosts() {
+        PrimitiveIntList path = path(
+            3200, 3200, 0,
+            3201, 3200, 0,
+            3201, 3200, 1, // stairs
+            3202, 3200, 1,
+            2965, 3380, 0, // teleport
+            2966, 3381, 0);
+        int[] costs = {0, 1, 2, 3, 7, 8};
+
+        CompactPath compact = CompactPath.encode(path, costs);
+        assertDecodes(path, compact);
+        for (int i = 0; i < costs.length; i++) {
+            Assert.assertEquals(costs[i], compact.getCost(i));
+        }
+        Assert.assertArrayEquals(costs, compact.toCosts());
+    }
+
+    @Test
+    public void testRandomAccessAcrossCheckpoints() {
+        PrimitiveIntList path = path(3000, 3000, 0);
+        for (int i = 0; i < 20; i++) {
+            walk(path, i % 2 == 0 ? 1 : 0, i % 2 == 0 ? 0 : 1, 7 + i * 3);
+        }
+
+        CompactPath compact = CompactPath.encode(path);
+        Assert.assertTrue(compact.size() > 4 * CompactPath.CHECKPOINT_INTERVAL);
+        assertDecodes(path, compact);
+        Assert.assertEquals(200, compact.indexOf(path.get(200)));
+        Assert.assertEquals(-1, compact.indexOf(WorldPointUtil.packWorldPoint(1000, 1000, 0)));
+    }
+
+    @Test
+    public void testArrayRoundTrip() {
+        PrimitiveIntList path = path(3200, 3200, 0, 3300, 3300, 0);
+        walk(path, -1, -1, 10);
+
+        CompactPath compact = CompactPath.fromArray(CompactPath.encode(path).toArray());
+        assertDecodes(path, compact);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testArrayWithWrongSizeIsRejected() {
+        int[] data = CompactPath.encode(path(3200, 3200, 0, 3201, 3200, 0)).toArray();
+        data[0]++;
+        CompactPath.fromArray(data);
+    }
+}
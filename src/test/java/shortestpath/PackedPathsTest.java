@@ -0,0 +1,104 @@
+package shortestpath;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import shortestpath.transport.Transport;
+import shortestpath.transport.TransportLoader;
+import shortestpath.transport.TransportTable;
+
+public class PackedPathsTest {
+    private static TransportTable table;
+
+    @BeforeClass
+    public static void loadTransports() {
+        table = new TransportTable(TransportLoader.loadAllFromResources());
+    }
+
+    private static PrimitiveIntList walk(int x, int y, int tiles) {
+        PrimitiveIntList path = new PrimitiveIntList();
+        for (int i = 0; i < tiles; i++) {
+            path.add(WorldPointUtil.packWorldPoint(x + i, y, 0));
+        }
+        return path;
+    }
+
+    /** Applies a delta to the path of its base version */
+    private static int[] apply(int[] base, Map<String, Object> delta) {
+        int keepPrefix = (int) delta.get("keepPrefix");
+        int keepSuffix = (int) delta.get("keepSuffix");
+        int[] changed = (int[]) delta.get("path");
+        int[] path = new int[keepPrefix + changed.length + keepSuffix];
+        System.arraycopy(base, 0, path, 0, keepPrefix);
+        System.arraycopy(changed, 0, path, keepPrefix, changed.length);
+        System.arraycopy(base, base.length - keepSuffix, path, keepPrefix + changed.length, keepSuffix);
+        return path;
+    }
+
+    @Test
+    public void testTransportStepsReferToTheTable() {
+        Transport transport = null;
+        for (int i = 0; i < table.size() && transport == null; i++) {
+            if (table.get(i).getOrigin() != Transport.UNDEFINED_ORIGIN && table.get(i).getDisplayInfo() != null) {
+                transport = table.get(i);
+            }
+        }
+        Assert.assertNotNull(transport);
+        PrimitiveIntOpenHashMap<Set<Transport>> transports = new PrimitiveIntOpenHashMap<>(4);
+        transports.put(transport.getOrigin(), Collections.singleton(transport));
+        PrimitiveIntList path = new PrimitiveIntList();
+        path.add(transport.getOrigin());
+        path.add(transport.getDestination());
+
+        Map<String, Object> data = new PackedPaths(table).publish(path, transports);
+        int[] transportIndices = (int[]) data.get("transports");
+        Assert.assertEquals(-1, transportIndices[0]);
+        Assert.assertEquals(table.indexOf(transport), transportIndices[1]);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> tableData = (Map<String, Object>) data.get("table");
+        @SuppressWarnings("unchecked")
+        List<String> strings = (List<String>) tableData.get("strings");
+        @SuppressWarnings("unchecked")
+        List<Integer> displayInfos = (List<Integer>) tableData.get("displayInfo");
+        Assert.assertEquals(transport.getDisplayInfo(), strings.get(displayInfos.get(transportIndices[1])));
+        Assert.assertSame(tableData, table.getMessageData());
+    }
+
+    @Test
+    public void testDeltaRebuildsTheLatestPath() {
+        PackedPaths packedPaths = new PackedPaths(table);
+        PrimitiveIntOpenHashMap<Set<Transport>> transports = new PrimitiveIntOpenHashMap<>(4);
+        Map<String, Object> first = packedPaths.publish(walk(3200, 3200, 20), transports);
+        // The player walked a few tiles along the path
+        Map<String, Object> second = packedPaths.publish(walk(3205, 3200, 15), transports);
+        Assert.assertEquals(1, first.get("version"));
+        Assert.assertEquals(2, second.get("version"));
+
+        Map<String, Object> delta = packedPaths.deltaSince(1);
+        Assert.assertEquals(1, delta.get("baseVersion"));
+        Assert.assertEquals(2, delta.get("version"));
+        Assert.assertEquals(15, delta.get("keepSuffix"));
+        Assert.assertEquals(0, ((int[]) delta.get("path")).length);
+        Assert.assertArrayEquals((int[]) second.get("path"), apply((int[]) first.get("path"), delta));
+    }
+
+    @Test
+    public void testDeltaSinceUnknownVersionIsTheWholePath() {
+        PackedPaths packedPaths = new PackedPaths(table);
+        Assert.assertNull(packedPaths.deltaSince(1));
+
+        PrimitiveIntOpenHashMap<Set<Transport>> transports = new PrimitiveIntOpenHashMap<>(4);
+        Map<String, Object> latest = null;
+        for (int i = 0; i <= PackedPaths.RECENT_VERSIONS; i++) {
+            latest = packedPaths.publish(walk(3200 + i, 3200, 10), transports);
+        }
+        Map<String, Object> delta = packedPaths.deltaSince(1);
+        Assert.assertEquals(-1, delta.get("baseVersion"));
+        Assert.assertArrayEquals((int[]) latest.get("path"), (int[]) delta.get("path"));
+    }
+}
@@ -0,0 +1,52 @@
+package shortestpath;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PathSegmentsTest {
+    private static PrimitiveIntList path(int... xyz) {
+        PrimitiveIntList path = new PrimitiveIntList();
+        for (int i = 0; i < xyz.length; i += 3) {
+            path.add(WorldPointUtil.packWorldPoint(xyz[i], xyz[i + 1], xyz[i + 2]));
+        }
+        return path;
+    }
+
+    @Test
+    public void testEmptyPath() {
+        PathSegments segments = new PathSegments(new PrimitiveIntList());
+        Assert.assertEquals(0, segments.size());
+    }
+
+    @Test
+    public void testSplitsOnRegionAndPlane() {
+        PathSegments segments = new PathSegments(path(
+            3198, 3200, 0,
+            3199, 3200, 0,
+            3200, 3200, 0, // next region
+            3201, 3200, 0,
+            3201, 3200, 1, // next plane
+            3202, 3200, 1));
+        Assert.assertEquals(3, segments.size());
+        Assert.assertEquals(0, segments.getStart(0));
+        Assert.assertEquals(2, segments.getEnd(0));
+        Assert.assertEquals(2, segments.getStart(1));
+        Assert.assertEquals(4, segments.getEnd(1));
+        Assert.assertEquals(4, segments.getStart(2));
+        Assert.assertEquals(6, segments.getEnd(2));
+        Assert.assertEquals(0, segments.getPlane(1));
+        Assert.assertEquals(1, segments.getPlane(2));
+    }
+
+    @Test
+    public void testBoundingBoxIncludesPreviousPoint() {
+        PathSegments segments = new PathSegments(path(
+            3100, 3100, 0,
+            3300, 3300, 0)); // teleport into another region
+        Assert.assertEquals(2, segments.size());
+        Assert.assertFalse(segments.intersects(0, 3200, 3200, 3210, 3210));
+        // The line from the previous point crosses this rectangle, so the second segment must not be culled
+        Assert.assertTrue(segments.intersects(1, 3200, 3200, 3210, 3210));
+        Assert.assertFalse(segments.intersects(1, 3400, 3400, 3410, 3410));
+    }
+}
@@ -0,0 +1,63 @@
+package shortestpath;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+import shortestpath.pathfinder.PointIndex;
+
+public class PointIndexTest {
+    private static long heuristic(int from, int to) {
+        return WorldPointUtil.distanceBetween(from, to) + (long) WorldPointUtil.distanceBetween(from, to, 2);
+    }
+
+    @Test
+    public void testEmptyIndex() {
+        PointIndex index = new PointIndex(Collections.emptySet());
+        Assert.assertEquals(0, index.size());
+        Assert.assertEquals(WorldPointUtil.UNDEFINED, index.nearest(WorldPointUtil.packWorldPoint(3200, 3200, 0)));
+    }
+
+    @Test
+    public void testIgnoresOtherPlanes() {
+        Set<Integer> points = new HashSet<>();
+        points.add(WorldPointUtil.packWorldPoint(3200, 3200, 1));
+        points.add(WorldPointUtil.packWorldPoint(3300, 3300, 0));
+        PointIndex index = new PointIndex(points);
+        Assert.assertEquals(WorldPointUtil.packWorldPoint(3300, 3300, 0),
+            index.nearest(WorldPointUtil.packWorldPoint(3200, 3200, 0)));
+        Assert.assertEquals(WorldPointUtil.UNDEFINED, index.nearest(WorldPointUtil.packWorldPoint(3200, 3200, 2)));
+    }
+
+    @Test
+    public void testMatchesLinearSearch() {
+        Random random = new Random(42);
+        Set<Integer> points = new HashSet<>();
+        while (points.size() < 500) {
+            points.add(WorldPointUtil.packWorldPoint(1000 + random.nextInt(3000), 2500 + random.nextInt(8000), random.nextInt(2)));
+        }
+        PointIndex index = new PointIndex(points);
+
+        for (int i = 0; i < 2000; i++) {
+            int from = WorldPointUtil.packWorldPoint(1000 + random.nextInt(3000), 2500 + random.nextInt(8000), random.nextInt(2));
+            int expected = WorldPointUtil.UNDEFINED;
+            for (int point : points) {
+                if (WorldPointUtil.unpackWorldPlane(point) != WorldPointUtil.unpackWorldPlane(from)) {
+                    continue;
+                }
+                if (expected == WorldPointUtil.UNDEFINED
+                    || heuristic(from, point) < heuristic(from, expected)
+                    || heuristic(from, point) == heuristic(from, expected)
+                        && WorldPointUtil.distanceBetween(from, point) < WorldPointUtil.distanceBetween(from, expected)) {
+                    expected = point;
+                }
+            }
+
+            int actual = index.nearest(from);
+            Assert.assertEquals(heuristic(from, expected), heuristic(from, actual));
+            Assert.assertEquals(WorldPointUtil.distanceBetween(from, expected), WorldPointUtil.distanceBetween(from, actual));
+        }
+    }
+}
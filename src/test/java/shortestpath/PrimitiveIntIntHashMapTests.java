@@ -0,0 +1,50 @@
+package shortestpath;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PrimitiveIntIntHashMapTests {
+    @Test
+    public void testZeroKey() {
+        PrimitiveIntIntHashMap map = new PrimitiveIntIntHashMap(8);
+        assertFalse(map.containsKey(0));
+        assertEquals(-1, map.getOrDefault(0, -1));
+        assertTrue(map.put(0, 7));
+        assertFalse(map.put(0, 8));
+        assertEquals(8, map.getOrDefault(0, -1));
+        assertEquals(1, map.size());
+        assertTrue(map.remove(0));
+        assertFalse(map.remove(0));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void testRandomOperationsMatchHashMap() {
+        Random random = new Random(7);
+        PrimitiveIntIntHashMap map = new PrimitiveIntIntHashMap(8);
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            int key = WorldPointUtil.packWorldPoint(3200 + random.nextInt(48), 3200 + random.nextInt(48), 0);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i) == null, map.put(key, i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals((int) entry.getValue(), map.getOrDefault(entry.getKey(), -1));
+        }
+
+        Map<Integer, Integer> iterated = new HashMap<>();
+        map.forEach((key, value) -> assertNull(iterated.put(key, value)));
+        assertEquals(expected, iterated);
+    }
+}
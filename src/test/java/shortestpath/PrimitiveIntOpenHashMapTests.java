@@ -0,0 +1,104 @@
+package shortestpath;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+import shortestpath.transport.Transport;
+import shortestpath.transport.TransportLoader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PrimitiveIntOpenHashMapTests {
+    @Test(expected=IllegalArgumentException.class)
+    public void checkNullValueProhibited() {
+        PrimitiveIntOpenHashMap<Boolean> map = new PrimitiveIntOpenHashMap<>(8);
+        map.put(1, null);
+    }
+
+    @Test
+    public void tryInsertTransports() {
+        HashMap<Integer, Set<Transport>> transports = TransportLoader.loadAllFromResources();
+        PrimitiveIntOpenHashMap<Set<Transport>> map = new PrimitiveIntOpenHashMap<>(8);
+        PrimitiveIntHashMap<Set<Transport>> bucketMap = new PrimitiveIntHashMap<>(8);
+        for (Map.Entry<Integer, Set<Transport>> entry : transports.entrySet()) {
+            map.put(entry.getKey(), entry.getValue());
+            bucketMap.put(entry.getKey(), entry.getValue());
+        }
+
+        assertEquals(transports.size(), map.size());
+        for (Map.Entry<Integer, Set<Transport>> entry : transports.entrySet()) {
+            assertSame(entry.getValue(), map.get(entry.getKey()));
+            assertSame(bucketMap.get(entry.getKey()), map.get(entry.getKey()));
+            // The tiles next to transports mostly have none
+            int neighbor = WorldPointUtil.dxdy(entry.getKey(), 1, 0);
+            assertSame(bucketMap.get(neighbor), map.get(neighbor));
+        }
+    }
+
+    @Test
+    public void testCollectionsAreAppended() {
+        PrimitiveIntOpenHashMap<Set<Integer>> map = new PrimitiveIntOpenHashMap<>(8);
+        Set<Integer> first = new HashSet<>();
+        first.add(1);
+        map.put(5, first);
+        Set<Integer> second = new HashSet<>();
+        second.add(2);
+        assertSame(first, map.put(5, second));
+        assertSame(first, map.get(5));
+        assertEquals(2, first.size());
+    }
+
+    @Test
+    public void testZeroKey() {
+        PrimitiveIntOpenHashMap<String> map = new PrimitiveIntOpenHashMap<>(8);
+        assertNull(map.get(0));
+        map.put(0, "zero");
+        map.put(16, "sixteen");
+        assertEquals(2, map.size());
+        assertEquals("zero", map.get(0));
+        assertEquals("zero", map.remove(0));
+        assertNull(map.get(0));
+        assertEquals("sixteen", map.get(16));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testRandomOperationsMatchHashMap() {
+        Random random = new Random(42);
+        PrimitiveIntOpenHashMap<Integer> map = new PrimitiveIntOpenHashMap<>(8);
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            // Few distinct keys, so that removals hit long probe sequences
+            int key = random.nextInt(2048) - 16;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int key = -16; key < 2032; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+
+        Map<Integer, Integer> iterated = new HashMap<>();
+        map.forEach((key, value) -> assertNull(iterated.put(key, value)));
+        assertEquals(expected, iterated);
+        int[] keys = map.keys();
+        assertEquals(expected.size(), keys.length);
+        for (int key : keys) {
+            assertTrue(expected.containsKey(key));
+        }
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(keys[0]));
+    }
+}
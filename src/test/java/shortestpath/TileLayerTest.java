@@ -0,0 +1,58 @@
+package shortestpath;
+
+import java.util.Arrays;
+import net.runelite.api.coords.WorldArea;
+import org.junit.Assert;
+import org.junit.Test;
+import shortestpath.pathfinder.TileLayer;
+
+public class TileLayerTest {
+    @Test
+    public void testEmptyLayer() {
+        TileLayer layer = TileLayer.builder().build();
+        Assert.assertFalse(layer.get(3200, 3200, 0));
+        Assert.assertFalse(layer.get(0, 0, 0));
+    }
+
+    @Test
+    public void testPointsKeepTheirPlane() {
+        TileLayer layer = TileLayer.builder()
+            .addAll(Arrays.asList(
+                WorldPointUtil.packWorldPoint(3200, 3200, 0),
+                WorldPointUtil.packWorldPoint(3263, 3263, 2)))
+            .build();
+        Assert.assertTrue(layer.get(3200, 3200, 0));
+        Assert.assertFalse(layer.get(3200, 3200, 1));
+        Assert.assertFalse(layer.get(3201, 3200, 0));
+        Assert.assertTrue(layer.get(WorldPointUtil.packWorldPoint(3263, 3263, 2)));
+        Assert.assertFalse(layer.get(3263, 3263, 0));
+        Assert.assertFalse(layer.get(3264, 3263, 2));
+    }
+
+    @Test
+    public void testAreasSpanRegionsAndPlanes() {
+        // Covers one full region (3200-3263, 3200-3263) and parts of its neighbours
+        TileLayer layer = TileLayer.builder()
+            .add(new WorldArea(3190, 3195, 80, 75, 0))
+            .remove(new WorldArea(3230, 3230, 2, 2, 0))
+            .build();
+        for (int plane = 0; plane < 4; plane++) {
+            Assert.assertTrue(layer.get(3190, 3195, plane));
+            Assert.assertTrue(layer.get(3269, 3269, plane));
+            Assert.assertTrue(layer.get(3229, 3230, plane));
+            Assert.assertFalse(layer.get(3230, 3230, plane));
+            Assert.assertFalse(layer.get(3231, 3231, plane));
+            Assert.assertFalse(layer.get(3189, 3195, plane));
+            Assert.assertFalse(layer.get(3270, 3269, plane));
+            Assert.assertFalse(layer.get(3190, 3194, plane));
+            Assert.assertFalse(layer.get(3269, 3270, plane));
+        }
+    }
+
+    @Test
+    public void testRulesApplyInOrder() {
+        WorldArea area = new WorldArea(3200, 3200, 10, 10, 0);
+        Assert.assertFalse(TileLayer.builder().add(area).remove(area).build().get(3205, 3205, 0));
+        Assert.assertTrue(TileLayer.builder().remove(area).add(area).build().get(3205, 3205, 0));
+    }
+}
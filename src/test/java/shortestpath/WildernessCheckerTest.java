@@ -75,4 +75,31 @@ public class WildernessCheckerTest {
     public void testInLevel30Wilderness() {
         assertTrue(WildernessChecker.isInLevel30Wilderness(WILDERNESS_LAVA_MAZE_DUNGEON));
     }
+
+    @Test
+    public void testGetWildernessLevel() {
+        assertEquals(31, WildernessChecker.getWildernessLevel(WILDERNESS_LAVA_MAZE_DUNGEON));
+        assertEquals(30, WildernessChecker.getWildernessLevel(WILDERNESS_BANDIT_CAMP));
+        assertEquals(20, WildernessChecker.getWildernessLevel(WILDERNESS_SLAYER_CAVE));
+        assertEquals(0, WildernessChecker.getWildernessLevel(WILDERNESS_FEROX_ENCLAVE));
+    }
+
+    @Test
+    public void testWildernessBoundaries() {
+        // Edges of the above ground wilderness
+        assertTrue(WildernessChecker.isInWilderness(WorldPointUtil.packWorldPoint(2944, 3525, 0)));
+        assertFalse(WildernessChecker.isInWilderness(WorldPointUtil.packWorldPoint(2943, 3525, 0)));
+        assertFalse(WildernessChecker.isInWilderness(WorldPointUtil.packWorldPoint(2944, 3524, 0)));
+        assertTrue(WildernessChecker.isInWilderness(WorldPointUtil.packWorldPoint(3391, 3972, 0)));
+        assertFalse(WildernessChecker.isInWilderness(WorldPointUtil.packWorldPoint(3392, 3972, 0)));
+
+        // Edges of the Ferox Enclave
+        assertFalse(WildernessChecker.isInWilderness(WorldPointUtil.packWorldPoint(3125, 3617, 0)));
+        assertTrue(WildernessChecker.isInWilderness(WorldPointUtil.packWorldPoint(3125, 3616, 0)));
+
+        // Far away from the wilderness
+        assertFalse(WildernessChecker.isInWilderness(WorldPointUtil.packWorldPoint(3222, 3218, 0)));
+        assertFalse(WildernessChecker.isInLevel20Wilderness(WorldPointUtil.packWorldPoint(0, 0, 0)));
+        assertFalse(WildernessChecker.isInLevel30Wilderness(WorldPointUtil.packWorldPoint(16383, 16383, 3)));
+    }
 }
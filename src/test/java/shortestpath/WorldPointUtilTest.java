@@ -52,6 +52,14 @@ public class WorldPointUtilTest {
         assertEquals(1, WorldPointUtil.unpackWorldPlane(moved));
     }
 
+    @Test
+    public void regionIdMatchesWorldPoint() {
+        WorldPoint p = new WorldPoint(3222, 3218, 2);
+        int packed = WorldPointUtil.packWorldPoint(p);
+        assertEquals(p.getRegionID(), WorldPointUtil.getRegionId(packed));
+        assertEquals(12850, WorldPointUtil.getRegionId(3222, 3218));
+    }
+
     @Test
     public void distanceChebyshevAndManhattan() {
         int a = WorldPointUtil.packWorldPoint(10, 10, 0);
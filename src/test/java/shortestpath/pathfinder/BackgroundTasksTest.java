@@ -0,0 +1,120 @@
+package shortestpath.pathfinder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BackgroundTasksTest {
+    private final ExecutorService executor = BackgroundTasks.newSharedExecutor();
+    private final Object lock = new Object();
+    private volatile String published;
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testScheduleComputesKeyOnce() throws Exception {
+        BackgroundTasks tasks = new BackgroundTasks(executor, lock, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computed = new AtomicInteger();
+        assertTrue(tasks.schedule("bank", () -> {
+            computed.incrementAndGet();
+            await(release);
+            return "field";
+        }, value -> published = value));
+        assertFalse(tasks.schedule("bank", () -> "again", value -> published = value));
+        assertTrue(tasks.isPending("bank"));
+
+        release.countDown();
+        waitUntilIdle(tasks);
+        assertEquals("field", published);
+        assertEquals(1, computed.get());
+        assertFalse(tasks.isPending("bank"));
+    }
+
+    @Test
+    public void testInvalidateDropsRunningComputation() throws Exception {
+        BackgroundTasks tasks = new BackgroundTasks(executor, lock, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        tasks.schedule("bank", () -> {
+            started.countDown();
+            await(release);
+            return "outdated";
+        }, value -> published = value);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        tasks.invalidate();
+        release.countDown();
+        waitUntilIdle(tasks);
+        assertNull(published);
+        assertFalse(tasks.isPending("bank"));
+    }
+
+    @Test
+    public void testCancelInterruptsRunningTasks() throws Exception {
+        BackgroundTasks tasks = new BackgroundTasks(executor, lock, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Boolean> running = tasks.submit(() -> {
+            started.countDown();
+            Thread.sleep(60_000);
+            return true;
+        });
+        CompletableFuture<Boolean> queued = tasks.submit(() -> true);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        tasks.cancel();
+        assertTrue(running.isCancelled());
+        assertTrue(queued.isCancelled());
+        // The thread is free for the next task
+        assertTrue(tasks.submit(() -> true).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRunsAtMostThreadsTasksAtOnce() throws Exception {
+        BackgroundTasks tasks = new BackgroundTasks(executor, lock, 2);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger mostActive = new AtomicInteger();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final int task = i;
+            results.add(tasks.submit(() -> {
+                mostActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                Thread.sleep(20);
+                active.decrementAndGet();
+                return task;
+            }));
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, (int) results.get(i).get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(2, mostActive.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Waits for the tasks that are queued before this one, which runs after them on the single thread */
+    private static void waitUntilIdle(BackgroundTasks tasks) throws Exception {
+        tasks.submit(() -> null).get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,58 @@
+package shortestpath.pathfinder;
+
+import java.util.Collections;
+import java.util.Set;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import shortestpath.WorldPointUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DistanceFieldTest {
+    private static final int LUMBRIDGE_BANK = WorldPointUtil.packWorldPoint(3208, 3220, 2);
+    private static final int LUMBRIDGE_COURTYARD = WorldPointUtil.packWorldPoint(3222, 3218, 0);
+
+    private static CollisionMap map;
+
+    @BeforeClass
+    public static void loadMap() {
+        map = new CollisionMap(SplitFlagMap.fromResources());
+    }
+
+    @Test
+    public void testWalkingField() {
+        DistanceField field = DistanceField.compute(map, Collections.singleton(LUMBRIDGE_COURTYARD), new int[0], false);
+
+        assertEquals(0, field.getCost(LUMBRIDGE_COURTYARD));
+        assertEquals(DistanceField.HOP_ARRIVED, field.getNextHop(LUMBRIDGE_COURTYARD));
+        assertEquals(1, field.getCost(WorldPointUtil.packWorldPoint(3223, 3219, 0)));
+        assertEquals(-1, field.getCost(WorldPointUtil.packWorldPoint(3222, 3218, 1)));
+    }
+
+    @Test
+    public void testNextHopsReachDestination() {
+        Set<Integer> destinations = Collections.singleton(LUMBRIDGE_COURTYARD);
+        DistanceField field = DistanceField.compute(map, destinations, new int[0], false);
+
+        int point = WorldPointUtil.packWorldPoint(3240, 3200, 0);
+        int cost = field.getCost(point);
+        assertTrue(cost > 0);
+        while (field.getNextHop(point) != DistanceField.HOP_ARRIVED) {
+            point = DistanceField.step(point, field.getNextHop(point));
+            assertEquals(--cost, field.getCost(point));
+        }
+        assertEquals(LUMBRIDGE_COURTYARD, point);
+    }
+
+    @Test
+    public void testTransportsAreFollowedBackwards() {
+        // A made up transport from the courtyard straight to the bank
+        int[] transports = {LUMBRIDGE_COURTYARD, LUMBRIDGE_BANK, 5};
+        DistanceField field = DistanceField.compute(map, Collections.singleton(LUMBRIDGE_BANK), transports, false);
+
+        assertEquals(5, field.getCost(LUMBRIDGE_COURTYARD));
+        assertEquals(DistanceField.HOP_TRANSPORT, field.getNextHop(LUMBRIDGE_COURTYARD));
+        assertEquals(6, field.getCost(WorldPointUtil.packWorldPoint(3223, 3218, 0)));
+    }
+}
@@ -0,0 +1,62 @@
+package shortestpath.pathfinder;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import shortestpath.PrimitiveIntList;
+import shortestpath.WorldPointUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class DistanceMatrixTest {
+    private static final int LUMBRIDGE = WorldPointUtil.packWorldPoint(3222, 3218, 0);
+    private static final int DRAYNOR = WorldPointUtil.packWorldPoint(3093, 3244, 0);
+    private static final int VARROCK = WorldPointUtil.packWorldPoint(3213, 3428, 0);
+
+    private static CollisionMap map;
+
+    @BeforeClass
+    public static void loadMap() {
+        map = new CollisionMap(SplitFlagMap.fromResources());
+    }
+
+    @Test
+    public void testWalkingCostsAndPaths() {
+        DistanceMatrix.Row row = DistanceMatrix.search(map, new TransportGraph(new int[0]), LUMBRIDGE, new int[0],
+            new int[]{LUMBRIDGE, DRAYNOR}, false, true);
+
+        assertNotNull(row);
+        assertEquals(0, row.costs[0]);
+        assertTrue(row.costs[1] > 0);
+
+        PrimitiveIntList path = row.paths[1];
+        assertNotNull(path);
+        assertEquals(LUMBRIDGE, path.get(0));
+        assertEquals(DRAYNOR, path.get(path.size() - 1));
+        assertEquals(row.costs[1], path.size() - 1);
+    }
+
+    @Test
+    public void testTransportIsTaken() {
+        int start = WorldPointUtil.packWorldPoint(3222, 3221, 0);
+        DistanceMatrix.Row walking = DistanceMatrix.search(map, new TransportGraph(new int[0]), start, new int[0],
+            new int[]{VARROCK}, false, true);
+        DistanceMatrix.Row transport = DistanceMatrix.search(map, new TransportGraph(new int[]{LUMBRIDGE, VARROCK, 5}),
+            start, new int[0], new int[]{VARROCK}, false, true);
+
+        assertEquals(3 + 5, transport.costs[0]);
+        assertTrue(walking.costs[0] > transport.costs[0]);
+        assertTrue(transport.paths[0].contains(LUMBRIDGE));
+    }
+
+    @Test
+    public void testUnreachedTargetIsNegative() {
+        int outsideMap = WorldPointUtil.packWorldPoint(0, 0, 0);
+        DistanceMatrix.Row row = DistanceMatrix.search(map, new TransportGraph(new int[0]), LUMBRIDGE, new int[0],
+            new int[]{outsideMap}, false, true);
+
+        assertEquals(-1, row.costs[0]);
+        assertEquals(null, row.paths[0]);
+    }
+}
@@ -0,0 +1,61 @@
+package shortestpath.pathfinder;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import shortestpath.WorldPointUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class IsochroneTest {
+    private static final int LUMBRIDGE = WorldPointUtil.packWorldPoint(3222, 3218, 0);
+    private static final int VARROCK = WorldPointUtil.packWorldPoint(3213, 3428, 0);
+
+    private static CollisionMap map;
+
+    @BeforeClass
+    public static void loadMap() {
+        map = new CollisionMap(SplitFlagMap.fromResources());
+    }
+
+    @Test
+    public void testZeroTicksOnlyReachesStart() {
+        Isochrone isochrone = Isochrone.compute(map, new TransportGraph(new int[0]), LUMBRIDGE, new int[0], 0, false);
+
+        assertNotNull(isochrone);
+        assertEquals(1, isochrone.getTileCount());
+        assertTrue(isochrone.contains(LUMBRIDGE));
+        assertFalse(isochrone.contains(WorldPointUtil.packWorldPoint(3222, 3219, 0)));
+    }
+
+    @Test
+    public void testMatchesDistanceMatrixCosts() {
+        TransportGraph graph = new TransportGraph(new int[]{LUMBRIDGE, VARROCK, 5});
+        int start = WorldPointUtil.packWorldPoint(3222, 3221, 0);
+        int ticks = 20;
+        Isochrone isochrone = Isochrone.compute(map, graph, start, new int[0], ticks, false);
+
+        int[] tiles = new int[2 * 41 * 41];
+        int count = 0;
+        for (int center : new int[]{start, VARROCK}) {
+            for (int dx = -20; dx <= 20; dx++) {
+                for (int dy = -20; dy <= 20; dy++) {
+                    tiles[count++] = WorldPointUtil.packWorldPoint(WorldPointUtil.unpackWorldX(center) + dx,
+                        WorldPointUtil.unpackWorldY(center) + dy, 0);
+                }
+            }
+        }
+        DistanceMatrix.Row row = DistanceMatrix.search(map, graph, start, new int[0], tiles, false, false);
+
+        int reachable = 0;
+        for (int i = 0; i < tiles.length; i++) {
+            boolean withinTicks = row.costs[i] >= 0 && row.costs[i] <= ticks;
+            assertEquals(withinTicks, isochrone.contains(tiles[i]));
+            reachable += withinTicks ? 1 : 0;
+        }
+        assertTrue(isochrone.contains(VARROCK));
+        assertEquals(reachable, isochrone.getTileCount());
+    }
+}
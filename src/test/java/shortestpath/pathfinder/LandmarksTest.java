@@ -0,0 +1,75 @@
+package shortestpath.pathfinder;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import shortestpath.WorldPointUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LandmarksTest {
+    private static final int LUMBRIDGE = WorldPointUtil.packWorldPoint(3222, 3218, 0);
+    private static final int DRAYNOR = WorldPointUtil.packWorldPoint(3093, 3244, 0);
+    private static final int VARROCK = WorldPointUtil.packWorldPoint(3213, 3428, 0);
+
+    private static CollisionMap map;
+    private static Landmarks landmarks;
+
+    @BeforeClass
+    public static void computeLandmarks() {
+        map = new CollisionMap(SplitFlagMap.fromResources());
+        landmarks = Landmarks.compute(map, new int[]{LUMBRIDGE, VARROCK}, new int[0]);
+    }
+
+    @Test
+    public void testBoundIsAdmissible() {
+        Landmarks.Heuristic heuristic = landmarks.towards(Collections.singleton(DRAYNOR));
+        int estimate = heuristic.estimate(LUMBRIDGE);
+        assertTrue(estimate > 0);
+        assertTrue(estimate <= walkingDistance(LUMBRIDGE, DRAYNOR));
+        assertEquals(0, heuristic.estimate(DRAYNOR));
+    }
+
+    @Test
+    public void testTargetWithoutCollisionData() {
+        Landmarks.Heuristic heuristic = landmarks.towards(Collections.singleton(WorldPointUtil.packWorldPoint(0, 0, 0)));
+        assertEquals(0, heuristic.estimate(LUMBRIDGE));
+    }
+
+    @Test
+    public void testCoversTransports() {
+        assertTrue(landmarks.covers(new int[0]));
+        assertFalse(landmarks.covers(new int[]{LUMBRIDGE, VARROCK, 5}));
+    }
+
+    private static int walkingDistance(int start, int target) {
+        Map<Integer, Integer> distances = new HashMap<>();
+        Queue<Integer> boundary = new ArrayDeque<>();
+        distances.put(start, 0);
+        boundary.add(start);
+        while (!boundary.isEmpty()) {
+            int packedPoint = boundary.poll();
+            int distance = distances.get(packedPoint);
+            if (packedPoint == target) {
+                return distance;
+            }
+            int x = WorldPointUtil.unpackWorldX(packedPoint);
+            int y = WorldPointUtil.unpackWorldY(packedPoint);
+            int z = WorldPointUtil.unpackWorldPlane(packedPoint);
+            for (OrdinalDirection direction : OrdinalDirection.values()) {
+                int next = WorldPointUtil.packWorldPoint(x + direction.x, y + direction.y, z);
+                if (map.isTraversable(x, y, z, direction) && !distances.containsKey(next)) {
+                    distances.put(next, distance + 1);
+                    boundary.add(next);
+                }
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+}
@@ -1,6 +1,8 @@
 package shortestpath.pathfinder;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import net.runelite.api.Client;
@@ -19,6 +21,7 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import shortestpath.CalculationCutoff;
 import shortestpath.ItemVariations;
 import shortestpath.JewelleryBoxTier;
 import shortestpath.ShortestPathConfig;
@@ -32,9 +35,13 @@ import shortestpath.transport.TransportType;
 import shortestpath.transport.TransportVarbit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
@@ -62,6 +69,7 @@ public class PathfinderTest {
     @Before
     public void before() {
         when(config.calculationCutoff()).thenReturn(30);
+        when(config.calculationCutoffMode()).thenReturn(CalculationCutoff.NODES);
         when(config.currencyThreshold()).thenReturn(10000000);
     }
 
@@ -449,6 +457,28 @@ public class PathfinderTest {
             WorldPointUtil.packWorldPoint(2894, 10199, 0)); // east
     }
 
+    @Test
+    public void testPathSnapshots() {
+        setupConfig(QuestState.FINISHED, 99, TeleportationItem.NONE);
+        int origin = WorldPointUtil.packWorldPoint(2894, 10199, 0);
+        int destination = WorldPointUtil.packWorldPoint(2864, 10199, 0);
+        Pathfinder pathfinder = new Pathfinder(plugin, pathfinderConfig, origin, Set.of(destination));
+        pathfinder.setSnapshotIntervalNanos(0);
+        List<PathSnapshot> snapshots = new ArrayList<>();
+        pathfinder.addPathListener(snapshots::add);
+        pathfinder.run();
+
+        assertTrue("No partial paths were published", snapshots.size() > 1);
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertEquals(i + 1, snapshots.get(i).getVersion());
+            assertEquals(i == snapshots.size() - 1, snapshots.get(i).isFinished());
+            assertEquals(origin, snapshots.get(i).get(0));
+        }
+        PathSnapshot result = snapshots.get(snapshots.size() - 1);
+        assertEquals(pathfinder.getPath().size(), result.size());
+        assertEquals(destination, result.get(result.size() - 1));
+    }
+
     @Test
     public void testImpossibleCharterShips() {
         // Shortest path for impossible charter ships has length 3 and goes
@@ -499,6 +529,159 @@ public class PathfinderTest {
             WorldPointUtil.packWorldPoint(3038, 3192, 0)); // Port Sarim
     }
 
+    @Test
+    public void testJumpPointSearchMatchesWalking() {
+        int[][] pairs = {
+            {WorldPointUtil.packWorldPoint(3222, 3218, 0), WorldPointUtil.packWorldPoint(3213, 3428, 0)}, // Lumbridge to Varrock
+            {WorldPointUtil.packWorldPoint(3093, 3244, 0), WorldPointUtil.packWorldPoint(3166, 3302, 0)}, // Draynor to the mill
+            {WorldPointUtil.packWorldPoint(2965, 3380, 0), WorldPointUtil.packWorldPoint(2946, 3368, 0)}, // Falador square to bank
+        };
+        int[] expected = new int[pairs.length];
+        setupConfig(QuestState.FINISHED, 99, TeleportationItem.NONE);
+        for (int i = 0; i < pairs.length; i++) {
+            expected[i] = calculatePathLength(pairs[i][0], pairs[i][1]);
+        }
+
+        when(config.useJumpPointSearch()).thenReturn(true);
+        setupConfig(QuestState.FINISHED, 99, TeleportationItem.NONE);
+        for (int i = 0; i < pairs.length; i++) {
+            assertEquals(expected[i], calculatePathLength(pairs[i][0], pairs[i][1]));
+        }
+    }
+
+    @Test
+    public void testRaceStrategiesMatchesSearch() {
+        int origin = WorldPointUtil.packWorldPoint(2965, 3380, 0); // Falador square
+        int destination = WorldPointUtil.packWorldPoint(2946, 3368, 0); // Falador west bank
+        setupConfig(QuestState.FINISHED, 99, TeleportationItem.NONE);
+        int expected = calculatePathLength(origin, destination);
+
+        when(config.raceStrategies()).thenReturn(true);
+        setupConfig(QuestState.FINISHED, 99, TeleportationItem.NONE);
+        assertEquals(expected, calculatePathLength(origin, destination));
+        assertEquals(1, pathfinderConfig.getRace().getRaces());
+        pathfinderConfig.getRace().clear();
+    }
+
+    @Test
+    public void testRaceWithoutTargetIsNotAWin() {
+        int origin = WorldPointUtil.packWorldPoint(3222, 3218, 0); // Lumbridge
+        int destination = WorldPointUtil.packWorldPoint(2834, 3335, 0); // Entrana, which cannot be walked to
+        when(config.calculationCutoff()).thenReturn(1);
+        when(config.raceStrategies()).thenReturn(true);
+        setupConfig(QuestState.FINISHED, 99, TeleportationItem.NONE);
+        Pathfinder pathfinder = new Pathfinder(plugin, pathfinderConfig, origin, Set.of(destination));
+        pathfinder.run();
+
+        assertFalse(pathfinder.isTargetReached());
+        assertEquals(0, pathfinderConfig.getRace().getRaces());
+        assertEquals(1, pathfinderConfig.getRace().getFallbacks());
+        for (SearchRace.Strategy strategy : SearchRace.Strategy.values()) {
+            assertEquals(0, pathfinderConfig.getRace().getWins(strategy));
+        }
+        pathfinderConfig.getRace().clear();
+    }
+
+    @Test
+    public void testUnreachableTargetIsNotReached() {
+        int origin = WorldPointUtil.packWorldPoint(3222, 3218, 0); // Lumbridge
+        int destination = WorldPointUtil.packWorldPoint(2834, 3335, 0); // Entrana, which cannot be walked to
+        setupConfig(QuestState.FINISHED, 99, TeleportationItem.NONE);
+        doReturn(new ReachabilityIndex(WalkableComponents.compute(pathfinderConfig.getMap())))
+            .when(pathfinderConfig).getReachability();
+        Pathfinder pathfinder = new Pathfinder(plugin, pathfinderConfig, origin, Set.of(destination));
+        pathfinder.run();
+
+        // The search heads for the closest reachable tile instead, which is neither reached nor cached as the target
+        assertTrue(pathfinder.isDone());
+        assertTrue(pathfinder.getStats().isTargetsUnreachable());
+        assertFalse(pathfinder.isTargetReached());
+        assertFalse(pathfinder.getPath().isEmpty());
+        assertNull(pathfinderConfig.getRoutes().get(origin, Set.of(destination), pathfinderConfig.getFingerprint()));
+    }
+
+    @Test
+    public void testLandmarkGuidanceMatchesSearch() {
+        int[][] pairs = {
+            {WorldPointUtil.packWorldPoint(3222, 3218, 0), WorldPointUtil.packWorldPoint(3213, 3428, 0)}, // Lumbridge to Varrock
+            {WorldPointUtil.packWorldPoint(3093, 3244, 0), WorldPointUtil.packWorldPoint(3166, 3302, 0)}, // Draynor to the mill
+            {WorldPointUtil.packWorldPoint(2965, 3380, 0), WorldPointUtil.packWorldPoint(2946, 3368, 0)}, // Falador square to bank
+            {WorldPointUtil.packWorldPoint(3222, 3218, 0), WorldPointUtil.packWorldPoint(2834, 3335, 0)}, // Lumbridge to Entrana by ship
+        };
+        when(config.useShips()).thenReturn(true);
+        when(config.useLandmarks()).thenReturn(true);
+        setupConfig(QuestState.FINISHED, 99, TeleportationItem.NONE);
+        // Landmarks that are never computed leave the searches unguided
+        doReturn(mock(LandmarkIndex.class)).when(pathfinderConfig).getLandmarks();
+        int[] expectedCosts = new int[pairs.length];
+        int[] unguidedNodes = new int[pairs.length];
+        for (int i = 0; i < pairs.length; i++) {
+            Pathfinder pathfinder = new Pathfinder(plugin, pathfinderConfig, pairs[i][0], Set.of(pairs[i][1]));
+            pathfinder.run();
+            expectedCosts[i] = getCachedCost(pairs[i][0], pairs[i][1]);
+            unguidedNodes[i] = pathfinder.getStats().getTotalNodesChecked();
+        }
+
+        setupConfig(QuestState.FINISHED, 99, TeleportationItem.NONE);
+        pathfinderConfig.getLandmarks().computeNow();
+        for (int i = 0; i < pairs.length; i++) {
+            Pathfinder pathfinder = new Pathfinder(plugin, pathfinderConfig, pairs[i][0], Set.of(pairs[i][1]));
+            pathfinder.run();
+            assertEquals(expectedCosts[i], getCachedCost(pairs[i][0], pairs[i][1]));
+            assertTrue(pathfinder.getStats().getTotalNodesChecked() < unguidedNodes[i]);
+        }
+        pathfinderConfig.getLandmarks().clear();
+    }
+
+    @Test
+    public void testSearchThreadsMatchesSearch() {
+        int[][] pairs = {
+            {WorldPointUtil.packWorldPoint(3222, 3218, 0), WorldPointUtil.packWorldPoint(2965, 3380, 0)}, // Lumbridge to Falador
+            {WorldPointUtil.packWorldPoint(3222, 3218, 0), WorldPointUtil.packWorldPoint(2834, 3335, 0)}, // Lumbridge to Entrana by ship
+            {WorldPointUtil.packWorldPoint(3222, 3218, 0), WorldPointUtil.packWorldPoint(3100, 3550, 0)}, // Lumbridge into the wilderness
+            {WorldPointUtil.packWorldPoint(3100, 3550, 0), WorldPointUtil.packWorldPoint(3093, 3244, 0)}, // Wilderness to Draynor
+        };
+        when(config.useAgilityShortcuts()).thenReturn(true);
+        when(config.useShips()).thenReturn(true);
+        for (boolean avoidWilderness : new boolean[]{false, true}) {
+            when(config.avoidWilderness()).thenReturn(avoidWilderness);
+            when(config.searchThreads()).thenReturn(1);
+            setupConfig(QuestState.FINISHED, 99, TeleportationItem.NONE);
+            int[] expectedLengths = new int[pairs.length];
+            int[] expectedCosts = new int[pairs.length];
+            for (int i = 0; i < pairs.length; i++) {
+                expectedLengths[i] = calculatePathLength(pairs[i][0], pairs[i][1]);
+                expectedCosts[i] = getCachedCost(pairs[i][0], pairs[i][1]);
+            }
+
+            when(config.searchThreads()).thenReturn(4);
+            setupConfig(QuestState.FINISHED, 99, TeleportationItem.NONE);
+            for (int i = 0; i < pairs.length; i++) {
+                assertEquals(expectedLengths[i], calculatePathLength(pairs[i][0], pairs[i][1]));
+                assertEquals(expectedCosts[i], getCachedCost(pairs[i][0], pairs[i][1]));
+            }
+        }
+    }
+
+    @Test
+    public void testSpeculationStopsAfterBankVisit() {
+        int origin = WorldPointUtil.packWorldPoint(2965, 3380, 0); // Falador square
+        int destination = WorldPointUtil.packWorldPoint(2944, 3368, 0); // Past the Falador west bank booths
+        when(config.includeBankPath()).thenReturn(true);
+        setupConfig(QuestState.FINISHED, 99, TeleportationItem.NONE);
+        RouteSpeculator speculator = new RouteSpeculator(plugin, pathfinderConfig);
+
+        calculatePathLength(origin, destination);
+        assertTrue(pathfinderConfig.isBankVisitedSinceRefresh());
+        speculator.after(origin, Set.of(destination)).run();
+        // The bank teleports are still usable until the next refresh, so nothing may be cached under the fingerprint
+        assertEquals(0, speculator.getSpeculated());
+        assertFalse(pathfinderConfig.getRoutes().contains(destination, Set.of(origin), pathfinderConfig.getFingerprint()));
+
+        pathfinderConfig.refresh();
+        assertFalse(pathfinderConfig.isBankVisitedSinceRefresh());
+    }
+
     @Test
     public void testTransportItems() {
         // Varrock Teleport
@@ -658,6 +841,13 @@ public class PathfinderTest {
         return pathfinder.getPath().size();
     }
 
+    /** Returns the cost of the route that the last search cached */
+    private int getCachedCost(int origin, int destination) {
+        RouteCache.Route route = pathfinderConfig.getRoutes().get(origin, Set.of(destination), pathfinderConfig.getFingerprint());
+        assertNotNull(route);
+        return route.getCost();
+    }
+
     private boolean hasTransportWithRequiredItem(Map<Integer, Set<Transport>> transports, int[] variationIds) {
         for (Set<Transport> set : transports.values()) {
             for (Transport t : set) {
@@ -0,0 +1,81 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import shortestpath.WorldPointUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ReachabilityIndexTest {
+    private static CollisionMap map;
+    private static WalkableComponents components;
+
+    @BeforeClass
+    public static void computeComponents() {
+        map = new CollisionMap(SplitFlagMap.fromResources());
+        components = WalkableComponents.compute(map);
+    }
+
+    private static int[] tiles() {
+        // Lumbridge castle and its surroundings, with plenty of blocked tiles next to walkable ones
+        int[] tiles = new int[64 * 64];
+        for (int i = 0; i < tiles.length; i++) {
+            tiles[i] = WorldPointUtil.packWorldPoint(3190 + i % 64, 3190 + i / 64, 0);
+        }
+        return tiles;
+    }
+
+    private static boolean[] query(ReachabilityIndex.ReachableTiles reachable, int[] tiles) {
+        boolean[] results = new boolean[tiles.length];
+        for (int i = 0; i < tiles.length; i++) {
+            results[i] = reachable.isReachable(tiles[i]);
+        }
+        return results;
+    }
+
+    @Test
+    public void testIsTraversableMatchesGetTraversable() {
+        CollisionMap other = new CollisionMap(SplitFlagMap.fromResources());
+        for (int tile : tiles()) {
+            int x = WorldPointUtil.unpackWorldX(tile);
+            int y = WorldPointUtil.unpackWorldY(tile);
+            boolean[] traversable = other.getTraversable(x, y, 0);
+            for (OrdinalDirection direction : OrdinalDirection.values()) {
+                assertEquals(traversable[direction.ordinal()], map.isTraversable(x, y, 0, direction));
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentQueriesMatchSingleThreaded() throws Exception {
+        ReachabilityIndex index = new ReachabilityIndex(components);
+        int start = WorldPointUtil.packWorldPoint(3222, 3218, 0);
+        ReachabilityIndex.ReachableTiles reachable = index.fromStart(start);
+        assertNotNull(reachable);
+        int[] tiles = tiles();
+        boolean[] expected = query(reachable, tiles);
+        assertTrue(reachable.isReachable(WorldPointUtil.packWorldPoint(3093, 3244, 0)));
+        // Without transports the island of Entrana cannot be walked to
+        assertFalse(reachable.isReachable(WorldPointUtil.packWorldPoint(2834, 3335, 0)));
+
+        // The client thread and the pathfinder thread query the same index and collision map at the same time
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 20; round++) {
+                Future<boolean[]> first = executor.submit(() -> query(reachable, tiles));
+                Future<boolean[]> second = executor.submit(() -> query(index.fromStart(start), tiles));
+                assertTrue(Arrays.equals(expected, first.get()));
+                assertTrue(Arrays.equals(expected, second.get()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
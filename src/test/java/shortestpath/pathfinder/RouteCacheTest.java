@@ -0,0 +1,94 @@
+package shortestpath.pathfinder;
+
+import java.util.Collections;
+import java.util.Set;
+import org.junit.Test;
+import shortestpath.PrimitiveIntList;
+import shortestpath.WorldPointUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RouteCacheTest {
+    private static final int TARGET = WorldPointUtil.packWorldPoint(3232, 3218, 0);
+    private static final Set<Integer> TARGETS = Collections.singleton(TARGET);
+
+    /** Walks east from a tile to the target */
+    private static Node walkToTarget(int fromX) {
+        Node node = null;
+        for (int x = fromX; x <= 3232; x++) {
+            node = new Node(WorldPointUtil.packWorldPoint(x, 3218, 0), node);
+        }
+        return node;
+    }
+
+    @Test
+    public void testExactHitAndFingerprintMiss() {
+        RouteCache cache = new RouteCache();
+        int start = WorldPointUtil.packWorldPoint(3222, 3218, 0);
+        cache.put(start, TARGETS, 1, walkToTarget(3222), true);
+
+        RouteCache.Route route = cache.get(start, TARGETS, 1);
+        assertNotNull(route);
+        assertEquals(10, route.getCost());
+        assertEquals(start, route.getPath().get(0));
+        assertNull(cache.get(start, TARGETS, 2));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testSpeculativeRouteHitsAreCounted() {
+        RouteCache cache = new RouteCache();
+        int start = WorldPointUtil.packWorldPoint(3222, 3218, 0);
+        assertFalse(cache.contains(start, TARGETS, 1));
+        cache.put(start, TARGETS, 1, walkToTarget(3222), true, true);
+        assertTrue(cache.contains(start, TARGETS, 1));
+        assertEquals(0, cache.getHits() + cache.getMisses());
+
+        assertNotNull(cache.get(start, TARGETS, 1));
+        assertEquals(1, cache.getSpeculativeHits());
+        cache.put(start, TARGETS, 1, walkToTarget(3222), true);
+        assertNotNull(cache.get(start, TARGETS, 1));
+        assertEquals(1, cache.getSpeculativeHits());
+    }
+
+    @Test
+    public void testSuffixIsReused() {
+        RouteCache cache = new RouteCache();
+        cache.put(WorldPointUtil.packWorldPoint(3222, 3218, 0), TARGETS, 1, walkToTarget(3222), true);
+
+        int start = WorldPointUtil.packWorldPoint(3226, 3218, 0);
+        RouteCache.Route route = cache.get(start, TARGETS, 1);
+        assertNotNull(route);
+        assertEquals(6, route.getCost());
+        PrimitiveIntList path = route.getPath();
+        assertEquals(7, path.size());
+        assertEquals(start, path.get(0));
+        assertEquals(TARGET, path.get(path.size() - 1));
+        assertEquals(6, route.toNode().cost);
+        assertEquals(1, cache.getSuffixHits());
+
+        cache.put(WorldPointUtil.packWorldPoint(3212, 3218, 0), TARGETS, 2, walkToTarget(3212), false);
+        assertNull(cache.get(start, TARGETS, 2));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        // Room for two routes of 11 tiles
+        RouteCache cache = new RouteCache(2 * (128 + 4 + 8 * 11));
+        cache.put(1, TARGETS, 1, walkToTarget(3222), false);
+        cache.put(2, TARGETS, 1, walkToTarget(3222), false);
+        cache.get(1, TARGETS, 1);
+        cache.put(3, TARGETS, 1, walkToTarget(3222), false);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNotNull(cache.get(1, TARGETS, 1));
+        assertNull(cache.get(2, TARGETS, 1));
+        assertNotNull(cache.get(3, TARGETS, 1));
+    }
+}
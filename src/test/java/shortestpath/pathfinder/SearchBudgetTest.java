@@ -0,0 +1,47 @@
+package shortestpath.pathfinder;
+
+import org.junit.Test;
+import shortestpath.CalculationCutoff;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SearchBudgetTest {
+    @Test
+    public void testNodeLimit() {
+        SearchBudget budget = new SearchBudget(CalculationCutoff.NODES, 0, 10);
+        budget.start();
+        for (int i = 0; i < 10; i++) {
+            assertFalse(budget.expand());
+        }
+        assertTrue(budget.expand());
+        assertEquals(SearchBudget.Limit.NODES, budget.getExhaustedLimit());
+    }
+
+    @Test
+    public void testRefillExtendsNodeLimit() {
+        SearchBudget budget = new SearchBudget(CalculationCutoff.NODES, 0, 10);
+        budget.start();
+        for (int i = 0; i < 5; i++) {
+            assertFalse(budget.expand());
+        }
+        budget.refill();
+        for (int i = 0; i < 10; i++) {
+            assertFalse(budget.expand());
+        }
+        assertTrue(budget.expand());
+        assertEquals(16, budget.getExpansions());
+    }
+
+    @Test
+    public void testTimeLimitIsCheckedEveryInterval() {
+        SearchBudget budget = new SearchBudget(CalculationCutoff.TIME_AND_NODES, -1, Long.MAX_VALUE / 2);
+        budget.start();
+        for (int i = 1; i < SearchBudget.CLOCK_CHECK_INTERVAL; i++) {
+            assertFalse(budget.expand());
+        }
+        assertTrue(budget.expand());
+        assertEquals(SearchBudget.Limit.TIME, budget.getExhaustedLimit());
+    }
+}
@@ -0,0 +1,102 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TourPlannerTest {
+    @Test
+    public void testHeldKarpMatchesBruteForce() {
+        Random random = new Random(41);
+        for (int instance = 0; instance < 50; instance++) {
+            int[][] costs = randomCosts(random, 1 + random.nextInt(7));
+            int[] tour = TourPlanner.heldKarp(costs);
+            assertIsTour(tour, costs.length);
+            assertEquals(bruteForce(costs), TourPlanner.getCost(costs, tour));
+        }
+    }
+
+    @Test
+    public void testImproveNeverWorsensNearestNeighbour() {
+        Random random = new Random(41);
+        for (int instance = 0; instance < 50; instance++) {
+            int[][] costs = randomCosts(random, 20 + random.nextInt(20));
+            int[] tour = TourPlanner.nearestNeighbour(costs);
+            int nearestNeighbourCost = TourPlanner.getCost(costs, tour);
+            TourPlanner.improve(costs, tour);
+            assertIsTour(tour, costs.length);
+            assertTrue(TourPlanner.getCost(costs, tour) <= nearestNeighbourCost);
+        }
+    }
+
+    @Test
+    public void testStopsOnALineAreVisitedInOrder() {
+        // Stops along a line, shuffled, with the start at one end
+        int[] positions = {0, 7, 3, 15, 1, 12, 9, 4, 14, 2, 11, 5, 13, 6, 10, 8};
+        int[][] costs = new int[positions.length][positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            for (int j = 0; j < positions.length; j++) {
+                costs[i][j] = Math.abs(positions[i] - positions[j]);
+            }
+        }
+
+        int[] tour = TourPlanner.order(costs);
+        assertEquals(15, TourPlanner.getCost(costs, tour));
+        int[] visited = new int[tour.length];
+        for (int i = 0; i < tour.length; i++) {
+            visited[i] = positions[tour[i]];
+        }
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15}, visited);
+    }
+
+    private static int[][] randomCosts(Random random, int stops) {
+        int[][] costs = new int[stops + 1][stops + 1];
+        for (int i = 0; i <= stops; i++) {
+            for (int j = 0; j <= stops; j++) {
+                costs[i][j] = i == j ? 0 : 1 + random.nextInt(200);
+            }
+        }
+        return costs;
+    }
+
+    private static void assertIsTour(int[] tour, int nodes) {
+        assertEquals(nodes, tour.length);
+        assertEquals(0, tour[0]);
+        int[] sorted = tour.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < nodes; i++) {
+            assertEquals(i, sorted[i]);
+        }
+    }
+
+    private static int bruteForce(int[][] costs) {
+        int[] tour = new int[costs.length];
+        for (int i = 0; i < tour.length; i++) {
+            tour[i] = i;
+        }
+        return bruteForce(costs, tour, 1);
+    }
+
+    private static int bruteForce(int[][] costs, int[] tour, int index) {
+        if (index == tour.length) {
+            return TourPlanner.getCost(costs, tour);
+        }
+        int best = Integer.MAX_VALUE;
+        for (int i = index; i < tour.length; i++) {
+            swap(tour, index, i);
+            best = Math.min(best, bruteForce(costs, tour, index + 1));
+            swap(tour, index, i);
+        }
+        return best;
+    }
+
+    private static void swap(int[] tour, int i, int j) {
+        int node = tour[i];
+        tour[i] = tour[j];
+        tour[j] = node;
+    }
+}
@@ -0,0 +1,47 @@
+package shortestpath.pathfinder;
+
+import java.util.Collections;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import shortestpath.PrimitiveIntList;
+import shortestpath.WorldPointUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TransitTableTest {
+    private static final int LUMBRIDGE = WorldPointUtil.packWorldPoint(3222, 3218, 0);
+    private static final int VARROCK = WorldPointUtil.packWorldPoint(3213, 3428, 0);
+
+    private static CollisionMap map;
+    private static TransitTable table;
+
+    @BeforeClass
+    public static void computeTable() {
+        map = new CollisionMap(SplitFlagMap.fromResources());
+        // A single transport from the Lumbridge courtyard to Varrock square
+        table = TransitTable.compute(map, new int[]{LUMBRIDGE, VARROCK, 5}, new int[0], false);
+    }
+
+    @Test
+    public void testRouteTakesTransitTransport() {
+        int start = WorldPointUtil.packWorldPoint(3222, 3221, 0);
+        int target = WorldPointUtil.packWorldPoint(3213, 3425, 0);
+        PrimitiveIntList route = table.route(map, start, Collections.singleton(target), new int[0]);
+
+        assertNotNull(route);
+        assertEquals(start, route.get(0));
+        assertEquals(target, route.get(route.size() - 1));
+        assertTrue(route.contains(LUMBRIDGE));
+        assertTrue(route.contains(VARROCK));
+        assertEquals(0, table.getCost(VARROCK, VARROCK));
+    }
+
+    @Test
+    public void testNearbyTargetIsLeftToSearch() {
+        int target = WorldPointUtil.packWorldPoint(3222, 3230, 0);
+        assertNull(table.route(map, LUMBRIDGE, Collections.singleton(target), new int[0]));
+    }
+}
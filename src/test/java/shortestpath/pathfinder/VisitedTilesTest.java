@@ -0,0 +1,68 @@
+package shortestpath.pathfinder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VisitedTilesTest {
+    private static CollisionMap map;
+
+    @BeforeClass
+    public static void loadMap() {
+        map = new CollisionMap(SplitFlagMap.fromResources());
+    }
+
+    @Test
+    public void testClaimNeedsPreparedRegion() {
+        VisitedTiles visited = new VisitedTiles(map);
+        assertFalse(visited.claim(3222, 3218, 0));
+
+        visited.prepare(3222, 3218);
+        assertTrue(visited.claim(3222, 3218, 0));
+        assertFalse(visited.claim(3222, 3218, 0));
+        assertTrue(visited.get(3222, 3218, 0));
+        assertFalse(visited.set(3222, 3218, 0));
+    }
+
+    @Test
+    public void testConcurrentClaimsSetEachTileOnce() throws Exception {
+        VisitedTiles visited = new VisitedTiles(map);
+        for (int x = 3200; x < 3264; x++) {
+            visited.prepare(x, 3200);
+        }
+
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                tasks.add(() -> {
+                    int claimed = 0;
+                    for (int x = 3200; x < 3264; x++) {
+                        for (int y = 3200; y < 3232; y++) {
+                            claimed += visited.claim(x, y, 0) ? 1 : 0;
+                        }
+                    }
+                    return claimed;
+                });
+            }
+
+            int claimed = 0;
+            for (Future<Integer> result : executor.invokeAll(tasks)) {
+                claimed += result.get();
+            }
+            assertEquals(64 * 32, claimed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package shortestpath.pathfinder;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import shortestpath.PrimitiveIntList;
+import shortestpath.WorldPointUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WalkableComponentsTest {
+    private static CollisionMap map;
+    private static WalkableComponents components;
+
+    @BeforeClass
+    public static void computeComponents() {
+        map = new CollisionMap(SplitFlagMap.fromResources());
+        components = WalkableComponents.compute(map);
+    }
+
+    @Test
+    public void testWalkableTilesShareComponent() {
+        // Lumbridge courtyard and Draynor Village are connected by walking
+        int courtyard = components.getComponent(3222, 3218, 0);
+        assertNotEquals(-1, courtyard);
+        assertEquals(courtyard, components.getComponent(3093, 3244, 0));
+    }
+
+    @Test
+    public void testBlockedTileHasNeighbourComponents() {
+        int x = 3222;
+        int y = 3218;
+        while (!map.isBlocked(x, y, 0)) {
+            x++;
+        }
+        assertEquals(-1, components.getComponent(x, y, 0));
+
+        PrimitiveIntList out = new PrimitiveIntList();
+        components.getComponents(WorldPointUtil.packWorldPoint(x, y, 0), out);
+        assertFalse(out.isEmpty());
+        assertTrue(out.contains(components.getComponent(3222, 3218, 0)));
+    }
+}